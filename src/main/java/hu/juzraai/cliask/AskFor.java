@@ -17,16 +17,10 @@
 package hu.juzraai.cliask;
 
 import hu.juzraai.cliask.annotation.Ask;
-import hu.juzraai.cliask.convert.ConvertFailedException;
 import hu.juzraai.cliask.convert.Converters;
-import hu.juzraai.cliask.inspect.FieldInspector;
-import hu.juzraai.cliask.inspect.ObjectInspector;
 import hu.juzraai.cliask.inspect.PreparedField;
-import hu.juzraai.cliask.util.AlignedText;
 
 import javax.annotation.Nonnull;
-import java.util.List;
-import java.util.Scanner;
 
 /**
  * This is the place of CLI-Ask's main functions, currently there are two main
@@ -41,6 +35,10 @@ import java.util.Scanner;
  * provide an object which has some fields annotated with {@link Ask}, and
  * {@link AskFor} will ask the user for their values. The input string will be
  * converted automatically to the field type using {@link Converters}.
+ * <p>
+ * These static methods use the default {@link AskSession}, which can be
+ * configured through {@link AskSession#getDefault()}. You can also create your
+ * own sessions with different settings.
  *
  * @author Zsolt Jurányi
  */
@@ -49,12 +47,45 @@ public class AskFor { // TODO doc: about recursive
 	// TODO README: about recursive
 
 	protected static String generatePrintedLabel(String label, String defaultValue) {
-		StringBuilder s = new StringBuilder();
-		s.append(label);
-		if (null != defaultValue) {
-			s.append(String.format("%n%s", String.format("[default: '%s']", defaultValue)));
-		}
-		return String.format("%n%s", new AlignedText(40, AlignedText.Align.RIGHT, s.toString()).toString().replaceAll("\n$", " : "));
+		return AskSession.getDefault().generatePrintedLabel(label, defaultValue);
+	}
+
+	/**
+	 * Requests user input for the fields of the given class which are passed
+	 * to its {@link hu.juzraai.cliask.annotation.Creator} annotated
+	 * constructor or static factory method, then creates an instance by
+	 * calling it. This way immutable classes with <code>final</code> fields
+	 * can be filled too.
+	 * <p>
+	 * Fields are asked, converted and validated the same way as in {@link
+	 * #object(String, Object)}. As there's no object yet, only primitive
+	 * parameters have default values (zero or <code>false</code>).
+	 *
+	 * @param label If it's not <code>null</code>, this will be printed out
+	 *              before asking for the field values, ":" will be appended to
+	 *              its end
+	 * @param type  Class to be instantiated
+	 * @param <T>   Type of the object
+	 * @return The created object
+	 * @throws IllegalArgumentException if the class has no valid creator
+	 * @throws IllegalStateException    if the creator failed
+	 */
+	@Nonnull
+	public static <T> T create(String label, @Nonnull Class<T> type) {
+		return AskSession.getDefault().create(label, type);
+	}
+
+	/**
+	 * Calls {@link #create(String, Class)} with <code>null</code> as the
+	 * <code>label</code> argument.
+	 *
+	 * @param type Class to be instantiated
+	 * @param <T>  Type of the object
+	 * @return The created object
+	 */
+	@Nonnull
+	public static <T> T create(@Nonnull Class<T> type) {
+		return create(null, type);
 	}
 
 	/**
@@ -88,26 +119,7 @@ public class AskFor { // TODO doc: about recursive
 	 */
 	@Nonnull
 	public static <T> T object(String label, @Nonnull T object) { // TODO doc: about recursive
-
-		// parse metadata
-		List<PreparedField> fields = new ObjectInspector(new FieldInspector()).relevantFieldsOf(object);
-
-		// if there's any field which needs to be asked
-		if (!fields.isEmpty()) {
-
-			// if we have a dataset name, write header
-			if (null != label && !label.trim().isEmpty()) {
-				System.out.printf("%n%s :%n", label);
-			}
-
-			// ask for fields
-			for (PreparedField field : fields) {
-				preparedField(field);
-			}
-
-		}
-
-		return object;
+		return AskSession.getDefault().object(label, object);
 	}
 
 	/**
@@ -144,34 +156,27 @@ public class AskFor { // TODO doc: about recursive
 		return object(null, object);
 	}
 
-	protected static void preparedField(@Nonnull PreparedField preparedField) {
-		Object defaultValue = preparedField.getDefaultValue();
-		String label = preparedField.getLabel();
-		if (preparedField.isRecursive()) { // avoiding of infinite loops handled in field inspector
-			object(label, defaultValue);
-		} else {
-			String dv = null == defaultValue ? null : defaultValue.toString();
-			boolean repeat;
-			do {
-				repeat = false;
-				String rawValue = string(label, dv);
-				try {
-					if (!rawValue.equals(dv)) { // no need to process default value
-
-						// TODO later: use raw value validator specified on field
-
-						Object value = preparedField.getConverter().convert(rawValue);
-
-						// TODO later: use value validator specified on field
+	/**
+	 * Updates an existing object like {@link #object(String, Object)}, but
+	 * asks only for the fields which are missing (<code>null</code>), invalid
+	 * according to their converter and validators, or marked stale by the
+	 * given paths. See {@link AskSession#refill(String, Object, String...)}.
+	 *
+	 * @param label      If it's not <code>null</code>, this will be printed
+	 *                   out before asking for the field values, ":" will be
+	 *                   appended to its end
+	 * @param object     Object to be updated
+	 * @param stalePaths Paths of fields to be asked anyway
+	 * @param <T>        Type of the object
+	 * @return The updated object
+	 */
+	@Nonnull
+	public static <T> T refill(String label, @Nonnull T object, @Nonnull String... stalePaths) {
+		return AskSession.getDefault().refill(label, object, stalePaths);
+	}
 
-						preparedField.set(value);
-					}
-				} catch (Exception e) {
-					repeat = e instanceof ConvertFailedException; // TODO later: or validation exceptions
-					System.out.printf("%40s   %s%n", "", e.getMessage());
-				}
-			} while (repeat);
-		}
+	protected static void preparedField(@Nonnull PreparedField preparedField) {
+		AskSession.getDefault().preparedField(preparedField);
 	}
 
 	/**
@@ -191,28 +196,7 @@ public class AskFor { // TODO doc: about recursive
 	 */
 	@Nonnull
 	public static String string(@Nonnull String label, String defaultValue) {
-		// TODO: acceptEmpty option?
-
-		// build up output
-
-		String printedLabel = generatePrintedLabel(label, defaultValue);
-
-		// ask for value
-
-		Scanner input = new Scanner(System.in);
-		String value;
-		boolean repeat;
-		do {
-			repeat = false;
-			System.out.print(printedLabel);
-			value = input.nextLine().trim();
-			if (value.isEmpty() && null == defaultValue) {
-				repeat = true;
-				System.out.printf("%40s   There's no default value, please try again!%n", "");
-			}
-		} while (repeat);
-
-		return value.isEmpty() ? defaultValue : value;
+		return AskSession.getDefault().string(label, defaultValue);
 	}
 
 	/**
@@ -0,0 +1,1668 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask;
+
+import hu.juzraai.cliask.annotation.Ask;
+import hu.juzraai.cliask.annotation.Creator;
+import hu.juzraai.cliask.console.ConsoleArbiter;
+import hu.juzraai.cliask.convert.ConvertResult;
+import hu.juzraai.cliask.convert.ConvertTo;
+import hu.juzraai.cliask.convert.Converters;
+import hu.juzraai.cliask.convert.DefaultConverter;
+import hu.juzraai.cliask.convert.TryConvertTo;
+import hu.juzraai.cliask.event.EventLog;
+import hu.juzraai.cliask.input.LineInput;
+import hu.juzraai.cliask.input.LineInputs;
+import hu.juzraai.cliask.input.LookaheadLineInput;
+import hu.juzraai.cliask.input.PeekableLineInput;
+import hu.juzraai.cliask.inspect.ClassPlan;
+import hu.juzraai.cliask.inspect.CreatorPlan;
+import hu.juzraai.cliask.inspect.FieldInspector;
+import hu.juzraai.cliask.inspect.FieldPlan;
+import hu.juzraai.cliask.inspect.ObjectInspector;
+import hu.juzraai.cliask.inspect.PreparedField;
+import hu.juzraai.cliask.screen.FormScreen;
+import hu.juzraai.cliask.source.QuickEntrySource;
+import hu.juzraai.cliask.source.ValueSource;
+import hu.juzraai.cliask.store.AnswerCache;
+import hu.juzraai.cliask.store.AnswerHistory;
+import hu.juzraai.cliask.suggest.SuggestionIndex;
+import hu.juzraai.cliask.util.StringInterner;
+import hu.juzraai.cliask.validate.ValidationFailedException;
+import hu.juzraai.toolbox.log.LoggerFactory;
+import org.slf4j.Logger;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.Array;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Holds the configuration of asking and implements the functions of {@link
+ * AskFor}. The static methods of {@link AskFor} use the default session which
+ * can be accessed via {@link #getDefault()}, but you can create your own
+ * sessions with different settings.
+ * <p>
+ * Settings of a session:
+ * <ul>
+ * <li><code>internStrings</code> - whether to deduplicate every converted
+ * <code>String</code> value using the session's {@link StringInterner}. If
+ * it's <code>false</code>, only fields with {@link Ask}<code>(intern =
+ * true)</code> will be deduplicated.</li>
+ * <li><code>interner</code> - the deduplication table to be used, it can be
+ * shared between sessions</li>
+ * <li><code>sources</code> - non-interactive {@link ValueSource}s (e.g.
+ * command line arguments, environment variables, properties) which are tried
+ * in order before prompting the user. Fields provided by a source won't be
+ * asked.</li>
+ * <li><code>answerCache</code> and <code>answerCacheMode</code> - an optional
+ * {@link AnswerCache} which stores the answers, so reruns can use them as
+ * default values or skip asking them</li>
+ * <li><code>pipeline</code> and <code>pipelineDepth</code> - an optional
+ * executor which converts and validates the lines read ahead from a
+ * non-interactive input, see {@link #setPipeline(ExecutorService, int)}</li>
+ * <li><code>quickEntry</code> - whether the fields of an object can be
+ * entered on one line as <code>name=value</code> pairs, see {@link
+ * #setQuickEntry(boolean)}</li>
+ * </ul>
+ *
+ * @author Zsolt Jurányi
+ */
+public class AskSession {
+
+	/**
+	 * Default capacity of the session's {@link StringInterner}.
+	 */
+	public static final int DEFAULT_INTERNER_CAPACITY = 4096;
+
+	/**
+	 * Default number of lines to be read ahead in pipelined mode.
+	 */
+	public static final int DEFAULT_PIPELINE_DEPTH = 8;
+
+	private static final Logger L = LoggerFactory.getLogger(AskSession.class);
+	private static final String DERIVED = "derived";
+	private static final String INPUT = "input";
+	private static final String QUICK_ENTRY = "quick entry";
+	private static final String QUICK_ENTRY_LABEL = "name=value ...";
+	private static final String SKIPPED = "-";
+	private static final String REDACTED = "***";
+	private static final String SNAPSHOT = "snapshot";
+	private static final AskSession DEFAULT = new AskSession();
+
+	private final List<ValueSource> sources = new CopyOnWriteArrayList<>();
+	private AnswerCache answerCache;
+	private AnswerCache.Mode answerCacheMode = AnswerCache.Mode.PREFILL;
+	private AnswerHistory answerHistory;
+	private AnswerHistory.Ranking answerHistoryRanking = AnswerHistory.Ranking.FREQUENT;
+	private boolean internStrings;
+	private StringInterner interner = new StringInterner(DEFAULT_INTERNER_CAPACITY);
+	private FormScreen formScreen;
+	private PromptProfile profile = PromptProfile.DEFAULT;
+	private volatile LineInput input;
+	private volatile PrintStream output;
+	private Locale locale;
+	private EventLog eventLog;
+	private volatile ConsoleArbiter console;
+	private final ThreadLocal<Refill> refill = new ThreadLocal<>();
+	private volatile LookaheadLineInput lookahead;
+	private volatile ExecutorService pipeline;
+	private volatile int pipelineDepth = DEFAULT_PIPELINE_DEPTH;
+	private final ThreadLocal<Map<PreparedField, Speculation>> speculations = new ThreadLocal<>();
+	private boolean quickEntry;
+	private final ThreadLocal<QuickEntrySource> quickEntries = new ThreadLocal<>();
+
+	/**
+	 * @return The session used by the static methods of {@link AskFor}
+	 */
+	@Nonnull
+	public static AskSession getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Appends a value source to the end of the session's source chain.
+	 *
+	 * @param source Value source to be tried before prompting the user
+	 */
+	public void addSource(@Nonnull ValueSource source) {
+		sources.add(source);
+	}
+
+	/**
+	 * Validates and converts the given raw value, then sets it to the field.
+	 * Invalid input is an expected event here, so it's reported as a return
+	 * value: converters implementing {@link TryConvertTo} are called without
+	 * exceptions, and the built-in validators throw preallocated exceptions
+	 * without stack trace.
+	 *
+	 * @param preparedField Prepared field to be updated
+	 * @param rawValue      Raw value got from the user or from a source
+	 * @return <code>null</code> if the value has been set, or a message which
+	 * describes the problem for the user if the raw or the converted value is
+	 * invalid
+	 */
+	@CheckForNull
+	protected String apply(@Nonnull PreparedField preparedField, @Nonnull String rawValue) {
+		return apply(preparedField, rawValue, preparedField.getConverter());
+	}
+
+	/**
+	 * Works like {@link #apply(PreparedField, String)}, but uses the given
+	 * converter.
+	 *
+	 * @param preparedField Prepared field to be updated
+	 * @param rawValue      Raw value got from the user or from a source
+	 * @param converter     Converter to be used
+	 * @return <code>null</code> if the value has been set, or a message which
+	 * describes the problem for the user if the raw or the converted value is
+	 * invalid
+	 */
+	@CheckForNull
+	protected String apply(@Nonnull PreparedField preparedField, @Nonnull String rawValue, @Nonnull ConvertTo<?> converter) {
+		ConvertResult<Object> result = speculated(preparedField, rawValue, converter);
+		if (null == result) {
+			result = check(preparedField, rawValue, converter);
+		}
+		if (!result.isSuccess()) {
+			return result.getMessage();
+		}
+		preparedField.set(intern(preparedField, result.getValue()));
+		return null;
+	}
+
+	/**
+	 * Validates the raw value, converts it, then validates the converted
+	 * value, without setting the field. It only calls the field's validators
+	 * and the converter, so it can run on any thread.
+	 *
+	 * @param preparedField Prepared field which the value belongs to
+	 * @param rawValue      Raw value got from the user or from a source
+	 * @param converter     Converter to be used
+	 * @return The converted value, or a message which describes the problem
+	 * for the user if the raw or the converted value is invalid
+	 */
+	@Nonnull
+	protected ConvertResult<Object> check(@Nonnull PreparedField preparedField, @Nonnull String rawValue, @Nonnull ConvertTo<?> converter) {
+		try {
+			preparedField.getPlan().validateRaw(rawValue);
+			ConvertResult<Object> result = Converters.tryConvert(converter, rawValue);
+			if (result.isSuccess()) {
+				preparedField.getPlan().validateValue(result.getValue());
+			}
+			return result;
+		} catch (ValidationFailedException e) {
+			return ConvertResult.failure(String.valueOf(e.getMessage()));
+		}
+	}
+
+	/**
+	 * Asks for the given fields on the full-screen form of the session.
+	 * Recursive fields are asked after the form is closed, on their own form.
+	 *
+	 * @param label  Title of the form, can be <code>null</code>
+	 * @param fields Fields to be asked
+	 */
+	protected void form(String label, @Nonnull List<PreparedField> fields) {
+		List<PreparedField> formFields = new ArrayList<>(fields.size());
+		List<PreparedField> recursiveFields = new ArrayList<>();
+		for (PreparedField field : fields) {
+			(field.isRecursive() ? recursiveFields : formFields).add(field);
+		}
+
+		formScreen.open(label, formFields);
+		for (int i = 0; i < formFields.size(); i++) { // same format as after an update
+			PreparedField field = formFields.get(i);
+			if (null != field.getDefaultValue()) {
+				formScreen.setDefaultValue(i, Converters.format(inputConverterOf(field), field.getDefaultValue()));
+			}
+		}
+		for (int i = 0; i < formFields.size(); i++) {
+			PreparedField field = formFields.get(i);
+			if (!field.isActive()) {
+				formScreen.setValue(i, SKIPPED);
+				continue;
+			}
+			boolean offered = offerDefault(field);
+			ConvertTo<?> converter = inputConverterOf(field);
+			Object defaultValue = field.getDefaultValue();
+			String dv = null == defaultValue ? null : Converters.format(converter, defaultValue);
+			if (offered && null != dv) {
+				formScreen.setDefaultValue(i, dv);
+			}
+			String message = null;
+			String hint = null;
+			int attempt = 0;
+			boolean repeat;
+			do {
+				attempt++;
+				formScreen.render(i, message, hint);
+				long asked = System.nanoTime();
+				String rawValue = readLine().trim();
+				long answered = System.nanoTime();
+				formScreen.echoed(rawValue);
+				repeat = true;
+				hint = null;
+				if (rawValue.isEmpty() && null == dv) {
+					message = profile.noDefaultMessage();
+				} else if (rawValue.isEmpty() || rawValue.equals(dv)) { // no need to process default value
+					formScreen.setValue(i, dv);
+					logAnswer(field, attempt, INPUT, dv, null, true, answered - asked, 0);
+					remember(field);
+					repeat = false;
+				} else {
+					message = apply(field, rawValue, converter);
+					logAnswer(field, attempt, INPUT, rawValue, message, false, answered - asked, System.nanoTime() - answered);
+					if (null != message) {
+						hint = suggestionsOf(field, rawValue);
+					} else {
+						formScreen.setValue(i, rawValue);
+						remember(field);
+						repeat = false;
+					}
+				}
+			} while (repeat);
+		}
+		if (!formFields.isEmpty()) {
+			formScreen.render(-1, null, null);
+		}
+		formScreen.close();
+
+		for (PreparedField field : recursiveFields) {
+			if (field.isActive()) {
+				preparedField(field);
+			}
+		}
+	}
+
+	protected String generatePrintedLabel(String label, String defaultValue) {
+		return profile.label(label, defaultValue);
+	}
+
+	/**
+	 * @return The answer cache of the session or <code>null</code> if answers
+	 * are not cached
+	 */
+	public AnswerCache getAnswerCache() {
+		return answerCache;
+	}
+
+	/**
+	 * @return How the cached answers are used
+	 */
+	@Nonnull
+	public AnswerCache.Mode getAnswerCacheMode() {
+		return answerCacheMode;
+	}
+
+	/**
+	 * @return The answer history of the session or <code>null</code> if
+	 * answers are not recorded
+	 */
+	public AnswerHistory getAnswerHistory() {
+		return answerHistory;
+	}
+
+	/**
+	 * @return How the answer to be offered from the history is selected
+	 */
+	@Nonnull
+	public AnswerHistory.Ranking getAnswerHistoryRanking() {
+		return answerHistoryRanking;
+	}
+
+	/**
+	 * Sets the answer history of the session. Answers given by the user are
+	 * recorded per field (except {@link Ask#secret()} fields), and when a
+	 * field has no explicit default value, the best answer from the history
+	 * is offered as default.
+	 *
+	 * @param answerHistory Answer history to be used, or <code>null</code> to
+	 *                      turn off recording
+	 * @param ranking       How the answer to be offered is selected
+	 */
+	public void setAnswerHistory(AnswerHistory answerHistory, @Nonnull AnswerHistory.Ranking ranking) {
+		this.answerHistory = answerHistory;
+		this.answerHistoryRanking = ranking;
+	}
+
+	/**
+	 * @return Executor which converts and validates the lines read ahead, or
+	 * <code>null</code> if pipelining is turned off
+	 */
+	public ExecutorService getPipeline() {
+		return pipeline;
+	}
+
+	/**
+	 * @return Maximum number of lines to be read ahead in pipelined mode
+	 */
+	public int getPipelineDepth() {
+		return pipelineDepth;
+	}
+
+	/**
+	 * Turns on pipelined mode for non-interactive input (e.g. answers piped
+	 * or redirected from a file). When asking the fields of an object line by
+	 * line, the session reads up to <code>depth</code> lines ahead, and
+	 * converts and validates them on the given executor, assuming each line
+	 * belongs to the next field. Results are still applied in field order on
+	 * the calling thread, so prompts, error messages and re-asking are the
+	 * same as in sequential mode; if a line turns out to belong to another
+	 * field (e.g. after a rejected value), it's converted again. Converters
+	 * and validators must be thread-safe.
+	 * <p>
+	 * Lines are read ahead with {@link PeekableLineInput#peekLine(int)}, they
+	 * are consumed from the input only when their field is asked. Inputs which
+	 * are not peekable are wrapped into a {@link LookaheadLineInput}.
+	 * <p>
+	 * Don't turn it on for interactive input: reading ahead waits for lines
+	 * which the user would type only after seeing the next prompts. The form
+	 * screen is not pipelined. The executor is not shut down by the session.
+	 *
+	 * @param pipeline Executor to be used (e.g. a small fixed thread pool),
+	 *                 or <code>null</code> to turn off pipelining
+	 * @param depth    Maximum number of lines to be read ahead, see {@link
+	 *                 #DEFAULT_PIPELINE_DEPTH}
+	 */
+	public void setPipeline(ExecutorService pipeline, int depth) {
+		if (depth < 1) {
+			throw new IllegalArgumentException("depth must be positive");
+		}
+		this.pipeline = pipeline;
+		this.pipelineDepth = depth;
+	}
+
+	/**
+	 * @return Whether quick-entry mode is turned on
+	 */
+	public boolean isQuickEntry() {
+		return quickEntry;
+	}
+
+	/**
+	 * Turns quick-entry mode on or off. In quick-entry mode, when asking an
+	 * object line by line, the session first reads <code>name=value</code>
+	 * pairs for the fields (see {@link QuickEntrySource}), typed on one line
+	 * or pasted as a block of lines. Reading stops at an empty line, or when
+	 * every field which has no default value, condition or derived default
+	 * got a value. Then the entered values are converted and validated in
+	 * one pass, fields which were not entered keep their explicit default
+	 * values, and only the fields which are missing or invalid are asked one
+	 * by one. Fields of recursive objects can be entered by their paths
+	 * relative to the top-level object (e.g. <code>database.host=db1</code>).
+	 * The form screen doesn't use quick entry.
+	 *
+	 * @param quickEntry Whether to turn on quick-entry mode
+	 */
+	public void setQuickEntry(boolean quickEntry) {
+		this.quickEntry = quickEntry;
+	}
+
+	/**
+	 * Sets the answer cache of the session.
+	 *
+	 * @param answerCache Answer cache to be used, or <code>null</code> to turn
+	 *                    off caching
+	 * @param mode        How the cached answers are used
+	 */
+	public void setAnswerCache(AnswerCache answerCache, @Nonnull AnswerCache.Mode mode) {
+		this.answerCache = answerCache;
+		this.answerCacheMode = mode;
+	}
+
+	/**
+	 * @return The console arbiter which the session prints through, or
+	 * <code>null</code> if the session prints to its output directly
+	 */
+	public ConsoleArbiter getConsole() {
+		return console;
+	}
+
+	/**
+	 * Sets the console arbiter to print prompts and messages through. Output
+	 * which background threads write into the arbiter is printed above the
+	 * active prompt, and the prompt is redrawn after it.
+	 *
+	 * @param console Console arbiter to be used, or <code>null</code> to print
+	 *                to the output of the session (see {@link #getOutput()})
+	 */
+	public void setConsole(ConsoleArbiter console) {
+		this.console = console;
+	}
+
+	/**
+	 * @return The event log of the session or <code>null</code> if events are
+	 * not logged
+	 */
+	public EventLog getEventLog() {
+		return eventLog;
+	}
+
+	/**
+	 * Sets the event log which records every answer (accepted, default or
+	 * rejected, from the user or from a source) with timings. Answers of
+	 * fields marked as {@link Ask#secret()} are redacted. Events are written
+	 * by a background thread, asking is never blocked by the log.
+	 *
+	 * @param eventLog Event log to be used, or <code>null</code> to turn off
+	 *                 logging
+	 */
+	public void setEventLog(EventLog eventLog) {
+		this.eventLog = eventLog;
+	}
+
+	/**
+	 * @return The full-screen form used to ask for objects, or
+	 * <code>null</code> if fields are asked line by line
+	 */
+	public FormScreen getFormScreen() {
+		return formScreen;
+	}
+
+	/**
+	 * Turns on or off full-screen form mode. In form mode, every field of an
+	 * object is displayed at once, and only the changed screen cells are sent
+	 * to the terminal after each input. The terminal must support ANSI escape
+	 * sequences.
+	 *
+	 * @param formScreen Form to be used, or <code>null</code> to ask fields
+	 *                   line by line
+	 */
+	public void setFormScreen(FormScreen formScreen) {
+		this.formScreen = formScreen;
+	}
+
+	/**
+	 * Returns the input of the session. If it's not set, it will be created
+	 * for the standard input by {@link LineInputs#standardInput()} on first
+	 * call, which reads redirected files directly through a memory-mapped
+	 * buffer.
+	 *
+	 * @return The input which user answers are read from
+	 */
+	@Nonnull
+	public LineInput getInput() {
+		LineInput i = input;
+		if (null == i) {
+			synchronized (this) {
+				i = input;
+				if (null == i) {
+					input = i = LineInputs.standardInput();
+				}
+			}
+		}
+		return i;
+	}
+
+	/**
+	 * Sets the input which user answers are read from.
+	 *
+	 * @param input Input to be used
+	 */
+	public void setInput(@Nonnull LineInput input) {
+		this.input = input;
+	}
+
+	/**
+	 * @return The deduplication table used for <code>String</code> values
+	 */
+	@Nonnull
+	public StringInterner getInterner() {
+		return interner;
+	}
+
+	public void setInterner(@Nonnull StringInterner interner) {
+		this.interner = interner;
+	}
+
+	/**
+	 * @return The locale whose number format is used to convert user input,
+	 * or <code>null</code> if numbers are converted in locale-independent
+	 * format
+	 */
+	public Locale getLocale() {
+		return locale;
+	}
+
+	/**
+	 * Sets the locale whose number format should be used to convert user
+	 * input of numeric fields (e.g. <code>1.234,5</code> in German). Fields
+	 * having a custom converter or an own locale (see {@link Ask#locale()})
+	 * are not affected. Default values are displayed in this format too.
+	 *
+	 * @param locale Locale of the number format, or <code>null</code> to use
+	 *               the locale-independent converters
+	 */
+	public void setLocale(Locale locale) {
+		this.locale = locale;
+	}
+
+	/**
+	 * @return The stream which prompts and messages are printed to, it's
+	 * <code>System.out</code> unless another stream has been set
+	 */
+	@Nonnull
+	public PrintStream getOutput() {
+		PrintStream o = output;
+		return null == o ? System.out : o;
+	}
+
+	/**
+	 * Sets the stream which prompts and messages should be printed to. Together
+	 * with {@link #setInput(LineInput)}, it makes the session independent of
+	 * the global streams, so sessions can run in parallel, e.g. in tests (see
+	 * {@link hu.juzraai.cliask.console.VirtualConsole}).
+	 *
+	 * @param output Stream to be used, or <code>null</code> to use
+	 *               <code>System.out</code>
+	 */
+	public void setOutput(PrintStream output) {
+		this.output = output;
+	}
+
+	/**
+	 * @return The profile which defines how prompts and messages are rendered
+	 */
+	@Nonnull
+	public PromptProfile getProfile() {
+		return profile;
+	}
+
+	/**
+	 * Sets the profile which defines how prompts and messages are rendered in
+	 * line-by-line mode. {@link PromptProfile#COMPACT} omits padding and
+	 * shortens hints, to reduce the bytes sent over slow links.
+	 *
+	 * @param profile Profile to be used
+	 */
+	public void setProfile(@Nonnull PromptProfile profile) {
+		this.profile = profile;
+	}
+
+	/**
+	 * @return The value sources which are tried in order before prompting the
+	 * user
+	 */
+	@Nonnull
+	public List<ValueSource> getSources() {
+		return sources;
+	}
+
+	/**
+	 * @return Whether every converted <code>String</code> value should be
+	 * deduplicated, not only the ones of fields marked with {@link
+	 * Ask}<code>(intern = true)</code>
+	 */
+	public boolean isInternStrings() {
+		return internStrings;
+	}
+
+	public void setInternStrings(boolean internStrings) {
+		this.internStrings = internStrings;
+	}
+
+	/**
+	 * Offers a default value for a field which is about to be asked and has
+	 * no explicit default value (see {@link #hasExplicitDefault(PreparedField)}).
+	 * The value derived from the other fields (see {@link
+	 * Ask#derive()}) is tried first, then the answer history of the session.
+	 * The offered value is applied to the field and becomes its default
+	 * value.
+	 *
+	 * @param preparedField Prepared field to be asked
+	 * @return Whether a default value has been offered
+	 */
+	protected boolean offerDefault(@Nonnull PreparedField preparedField) {
+		if (preparedField.isRecursive() || hasExplicitDefault(preparedField)) {
+			return false;
+		}
+		String derived = preparedField.getDerivedDefault();
+		boolean offered = null != derived && tryApply(preparedField, derived, DERIVED);
+		if (!offered && null != answerHistory) {
+			String answer = answerHistory.suggest(historyKeyOf(preparedField), answerHistoryRanking);
+			offered = null != answer && tryApply(preparedField, answer, "answer history");
+		}
+		if (offered) {
+			preparedField.setDefaultValue(preparedField.get());
+		}
+		return offered;
+	}
+
+	/**
+	 * Checks whether the given field has an explicit default value: a
+	 * non-<code>null</code> value, which is not the zero value of a primitive
+	 * field.
+	 *
+	 * @param preparedField Prepared field to be checked
+	 * @return Whether the field has an explicit default value
+	 */
+	protected boolean hasExplicitDefault(@Nonnull PreparedField preparedField) {
+		Object defaultValue = preparedField.getDefaultValue();
+		Class<?> type = preparedField.getField().getType();
+		return null != defaultValue && (!type.isPrimitive() || !defaultValue.equals(Array.get(Array.newInstance(type, 1), 0)));
+	}
+
+	/**
+	 * @param preparedField Prepared field
+	 * @return Key of the field in the answer history
+	 */
+	@Nonnull
+	protected String historyKeyOf(@Nonnull PreparedField preparedField) {
+		return AnswerHistory.keyOf(preparedField.getObjectType(), preparedField.getField().getName());
+	}
+
+	/**
+	 * Returns the converter to be used for user input. If the session has a
+	 * locale, numeric fields without a custom converter or an own locale use
+	 * the locale-aware converter of the session's locale. Values from sources
+	 * and the answer cache are always converted by the field's own converter.
+	 *
+	 * @param preparedField Prepared field to be asked
+	 * @return Converter to be used for user input
+	 */
+	@Nonnull
+	protected ConvertTo<?> inputConverterOf(@Nonnull PreparedField preparedField) {
+		Ask ask = preparedField.getPlan().getAsk();
+		if (null != locale && ask.locale().isEmpty() && DefaultConverter.class.equals(ask.converter())) {
+			ConvertTo<?> converter = Converters.findLocalized(preparedField.getField().getType(), locale);
+			if (null != converter) {
+				return converter;
+			}
+		}
+		return preparedField.getConverter();
+	}
+
+	/**
+	 * Deduplicates the converted value using the session's {@link
+	 * StringInterner} if it's a <code>String</code> and interning is turned on
+	 * for the field or for the whole session.
+	 *
+	 * @param preparedField Prepared field which the value belongs to
+	 * @param value         Converted value
+	 * @return The canonical instance of the value if it was interned, or the
+	 * value itself
+	 */
+	protected Object intern(@Nonnull PreparedField preparedField, Object value) {
+		if (value instanceof String && (internStrings || preparedField.getAsk().intern())) {
+			return interner.intern((String) value);
+		}
+		return value;
+	}
+
+	/**
+	 * Requests user input for every field in the given <code>Object</code>
+	 * argument which is annotated with {@link Ask}, and updates the object
+	 * using values got from user. See {@link AskFor#object(String, Object)}
+	 * for details.
+	 *
+	 * @param label  If it's not <code>null</code>, this will be printed out
+	 *               before asking for the field values, ":" will be appended to
+	 *               its end
+	 * @param object Object to be updated using user input
+	 * @param <T>    Type of the object
+	 * @return The object updated from user input
+	 */
+	@Nonnull
+	public <T> T object(String label, @Nonnull T object) {
+		return object(label, object, "");
+	}
+
+	/**
+	 * Works like {@link #object(String, Object)}, but the field paths (used
+	 * to look up values in the sources) will be prefixed with the given path.
+	 *
+	 * @param label  If it's not <code>null</code>, this will be printed out
+	 *               before asking for the field values, ":" will be appended to
+	 *               its end
+	 * @param object Object to be updated using user input
+	 * @param path   Path of the object, empty string for top-level objects
+	 * @param <T>    Type of the object
+	 * @return The object updated from user input
+	 */
+	@Nonnull
+	protected <T> T object(String label, @Nonnull T object, @Nonnull String path) {
+		ObjectInspector inspector = new ObjectInspector(new FieldInspector());
+		fill(label, object.getClass(), inspector.relevantFieldsOf(object, path), path);
+		return object;
+	}
+
+	/**
+	 * Requests user input for the fields of the given class which are passed
+	 * to its {@link Creator}, then creates an instance by calling the creator.
+	 * See {@link AskFor#create(String, Class)} for details.
+	 *
+	 * @param label If it's not <code>null</code>, this will be printed out
+	 *              before asking for the field values, ":" will be appended to
+	 *              its end
+	 * @param type  Class to be instantiated
+	 * @param <T>   Type of the object
+	 * @return The created object
+	 * @throws IllegalArgumentException if the class has no valid creator
+	 * @throws IllegalStateException    if the creator failed
+	 */
+	@Nonnull
+	public <T> T create(String label, @Nonnull Class<T> type) {
+		return create(label, type, null);
+	}
+
+	/**
+	 * Works like {@link #create(String, Class)}, but the default values are
+	 * read from the given template object, e.g. a previous instance.
+	 *
+	 * @param label    If it's not <code>null</code>, this will be printed out
+	 *                 before asking for the field values, ":" will be appended
+	 *                 to its end
+	 * @param type     Class to be instantiated
+	 * @param template Object to read default values from, can be
+	 *                 <code>null</code>
+	 * @param <T>      Type of the object
+	 * @return The created object
+	 * @throws IllegalArgumentException if the class has no valid creator
+	 * @throws IllegalStateException    if the creator failed
+	 */
+	@Nonnull
+	public <T> T create(String label, @Nonnull Class<T> type, T template) {
+		return create(label, type, template, "");
+	}
+
+	/**
+	 * Calls {@link #create(String, Class)} with <code>null</code> as the
+	 * <code>label</code> argument.
+	 *
+	 * @param type Class to be instantiated
+	 * @param <T>  Type of the object
+	 * @return The created object
+	 */
+	@Nonnull
+	public <T> T create(@Nonnull Class<T> type) {
+		return create(null, type);
+	}
+
+	/**
+	 * Works like {@link #create(String, Class, Object)}, but the field paths
+	 * (used to look up values in the sources) will be prefixed with the given
+	 * path.
+	 *
+	 * @param label    If it's not <code>null</code>, this will be printed out
+	 *                 before asking for the field values, ":" will be appended
+	 *                 to its end
+	 * @param type     Class to be instantiated
+	 * @param template Object to read default values from, can be
+	 *                 <code>null</code>
+	 * @param path     Path of the object, empty string for top-level objects
+	 * @param <T>      Type of the object
+	 * @return The created object
+	 */
+	@Nonnull
+	protected <T> T create(String label, @Nonnull Class<T> type, T template, @Nonnull String path) {
+		ObjectInspector inspector = new ObjectInspector(new FieldInspector());
+		ClassPlan plan = inspector.planOf(type);
+		CreatorPlan creator = plan.getCreator();
+		if (null == creator) {
+			throw new IllegalArgumentException("Class has no @Creator: " + type.getName());
+		}
+		if (null != creator.getProblem()) {
+			throw new IllegalArgumentException("Invalid @Creator in class " + type.getName() + ": " + creator.getProblem().getMessage(), creator.getProblem());
+		}
+		Object[] arguments = creator.newArguments();
+		fill(label, type, inspector.relevantArgumentsOf(plan, arguments, template, path), path);
+		try {
+			return type.cast(creator.create(arguments));
+		} catch (Exception e) {
+			throw new IllegalStateException("Failed to create " + type.getName() + ": " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Resolves the given fields from the sources and the answer cache, asks
+	 * for the remaining ones, then stores the answers in the cache.
+	 *
+	 * @param label  If it's not <code>null</code>, this will be printed out
+	 *               before asking for the field values
+	 * @param type   Class of the object which the fields belong to
+	 * @param fields Relevant fields of the object
+	 * @param path   Path of the object, empty string for top-level objects
+	 */
+	protected void fill(String label, @Nonnull Class<?> type, @Nonnull List<PreparedField> fields, @Nonnull String path) {
+		String cacheKey = AnswerCache.keyOf(type, path);
+		long schemaHash = new ObjectInspector(new FieldInspector()).planOf(type).getSchemaHash();
+		Map<String, String> cachedAnswers = null == answerCache ? null : answerCache.get(cacheKey, schemaHash);
+
+		// resolve fields from sources and cache
+		List<PreparedField> unresolved = new ArrayList<>(fields.size());
+		for (PreparedField field : fields) {
+			if (field.isRecursive()) {
+				unresolved.add(field);
+			} else if (!resolve(field) && !resolveFromSnapshot(field)) {
+				String cached = null == cachedAnswers ? null : cachedAnswers.get(field.getField().getName());
+				if (null == cached || !tryApply(field, cached, "answer cache")) {
+					unresolved.add(field);
+				} else if (AnswerCache.Mode.PREFILL == answerCacheMode) {
+					field.setDefaultValue(field.get()); // cached answer becomes the default
+					unresolved.add(field);
+				}
+			}
+		}
+
+		// if there's any field which needs to be asked
+		if (!unresolved.isEmpty()) {
+
+			// if we have a dataset name, write header
+			if (null == formScreen && null != label && !label.trim().isEmpty()) {
+				print(profile.header(label));
+			}
+
+			// ask for fields - skip the ones whose condition doesn't hold
+			if (null != formScreen) {
+				form(label, unresolved);
+			} else {
+				Map<PreparedField, Speculation> previous = speculations.get();
+				QuickEntrySource previousEntries = quickEntries.get();
+				speculations.set(null == pipeline ? null : new IdentityHashMap<PreparedField, Speculation>());
+				try {
+					if (quickEntry && null == previousEntries) { // recursive objects use the top-level entry
+						quickEntries.set(readQuickEntry(unresolved, path));
+					}
+					QuickEntrySource entries = quickEntries.get();
+					Set<PreparedField> entered = null == entries ? null : applyQuickEntry(unresolved, entries);
+					for (int i = 0; i < unresolved.size(); i++) {
+						PreparedField field = unresolved.get(i);
+						if (field.isActive() && (null == entries || !entered.contains(field) && !keepDefault(field, entries))) {
+							offerDefault(field);
+							speculate(unresolved, i);
+							preparedField(field);
+						}
+					}
+				} finally {
+					cancelSpeculations();
+					speculations.set(previous);
+					quickEntries.set(previousEntries);
+				}
+			}
+
+		}
+
+		// store answers
+		if (null != answerCache) {
+			storeAnswers(fields, cacheKey, schemaHash, path.isEmpty());
+		}
+	}
+
+	/**
+	 * Calls {@link #object(String, Object)} with <code>null</code> as the
+	 * <code>label</code> argument.
+	 *
+	 * @param object Object to be updated using user input
+	 * @param <T>    Type of the object
+	 * @return The object updated from user input
+	 */
+	@Nonnull
+	public <T> T object(@Nonnull T object) {
+		return object(null, object);
+	}
+
+	/**
+	 * Updates an existing object like {@link #object(String, Object)}, but
+	 * asks only for the fields which are missing (<code>null</code>), invalid
+	 * or stale. Current values are checked by the field's converter and
+	 * validators, as if they were given by a source.
+	 *
+	 * @param label      If it's not <code>null</code>, this will be printed
+	 *                   out before asking for the field values, ":" will be
+	 *                   appended to its end
+	 * @param object     Object to be updated
+	 * @param stalePaths Paths of fields to be asked anyway; a path of a
+	 *                   recursive field marks all of its fields stale
+	 * @param <T>        Type of the object
+	 * @return The updated object
+	 */
+	@Nonnull
+	public <T> T refill(String label, @Nonnull T object, @Nonnull String... stalePaths) {
+		return refill(label, object, null, stalePaths);
+	}
+
+	/**
+	 * Works like {@link #refill(String, Object, String...)}, but the values
+	 * are taken from the given snapshot (e.g. a file written from {@link
+	 * #snapshot(Object)} and loaded by {@link
+	 * hu.juzraai.cliask.source.PropertiesSource#load(java.io.File)}) instead
+	 * of the current values of the object. Fields missing from the snapshot
+	 * are asked, with their current values as defaults.
+	 *
+	 * @param label      If it's not <code>null</code>, this will be printed
+	 *                   out before asking for the field values, ":" will be
+	 *                   appended to its end
+	 * @param object     Object to be updated
+	 * @param snapshot   Previous values by field path, or <code>null</code>
+	 *                   to use the current values of the object
+	 * @param stalePaths Paths of fields to be asked anyway
+	 * @param <T>        Type of the object
+	 * @return The updated object
+	 */
+	@Nonnull
+	public <T> T refill(String label, @Nonnull T object, ValueSource snapshot, @Nonnull String... stalePaths) {
+		Refill previous = refill.get();
+		refill.set(new Refill(snapshot, stalePaths));
+		try {
+			return object(label, object);
+		} finally {
+			refill.set(previous);
+		}
+	}
+
+	/**
+	 * Reads quick-entry lines (see {@link #setQuickEntry(boolean)}) for the
+	 * given fields until an empty line, or until every required field (which
+	 * has no explicit default value, condition or derived default) got a
+	 * value. Names which don't belong to the given fields and malformed
+	 * lines are reported, the rest of the line is still used.
+	 *
+	 * @param fields Fields to be asked
+	 * @param path   Path of the object, empty string for top-level objects
+	 * @return The entered values by field path
+	 */
+	@Nonnull
+	protected QuickEntrySource readQuickEntry(@Nonnull List<PreparedField> fields, @Nonnull String path) {
+		String prefix = path.isEmpty() ? "" : path + ".";
+		ObjectInspector inspector = new ObjectInspector(new FieldInspector());
+		Set<String> names = new HashSet<>();
+		List<String> required = new ArrayList<>();
+		for (PreparedField field : fields) {
+			String name = field.getField().getName();
+			if (field.isRecursive()) {
+				Object value = field.getDefaultValue();
+				Class<?> type = null == value ? field.getField().getType() : value.getClass();
+				collectQuickEntryNames(inspector, type, name, new HashSet<Class<?>>(), names);
+			} else {
+				names.add(name);
+				if (null == field.getRule() && !hasExplicitDefault(field)) {
+					required.add(field.getPath());
+				}
+			}
+		}
+		QuickEntrySource entries = new QuickEntrySource();
+		String printedLabel = generatePrintedLabel(QUICK_ENTRY_LABEL, null);
+		boolean complete = false;
+		while (!complete) {
+			String line = prompt(printedLabel);
+			if (line.isEmpty()) {
+				break;
+			}
+			Map<String, String> pairs;
+			try {
+				pairs = QuickEntrySource.parse(line);
+			} catch (ParseException e) {
+				print(profile.message(e.getMessage()));
+				continue;
+			}
+			for (Map.Entry<String, String> pair : pairs.entrySet()) {
+				String name = pair.getKey();
+				if (names.contains(name)) {
+					entries.put(prefix + name, pair.getValue());
+				} else {
+					print(profile.message("Unknown field: " + name));
+				}
+			}
+			complete = true;
+			for (String p : required) {
+				complete &= entries.contains(p);
+			}
+		}
+		return entries;
+	}
+
+	/**
+	 * Collects the paths of the non-recursive fields of a recursive object,
+	 * relative to the object which quick entry is read for, using the class
+	 * plans.
+	 *
+	 * @param inspector Object inspector to get the class plans
+	 * @param type      Class of the recursive object
+	 * @param prefix    Path of the recursive object
+	 * @param visited   Classes on the current path, to stop on cycles
+	 * @param names     Set to put the paths in
+	 */
+	private void collectQuickEntryNames(@Nonnull ObjectInspector inspector, @Nonnull Class<?> type, @Nonnull String prefix, @Nonnull Set<Class<?>> visited, @Nonnull Set<String> names) {
+		if (!visited.add(type)) {
+			return;
+		}
+		ClassPlan plan = inspector.planOf(type);
+		String[] paths = plan.pathsOf(prefix);
+		for (int i = 0; i < paths.length; i++) {
+			FieldPlan field = plan.getFields().get(i);
+			if (field.getAsk().recursive()) {
+				collectQuickEntryNames(inspector, field.getField().getType(), paths[i], visited, names);
+			} else {
+				names.add(paths[i]);
+			}
+		}
+		visited.remove(type);
+	}
+
+	/**
+	 * Applies the values entered in quick-entry mode to the given fields in
+	 * one pass, in asking order. Problems of invalid values are printed out
+	 * together, those fields will be asked.
+	 *
+	 * @param fields  Fields to be asked
+	 * @param entries Values entered in quick-entry mode
+	 * @return The fields which got a valid value
+	 */
+	@Nonnull
+	protected Set<PreparedField> applyQuickEntry(@Nonnull List<PreparedField> fields, @Nonnull QuickEntrySource entries) {
+		Set<PreparedField> entered = Collections.newSetFromMap(new IdentityHashMap<PreparedField, Boolean>());
+		for (PreparedField field : fields) {
+			String rawValue = field.isRecursive() ? null : entries.get(field.getPath());
+			if (null != rawValue) {
+				long started = System.nanoTime();
+				String problem = apply(field, rawValue, inputConverterOf(field));
+				logAnswer(field, 1, QUICK_ENTRY, rawValue, problem, false, -1, System.nanoTime() - started);
+				if (null == problem) {
+					remember(field);
+					entered.add(field);
+				} else {
+					print(profile.message(field.getLabel() + ": " + problem));
+					printSuggestions(field, rawValue);
+				}
+			}
+		}
+		return entered;
+	}
+
+	/**
+	 * Decides whether a field which was not entered in quick-entry mode can
+	 * keep its explicit or offered (see {@link #offerDefault(PreparedField)})
+	 * default value without asking.
+	 *
+	 * @param preparedField Prepared field to be asked
+	 * @param entries       Values entered in quick-entry mode
+	 * @return Whether the field keeps its default value
+	 */
+	protected boolean keepDefault(@Nonnull PreparedField preparedField, @Nonnull QuickEntrySource entries) {
+		if (preparedField.isRecursive() || entries.contains(preparedField.getPath())) {
+			return false;
+		}
+		offerDefault(preparedField);
+		if (!hasExplicitDefault(preparedField)) {
+			return false;
+		}
+		logAnswer(preparedField, 1, QUICK_ENTRY, Converters.format(preparedField.getConverter(), preparedField.getDefaultValue()), null, true, -1, 0);
+		return true;
+	}
+
+	/**
+	 * Checks whether the value of the given field can be taken from the
+	 * snapshot of the current refill (see {@link #refill(String, Object,
+	 * ValueSource, String...)}), and if so, applies it.
+	 *
+	 * @param preparedField Prepared field to be resolved
+	 * @return Whether a valid value has been taken from the snapshot
+	 */
+	protected boolean resolveFromSnapshot(@Nonnull PreparedField preparedField) {
+		Refill r = refill.get();
+		if (null == r || r.isStale(preparedField.getPath())) {
+			return false;
+		}
+		String rawValue;
+		if (null != r.snapshot) {
+			rawValue = r.snapshot.get(preparedField.getPath());
+		} else {
+			Object value = preparedField.get();
+			rawValue = null == value ? null : Converters.format(preparedField.getConverter(), value);
+		}
+		return null != rawValue && tryApply(preparedField, rawValue.trim(), SNAPSHOT);
+	}
+
+	/**
+	 * Collects the current values of the given object's relevant fields
+	 * (including fields of recursive objects) by path, formatted by their
+	 * converters. Secret and <code>null</code> fields are left out. The
+	 * result can be stored and passed later to {@link #refill(String, Object,
+	 * ValueSource, String...)} as a {@link
+	 * hu.juzraai.cliask.source.PropertiesSource}.
+	 *
+	 * @param object Object to be saved
+	 * @return Raw values by field path
+	 */
+	@Nonnull
+	public Properties snapshot(@Nonnull Object object) {
+		Properties properties = new Properties();
+		snapshot(object, "", properties);
+		return properties;
+	}
+
+	private void snapshot(@Nonnull Object object, @Nonnull String path, @Nonnull Properties properties) {
+		for (PreparedField field : new ObjectInspector(new FieldInspector()).relevantFieldsOf(object, path)) {
+			Object value = field.get();
+			if (null == value) {
+				continue;
+			}
+			if (field.isRecursive()) {
+				snapshot(value, field.getPath(), properties);
+			} else if (!field.getPlan().getAsk().secret()) {
+				properties.setProperty(field.getPath(), Converters.format(field.getConverter(), value));
+			}
+		}
+	}
+
+	protected void preparedField(@Nonnull PreparedField preparedField) {
+		Object defaultValue = preparedField.getDefaultValue();
+		String label = preparedField.getLabel();
+		if (preparedField.isRecursive()) { // avoiding of infinite loops handled in field inspector
+			Class<?> type = preparedField.getField().getType();
+			if (CreatorPlan.hasCreator(type)) {
+				createInto(preparedField, type);
+			} else {
+				object(label, defaultValue, preparedField.getPath());
+			}
+		} else {
+			ConvertTo<?> converter = inputConverterOf(preparedField);
+			String dv = null == defaultValue ? null : Converters.format(converter, defaultValue);
+			int attempt = 0;
+			boolean repeat;
+			do {
+				attempt++;
+				repeat = false;
+				long asked = System.nanoTime();
+				String rawValue = string(label, dv);
+				long answered = System.nanoTime();
+				try {
+					boolean byDefault = rawValue.equals(dv); // no need to process default value
+					String problem = byDefault ? null : apply(preparedField, rawValue, converter);
+					logAnswer(preparedField, attempt, INPUT, rawValue, problem, byDefault, answered - asked, byDefault ? 0 : System.nanoTime() - answered);
+					if (null == problem) {
+						remember(preparedField);
+					} else {
+						repeat = true;
+						print(profile.message(problem));
+						printSuggestions(preparedField, rawValue);
+					}
+				} catch (Exception e) {
+					print(profile.message(String.valueOf(e.getMessage())));
+				}
+			} while (repeat);
+		}
+	}
+
+	/**
+	 * Creates the value of a recursive field whose type has a {@link
+	 * Creator}, using the current value as template, and sets it to the field.
+	 *
+	 * @param preparedField Recursive field
+	 * @param type          Type of the field
+	 * @param <T>           Type of the field
+	 */
+	protected <T> void createInto(@Nonnull PreparedField preparedField, @Nonnull Class<T> type) {
+		T template = type.cast(preparedField.getDefaultValue());
+		preparedField.set(create(preparedField.getLabel(), type, template, preparedField.getPath()));
+	}
+
+	/**
+	 * Prints out the given text through the console arbiter of the session,
+	 * or to the output of the session if there's none.
+	 *
+	 * @param text Text to be printed out
+	 */
+	protected void print(@Nonnull String text) {
+		ConsoleArbiter c = console;
+		if (null == c) {
+			getOutput().print(text);
+		} else {
+			c.print(text);
+		}
+	}
+
+	/**
+	 * Prints out the given prompt through the console arbiter of the session,
+	 * or to the output of the session if there's none, then reads a line.
+	 *
+	 * @param printedLabel Text to be printed out in front of input cursor
+	 * @return The line read, trimmed
+	 */
+	@Nonnull
+	protected String prompt(@Nonnull String printedLabel) {
+		ConsoleArbiter c = console;
+		if (null == c) {
+			getOutput().print(printedLabel);
+			return readLine().trim();
+		}
+		c.prompt(printedLabel);
+		try {
+			return readLine().trim();
+		} finally {
+			c.answered();
+		}
+	}
+
+	/**
+	 * Records the current value of the given field, which has just been
+	 * answered by the user, in the answer history of the session, if any. The
+	 * value is formatted by the field's own converter (not by the session
+	 * locale), like in the answer cache. Answers of {@link Ask#secret()}
+	 * fields are not recorded.
+	 *
+	 * @param preparedField Prepared field which has been answered
+	 */
+	protected void remember(@Nonnull PreparedField preparedField) {
+		AnswerHistory history = answerHistory;
+		Object value = preparedField.get();
+		if (null != history && null != value && !preparedField.getPlan().getAsk().secret()) {
+			history.record(historyKeyOf(preparedField), Converters.format(preparedField.getConverter(), value));
+		}
+	}
+
+	/**
+	 * Records an answer in the event log of the session, if any.
+	 *
+	 * @param preparedField Prepared field which the answer belongs to
+	 * @param attempt       Number of the attempt, starting from 1
+	 * @param source        Where the answer came from
+	 * @param rawValue      Raw answer
+	 * @param problem       Problem description if the answer was rejected
+	 * @param byDefault     Whether the default value has been kept
+	 * @param waitNanos     Time spent waiting for the answer, or -1 if it's
+	 *                      not applicable
+	 * @param convertNanos  Time spent converting and validating the answer
+	 */
+	protected void logAnswer(@Nonnull PreparedField preparedField, int attempt, @Nonnull String source, String rawValue, String problem, boolean byDefault, long waitNanos, long convertNanos) {
+		EventLog log = eventLog;
+		if (null != log) {
+			EventLog.Result result = byDefault
+					? EventLog.Result.DEFAULT
+					: null == problem ? EventLog.Result.ACCEPTED : EventLog.Result.REJECTED;
+			String value = preparedField.getPlan().getAsk().secret() ? REDACTED : rawValue;
+			log.publish(preparedField.getPath(), preparedField.getLabel(), attempt, source, result, problem, value, waitNanos, convertNanos);
+		}
+	}
+
+	/**
+	 * Prints out prefix completions or similar values for the given invalid
+	 * input, if the field has a suggestion source.
+	 *
+	 * @param preparedField Prepared field which the input belongs to
+	 * @param rawValue      Invalid input
+	 */
+	protected void printSuggestions(@Nonnull PreparedField preparedField, @Nonnull String rawValue) {
+		String suggestions = suggestionsOf(preparedField, rawValue);
+		if (null != suggestions) {
+			print(profile.message(suggestions));
+		}
+	}
+
+	/**
+	 * Reads a line from the input of the session.
+	 *
+	 * @return The line read, without line terminator
+	 * @throws NoSuchElementException if the end of input has been reached or
+	 *                                an I/O error occurred
+	 */
+	@Nonnull
+	protected String readLine() {
+		try {
+			String line = peekableInput().readLine();
+			if (null != line) {
+				return line;
+			}
+		} catch (IOException e) {
+			L.warn("Error occurred while reading input: {}", e.getMessage());
+			L.trace("Stack trace", e);
+		}
+		throw new NoSuchElementException("No line found");
+	}
+
+	/**
+	 * Returns the input of the session as a {@link PeekableLineInput}, so
+	 * lines can be read ahead without consuming them. If the input doesn't
+	 * implement it, it's wrapped into a {@link LookaheadLineInput}, which is
+	 * replaced when the input is changed.
+	 *
+	 * @return Peekable view of the session's input
+	 */
+	@Nonnull
+	protected PeekableLineInput peekableInput() {
+		LineInput i = getInput();
+		if (i instanceof PeekableLineInput) {
+			return (PeekableLineInput) i;
+		}
+		LookaheadLineInput l = lookahead;
+		if (null == l || l.getInput() != i) {
+			synchronized (this) {
+				l = lookahead;
+				if (null == l || l.getInput() != i) {
+					lookahead = l = new LookaheadLineInput(i);
+				}
+			}
+		}
+		return l;
+	}
+
+	/**
+	 * Reads lines ahead from the input of the session in pipelined mode, and
+	 * submits the conversion of each line to the executor, assuming the lines
+	 * answer the given fields in order, starting from the given index.
+	 * Inactive fields are left out, and a recursive field ends the
+	 * assumption, because its fields would take the lines. Empty lines (which
+	 * mean the default value) are not converted.
+	 *
+	 * @param fields Fields to be asked
+	 * @param from   Index of the field to be asked next
+	 */
+	protected void speculate(@Nonnull List<PreparedField> fields, int from) {
+		Map<PreparedField, Speculation> s = speculations.get();
+		ExecutorService executor = pipeline;
+		if (null == s || null == executor) {
+			return;
+		}
+		List<String> lines = new ArrayList<>();
+		PeekableLineInput in = peekableInput();
+		try {
+			String line;
+			while (lines.size() < pipelineDepth && null != (line = in.peekLine(lines.size()))) {
+				lines.add(line);
+			}
+		} catch (IOException e) {
+			L.debug("Stopped reading ahead: {}", e.getMessage()); // readLine() will report it
+		}
+		int f = from;
+		for (String line : lines) {
+			while (f < fields.size() && !fields.get(f).isRecursive() && !fields.get(f).isActive()) {
+				f++;
+			}
+			if (f >= fields.size() || fields.get(f).isRecursive()) {
+				break;
+			}
+			final PreparedField field = fields.get(f++);
+			final String rawValue = line.trim();
+			final ConvertTo<?> converter = inputConverterOf(field);
+			Speculation previous = s.get(field);
+			if (rawValue.isEmpty() || null != previous && previous.matches(rawValue, converter)) {
+				continue;
+			}
+			if (null != previous) {
+				previous.future.cancel(false);
+			}
+			try {
+				s.put(field, new Speculation(rawValue, converter, executor.submit(new Callable<ConvertResult<Object>>() {
+					@Override
+					public ConvertResult<Object> call() {
+						return check(field, rawValue, converter);
+					}
+				})));
+			} catch (RejectedExecutionException e) {
+				L.debug("Pipeline rejected conversion: {}", e.getMessage());
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Returns the result of the conversion submitted by {@link
+	 * #speculate(List, int)} for the given field, if it was submitted for the
+	 * same value and converter. Waits for the conversion if it's still
+	 * running. Exceptions thrown by the converter are rethrown.
+	 *
+	 * @param preparedField Prepared field to be updated
+	 * @param rawValue      Raw value got from the user
+	 * @param converter     Converter to be used
+	 * @return The result of the conversion, or <code>null</code> if it has to
+	 * be done on the calling thread
+	 */
+	@CheckForNull
+	protected ConvertResult<Object> speculated(@Nonnull PreparedField preparedField, @Nonnull String rawValue, @Nonnull ConvertTo<?> converter) {
+		Map<PreparedField, Speculation> s = speculations.get();
+		Speculation speculation = null == s ? null : s.remove(preparedField);
+		if (null == speculation || !speculation.matches(rawValue, converter)) {
+			return null;
+		}
+		try {
+			return speculation.future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (CancellationException e) {
+			return null;
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			return null;
+		}
+	}
+
+	private void cancelSpeculations() {
+		Map<PreparedField, Speculation> s = speculations.get();
+		if (null != s) {
+			for (Speculation speculation : s.values()) {
+				speculation.future.cancel(false);
+			}
+			s.clear();
+		}
+	}
+
+	/**
+	 * Puts the current values of the given fields into the answer cache, and
+	 * saves the cache if requested.
+	 *
+	 * @param fields     Prepared fields of an object
+	 * @param cacheKey   Key of the object in the cache
+	 * @param schemaHash Schema hash of the object's class
+	 * @param save       Whether to save the cache
+	 */
+	protected void storeAnswers(@Nonnull List<PreparedField> fields, @Nonnull String cacheKey, long schemaHash, boolean save) {
+		Map<String, String> answers = new LinkedHashMap<>();
+		for (PreparedField field : fields) {
+			Object value = field.isRecursive() || field.getPlan().getAsk().secret() ? null : field.get();
+			if (null != value) {
+				answers.put(field.getField().getName(), Converters.format(field.getConverter(), value));
+			}
+		}
+		answerCache.put(cacheKey, schemaHash, answers);
+		if (save) {
+			try {
+				answerCache.save();
+			} catch (IOException e) {
+				L.warn("Failed to save answer cache: {}", e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Tries the session's sources in order to get a value for the given field.
+	 * The first non-<code>null</code> value is used, if it's valid. Invalid
+	 * values are logged and ignored.
+	 *
+	 * @param preparedField Prepared field to be resolved
+	 * @return Whether the field got a value from a source
+	 */
+	protected boolean resolve(@Nonnull PreparedField preparedField) {
+		for (int i = 0; i < sources.size(); i++) {
+			String rawValue = sources.get(i).get(preparedField.getPath());
+			if (null != rawValue) {
+				return tryApply(preparedField, rawValue.trim(), sources.get(i).getClass().getSimpleName());
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Calls {@link #apply(PreparedField, String)} and logs the problem if the
+	 * value is invalid.
+	 *
+	 * @param preparedField Prepared field to be updated
+	 * @param rawValue      Raw value got from a non-interactive source
+	 * @param sourceName    Name of the source, used in log message
+	 * @return Whether the value was valid and has been set
+	 */
+	protected boolean tryApply(@Nonnull PreparedField preparedField, @Nonnull String rawValue, @Nonnull String sourceName) {
+		long started = System.nanoTime();
+		String problem = apply(preparedField, rawValue);
+		logAnswer(preparedField, 1, sourceName, rawValue, problem, false, -1, System.nanoTime() - started);
+		if (null != problem) {
+			L.warn("Ignoring invalid value for '{}' from {}: {}", preparedField.getPath(), sourceName, problem);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Requests user input. See {@link AskFor#string(String, String)} for
+	 * details.
+	 *
+	 * @param label        Label to be printed out in front of input cursor, ":"
+	 *                     will be appended to its end
+	 * @param defaultValue Default value to be used if user provides empty
+	 *                     input. If default value is <code>null</code>, user
+	 *                     will be asked again until a non-empty input.
+	 * @return The user's non-empty input, or the default value if it's not
+	 * <code>null</code>
+	 */
+	@Nonnull
+	public String string(@Nonnull String label, String defaultValue) {
+		// TODO: acceptEmpty option?
+
+		// build up output
+
+		String printedLabel = generatePrintedLabel(label, defaultValue);
+
+		// ask for value
+
+		String value;
+		boolean repeat;
+		do {
+			repeat = false;
+			value = prompt(printedLabel);
+			if (value.isEmpty() && null == defaultValue) {
+				repeat = true;
+				print(profile.message(profile.noDefaultMessage()));
+			}
+		} while (repeat);
+
+		return value.isEmpty() ? defaultValue : value;
+	}
+
+	/**
+	 * Calls {@link #string(String, String)} with <code>null</code> as the
+	 * default value argument.
+	 *
+	 * @param label Label to be printed out in front of input cursor, ":" will
+	 *              be appended to its end
+	 * @return The user's non-empty input
+	 */
+	@Nonnull
+	public String string(@Nonnull String label) {
+		return string(label, null);
+	}
+
+	/**
+	 * Builds a message from prefix completions or similar values for the
+	 * given invalid input, if the field has a suggestion source.
+	 *
+	 * @param preparedField Prepared field which the input belongs to
+	 * @param rawValue      Invalid input
+	 * @return Message listing the suggestions, or <code>null</code> if there
+	 * are no suggestions
+	 */
+	@CheckForNull
+	protected String suggestionsOf(@Nonnull PreparedField preparedField, @Nonnull String rawValue) {
+		SuggestionIndex index = preparedField.getPlan().getSuggestions();
+		if (null != index) {
+			List<String> suggestions = index.suggest(rawValue);
+			if (!suggestions.isEmpty()) {
+				StringBuilder s = new StringBuilder();
+				for (String suggestion : suggestions) {
+					s.append(s.length() > 0 ? ", " : "").append(suggestion);
+				}
+				return String.format("Did you mean: %s?", s);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * A conversion submitted to the pipeline, see {@link
+	 * #speculate(List, int)}.
+	 */
+	private static class Speculation {
+
+		private final String rawValue;
+		private final ConvertTo<?> converter;
+		private final Future<ConvertResult<Object>> future;
+
+		private Speculation(@Nonnull String rawValue, @Nonnull ConvertTo<?> converter, @Nonnull Future<ConvertResult<Object>> future) {
+			this.rawValue = rawValue;
+			this.converter = converter;
+			this.future = future;
+		}
+
+		private boolean matches(@Nonnull String rawValue, @Nonnull ConvertTo<?> converter) {
+			return this.converter == converter && this.rawValue.equals(rawValue);
+		}
+	}
+
+	/**
+	 * Parameters of a refill call, see {@link #refill(String, Object,
+	 * ValueSource, String...)}.
+	 */
+	private static class Refill {
+
+		private final ValueSource snapshot;
+		private final Set<String> stalePaths;
+
+		private Refill(ValueSource snapshot, @Nonnull String[] stalePaths) {
+			this.snapshot = snapshot;
+			this.stalePaths = new HashSet<>(Arrays.asList(stalePaths));
+		}
+
+		private boolean isStale(@Nonnull String path) {
+			if (stalePaths.isEmpty()) {
+				return false;
+			}
+			for (int i = path.indexOf('.'); i >= 0; i = path.indexOf('.', i + 1)) {
+				if (stalePaths.contains(path.substring(0, i))) {
+					return true;
+				}
+			}
+			return stalePaths.contains(path);
+		}
+	}
+}
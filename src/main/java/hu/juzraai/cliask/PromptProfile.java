@@ -0,0 +1,128 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask;
+
+import hu.juzraai.cliask.util.AlignedText;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Defines how prompts and messages are rendered in line-by-line mode. The
+ * profile is chosen once per {@link AskSession}.
+ *
+ * @author Zsolt Jurányi
+ */
+public enum PromptProfile {
+
+	/**
+	 * Labels are right aligned in 40 columns, default values are displayed in
+	 * a separate line, messages are indented under the input.
+	 */
+	DEFAULT {
+		@Nonnull
+		@Override
+		public String header(@Nonnull String label) {
+			return String.format("%n%s :%n", label);
+		}
+
+		@Nonnull
+		@Override
+		public String label(@Nonnull String label, String defaultValue) {
+			StringBuilder s = new StringBuilder();
+			s.append(label);
+			if (null != defaultValue) {
+				s.append(String.format("%n%s", String.format("[default: '%s']", defaultValue)));
+			}
+			return String.format("%n%s", new AlignedText(40, AlignedText.Align.RIGHT, s.toString()).toString().replaceAll("\n$", " : "));
+		}
+
+		@Nonnull
+		@Override
+		public String message(@Nonnull String message) {
+			return String.format("%40s   %s%n", "", message);
+		}
+
+		@Nonnull
+		@Override
+		public String noDefaultMessage() {
+			return "There's no default value, please try again!";
+		}
+	},
+
+	/**
+	 * No padding and no empty lines, default values are displayed in brackets
+	 * after the label, hints are shortened. Useful over serial consoles and
+	 * metered links.
+	 */
+	COMPACT {
+		@Nonnull
+		@Override
+		public String header(@Nonnull String label) {
+			return String.format("%s:%n", label);
+		}
+
+		@Nonnull
+		@Override
+		public String label(@Nonnull String label, String defaultValue) {
+			String l = label.replaceAll("\\s+", " ").trim();
+			return null == defaultValue ? l + ": " : l + " [" + defaultValue + "]: ";
+		}
+
+		@Nonnull
+		@Override
+		public String message(@Nonnull String message) {
+			return String.format("%s%n", message);
+		}
+
+		@Nonnull
+		@Override
+		public String noDefaultMessage() {
+			return "Required";
+		}
+	};
+
+	/**
+	 * @param label Label of an object
+	 * @return Text to be printed out before asking for the fields of the
+	 * object
+	 */
+	@Nonnull
+	public abstract String header(@Nonnull String label);
+
+	/**
+	 * @param label        Label of the input
+	 * @param defaultValue Default value of the input, can be
+	 *                     <code>null</code>
+	 * @return Text to be printed out in front of the input cursor
+	 */
+	@Nonnull
+	public abstract String label(@Nonnull String label, String defaultValue);
+
+	/**
+	 * @param message Message for the user, e.g. validation error
+	 * @return Text to be printed out after the input
+	 */
+	@Nonnull
+	public abstract String message(@Nonnull String message);
+
+	/**
+	 * @return Message to be displayed when the user provides empty input and
+	 * there's no default value
+	 */
+	@Nonnull
+	public abstract String noDefaultMessage();
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.annotation;
+
+import hu.juzraai.cliask.convert.ConvertToEnum;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This annotation can be used on enum types to make {@link ConvertToEnum}
+ * accept the ordinal of a constant as input (e.g. <code>0</code> for the
+ * first constant), besides constant names and {@link Alias} values.
+ *
+ * @author Zsolt Jurányi
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+public @interface AcceptOrdinal {
+}
@@ -20,6 +20,8 @@ import hu.juzraai.cliask.AskFor;
 import hu.juzraai.cliask.convert.ConvertTo;
 import hu.juzraai.cliask.convert.Converters;
 import hu.juzraai.cliask.convert.DefaultConverter;
+import hu.juzraai.cliask.suggest.NoSuggestions;
+import hu.juzraai.cliask.suggest.SuggestionSource;
 
 import javax.annotation.Nonnull;
 import java.lang.annotation.ElementType;
@@ -44,11 +46,22 @@ import java.lang.annotation.Target;
 @Target({ElementType.FIELD})
 public @interface Ask {
 
+	/**
+	 * Raw input must be one of these values. Leave it empty to accept any
+	 * value.
+	 *
+	 * @return Accepted input values (case-sensitive)
+	 */
+	@Nonnull
+	String[] allowed() default {};
+
 	/**
 	 * {@link AskFor} calls {@link Converters} to convert the raw input string
 	 * into the type of the field. By default, the converter is chosen by {@link
 	 * Converters}, but you can override it by specifying a converter class in
-	 * this attribute.
+	 * this attribute. The converter class is instantiated only once and the
+	 * instance is shared, unless the class is annotated with {@link
+	 * Stateful}.
 	 *
 	 * @return Converter class to be used; if it's {@link DefaultConverter} it
 	 * means the default converter selector algorithm will be used
@@ -56,8 +69,103 @@ public @interface Ask {
 	@Nonnull
 	Class<? extends ConvertTo<?>> converter() default DefaultConverter.class; // TODO doc: ensure converter has no-arg constr
 
+	/**
+	 * Template of a default value derived from other fields of the same
+	 * class, e.g. <code>"${host}:8443"</code>. Each <code>${name}</code> is
+	 * replaced by the formatted value of the <code>name</code> field. It's
+	 * used only if the field has no explicit default value (it's
+	 * <code>null</code>, or zero/<code>false</code> for primitives) and every
+	 * referenced field has a value. Referenced fields are asked first. Leave
+	 * it empty to derive nothing.
+	 *
+	 * @return Template of the derived default value
+	 */
+	@Nonnull
+	String derive() default "";
+
+	/**
+	 * If it's <code>true</code> and the converted value is a
+	 * <code>String</code>, it will be deduplicated using the {@link
+	 * hu.juzraai.cliask.AskSession}'s interner. Useful for low-cardinality
+	 * fields when filling a lot of objects.
+	 *
+	 * @return Whether to deduplicate the converted <code>String</code> value
+	 */
+	boolean intern() default false;
+
+	/**
+	 * Language tag of the locale (e.g. <code>"de-DE"</code>) whose number
+	 * format should be used to convert the input of a numeric field. Leave it
+	 * empty to use the session's locale or the default, locale-independent
+	 * converters. Can be used only on numeric fields without a custom
+	 * converter.
+	 *
+	 * @return Language tag of the locale of the number format
+	 */
+	@Nonnull
+	String locale() default "";
+
+	/**
+	 * Converted value must be less than or equal to this value. Can be used
+	 * only on numeric fields.
+	 *
+	 * @return Maximum value (inclusive)
+	 */
+	double max() default Double.POSITIVE_INFINITY;
+
+	/**
+	 * Raw input must not be longer than this value.
+	 *
+	 * @return Maximum length of the raw input (inclusive)
+	 */
+	int maxLength() default Integer.MAX_VALUE;
+
+	/**
+	 * Converted value must be greater than or equal to this value. Can be
+	 * used only on numeric fields.
+	 *
+	 * @return Minimum value (inclusive)
+	 */
+	double min() default Double.NEGATIVE_INFINITY;
+
+	/**
+	 * Raw input must not be shorter than this value.
+	 *
+	 * @return Minimum length of the raw input (inclusive)
+	 */
+	int minLength() default 0;
+
+	/**
+	 * Raw input must match this regular expression. Leave it empty to accept
+	 * any value.
+	 *
+	 * @return Regular expression to be matched by the whole raw input
+	 */
+	@Nonnull
+	String pattern() default "";
+
 	boolean recursive() default false; // TODO doc, ensure it's a different type and has no-arg constr or provide an instance
 
+	/**
+	 * If it's <code>true</code>, the answers of this field are redacted in
+	 * the session's event log and are not stored in the answer cache.
+	 *
+	 * @return Whether the field holds a secret (e.g. password)
+	 */
+	boolean secret() default false;
+
+	/**
+	 * If the field has a large set of valid values, you can specify a class
+	 * which provides them. When the user's input is invalid, CLI-Ask will
+	 * print out prefix completions or similar values from this set. The
+	 * values are indexed only once per class.
+	 *
+	 * @return Suggestion source class to be used; if it's {@link
+	 * NoSuggestions}, no suggestions will be printed
+	 */
+	@Nonnull
+	Class<? extends SuggestionSource> suggestions() default NoSuggestions.class;
+
 	/**
 	 * Label to be printed out in front of input cursor. If you leave it empty,
 	 * the name of the field will be used.
@@ -67,4 +175,20 @@ public @interface Ask {
 	 */
 	@Nonnull
 	String value() default "";
+
+	/**
+	 * Condition on other fields of the same class: the field is asked only if
+	 * it holds, otherwise it's skipped and keeps its value. Terms:
+	 * <code>"tls"</code> or <code>"!tls"</code> (boolean field is true or
+	 * false), <code>"mode=server"</code> or <code>"mode!=client"</code> (field
+	 * value equals or doesn't equal one of the <code>|</code>-separated
+	 * values, e.g. <code>"mode=server|both"</code>). Terms can be combined
+	 * with <code>&amp;&amp;</code>. Values are converted by the referenced
+	 * field's converter once per class. Referenced fields are asked first.
+	 * Leave it empty to ask the field unconditionally.
+	 *
+	 * @return Condition of asking the field
+	 */
+	@Nonnull
+	String when() default "";
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.annotation;
+
+import hu.juzraai.cliask.AskFor;
+
+import javax.annotation.Nonnull;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This annotation can be used on a constructor or a static factory method of
+ * an immutable class, to tell CLI-Ask ({@link AskFor}.create(Class)) how to
+ * build the object. The values of the {@link Ask} fields are collected and
+ * converted first, then the annotated constructor or method is called with
+ * them. This way the fields can be <code>final</code>.
+ * <p>
+ * The default <code>value</code> attribute lists the names of the {@link
+ * Ask} fields to be passed as arguments, in the order of the parameters. If
+ * it's empty, every {@link Ask} field is passed, in asking order.
+ *
+ * @author Zsolt Jurányi
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.CONSTRUCTOR, ElementType.METHOD})
+public @interface Creator {
+
+	/**
+	 * @return Names of the fields to be passed as arguments, in the order of
+	 * the parameters; if it's empty, every {@link Ask} field is passed in
+	 * asking order
+	 */
+	@Nonnull
+	String[] value() default {};
+}
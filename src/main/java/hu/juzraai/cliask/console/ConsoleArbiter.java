@@ -0,0 +1,257 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.console;
+
+import javax.annotation.Nonnull;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Owns the terminal output while prompts are active, so background output
+ * doesn't corrupt the prompt line.
+ * <p>
+ * Background threads write into a lock-free queue, using {@link
+ * #println(String)} or the stream returned by {@link #getStream()} (which
+ * can be installed with <code>System.setOut</code>). They never wait for the
+ * terminal. A writer thread drains the queue in batches: if a prompt is
+ * active, it clears the prompt line, prints the whole batch above it, then
+ * redraws the prompt once. Characters already typed by the user are kept by
+ * the terminal's line editor, but they are not redrawn.
+ * <p>
+ * The prompting thread uses {@link #prompt(String)}, {@link #answered()} and
+ * {@link #print(String)}, which write the terminal directly. Terminal writes
+ * of the two sides are serialized by a lock which is held only while writing
+ * a batch or a prompt.
+ *
+ * @author Zsolt Jurányi
+ */
+public class ConsoleArbiter implements Closeable {
+
+	private static final String CLEAR_LINE = "\r\033[2K";
+	private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+	private static final int MAX_BATCH_CHARS = 1 << 16;
+	private static final long CLOSE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+	private final PrintStream out;
+	private final Object terminal = new Object();
+	private final Queue<String> queue = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean signalled = new AtomicBoolean();
+	private final PrintStream stream;
+	private final Thread writerThread;
+	private String activePrompt;
+	private volatile boolean running = true;
+
+	/**
+	 * Creates a new instance and starts the writer thread.
+	 *
+	 * @param out Output of the terminal, e.g. the original
+	 *            <code>System.out</code>
+	 */
+	public ConsoleArbiter(@Nonnull PrintStream out) {
+		this.out = out;
+		this.stream = new PrintStream(new QueueOutputStream(), false);
+		this.writerThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				drain();
+			}
+		}, "cli-ask-console");
+		writerThread.setDaemon(true);
+		writerThread.start();
+	}
+
+	/**
+	 * Marks the active prompt answered: background output will be printed
+	 * without redrawing it.
+	 */
+	public void answered() {
+		synchronized (terminal) {
+			activePrompt = null;
+		}
+	}
+
+	/**
+	 * Stops the writer thread after printing the queued output. The terminal
+	 * output is not closed.
+	 */
+	@Override
+	public void close() {
+		running = false;
+		LockSupport.unpark(writerThread);
+		try {
+			writerThread.join(CLOSE_TIMEOUT_MILLIS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Prints out the queued output in batches until the arbiter is closed.
+	 */
+	protected void drain() {
+		StringBuilder batch = new StringBuilder();
+		while (running || !queue.isEmpty()) {
+			String text = queue.poll();
+			if (null == text) {
+				signalled.set(false);
+				if (running && queue.isEmpty()) {
+					LockSupport.park(this);
+				}
+				continue;
+			}
+			batch.setLength(0);
+			do {
+				batch.append(text);
+			} while (batch.length() < MAX_BATCH_CHARS && null != (text = queue.poll()));
+			write(batch);
+		}
+	}
+
+	/**
+	 * @return Stream for background threads, which puts every line into the
+	 * queue. Incomplete lines are buffered per thread until a line separator
+	 * or a flush.
+	 */
+	@Nonnull
+	public PrintStream getStream() {
+		return stream;
+	}
+
+	/**
+	 * Prints out the given text directly, serialized with the background
+	 * output. Should be called by the prompting thread.
+	 *
+	 * @param text Text to be printed out
+	 */
+	public void print(@Nonnull String text) {
+		synchronized (terminal) {
+			out.print(text);
+			out.flush();
+		}
+	}
+
+	/**
+	 * Queues the given line to be printed out above the active prompt. Can be
+	 * called from any thread, doesn't block.
+	 *
+	 * @param line Line to be printed out
+	 */
+	public void println(String line) {
+		submit(line + LINE_SEPARATOR);
+	}
+
+	/**
+	 * Prints out the given prompt and marks it active: it will be redrawn
+	 * after background output, until {@link #answered()} is called.
+	 *
+	 * @param prompt Prompt text, the cursor should be at its end
+	 */
+	public void prompt(@Nonnull String prompt) {
+		synchronized (terminal) {
+			activePrompt = prompt;
+			out.print(prompt);
+			out.flush();
+		}
+	}
+
+	/**
+	 * Queues the given text and wakes up the writer thread if it's sleeping.
+	 *
+	 * @param text Text to be printed out
+	 */
+	protected void submit(@Nonnull String text) {
+		queue.offer(text);
+		if (signalled.compareAndSet(false, true)) {
+			LockSupport.unpark(writerThread);
+		}
+	}
+
+	/**
+	 * Writes a batch of background output to the terminal, above the active
+	 * prompt.
+	 *
+	 * @param batch Background output
+	 */
+	protected void write(@Nonnull StringBuilder batch) {
+		if ('\n' != batch.charAt(batch.length() - 1)) {
+			batch.append(LINE_SEPARATOR);
+		}
+		synchronized (terminal) {
+			String prompt = activePrompt;
+			if (null != prompt) {
+				out.print(CLEAR_LINE);
+			}
+			out.append(batch);
+			if (null != prompt) {
+				out.print(prompt);
+			}
+			out.flush();
+		}
+	}
+
+	/**
+	 * Collects bytes per thread and puts them into the queue line by line.
+	 */
+	private class QueueOutputStream extends OutputStream {
+
+		private final ThreadLocal<ByteArrayOutputStream> buffers = new ThreadLocal<ByteArrayOutputStream>() {
+			@Override
+			protected ByteArrayOutputStream initialValue() {
+				return new ByteArrayOutputStream();
+			}
+		};
+
+		@Override
+		public void flush() {
+			ByteArrayOutputStream buffer = buffers.get();
+			if (buffer.size() > 0) {
+				submit(buffer.toString());
+				buffer.reset();
+			}
+		}
+
+		@Override
+		public void write(int b) {
+			ByteArrayOutputStream buffer = buffers.get();
+			buffer.write(b);
+			if ('\n' == b) {
+				flush();
+			}
+		}
+
+		@Override
+		public void write(@Nonnull byte[] b, int off, int len) {
+			ByteArrayOutputStream buffer = buffers.get();
+			int start = off;
+			for (int i = off; i < off + len; i++) {
+				if ('\n' == b[i]) {
+					buffer.write(b, start, i + 1 - start);
+					flush();
+					start = i + 1;
+				}
+			}
+			buffer.write(b, start, off + len - start);
+		}
+	}
+}
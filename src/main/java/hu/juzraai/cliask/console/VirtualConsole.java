@@ -0,0 +1,221 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.console;
+
+import hu.juzraai.cliask.AskSession;
+import hu.juzraai.cliask.input.PeekableLineInput;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * In-memory console for testing prompt flows: a scripted queue of input
+ * lines and a captured output, attached to an {@link AskSession} instead of
+ * the global streams. Every session can have its own virtual console, so
+ * scenarios can run in parallel in one JVM:
+ * <pre>
+ * VirtualConsole console = new VirtualConsole("Bob", "42");
+ * AskSession session = console.attach(new AskSession());
+ * Person person = session.object(new Person());
+ * console.assertPrompt(0, "name");
+ * console.assertAllInputConsumed();
+ * </pre>
+ * The output printed before each read is recorded as the prompt of that
+ * read, so assertions can refer to prompts by index. Lines read ahead in
+ * pipelined mode are only peeked (see {@link PeekableLineInput}), they are
+ * attributed to a prompt when the session consumes them. If the script runs
+ * out of lines, the session gets end of input and throws
+ * <code>NoSuchElementException</code>, so a scenario can't hang.
+ *
+ * @author Zsolt Jurányi
+ */
+public class VirtualConsole implements PeekableLineInput {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private final Queue<String> lines = new ConcurrentLinkedQueue<>();
+	private final Capture buffer = new Capture();
+	private final PrintStream output;
+	private final List<String> prompts = new ArrayList<>();
+	private int mark;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param lines Input lines to be returned in order
+	 */
+	public VirtualConsole(@Nonnull String... lines) {
+		this.lines.addAll(Arrays.asList(lines));
+		try {
+			this.output = new PrintStream(buffer, true, UTF_8.name());
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e); // UTF-8 is always supported
+		}
+	}
+
+	/**
+	 * Appends input lines to the script.
+	 *
+	 * @param lines Input lines to be returned after the current ones
+	 * @return This console
+	 */
+	@Nonnull
+	public VirtualConsole add(@Nonnull String... lines) {
+		this.lines.addAll(Arrays.asList(lines));
+		return this;
+	}
+
+	/**
+	 * Checks whether every scripted line has been read.
+	 *
+	 * @throws AssertionError if there are unread lines
+	 */
+	public void assertAllInputConsumed() {
+		if (!lines.isEmpty()) {
+			throw new AssertionError(String.format("%d input line(s) not consumed: %s", lines.size(), lines));
+		}
+	}
+
+	/**
+	 * Checks whether the output contains the given text.
+	 *
+	 * @param text Expected text
+	 * @throws AssertionError if the output doesn't contain the text
+	 */
+	public void assertOutputContains(@Nonnull String text) {
+		String output = getOutput();
+		if (!output.contains(text)) {
+			throw new AssertionError(String.format("Output doesn't contain '%s':%n%s", text, output));
+		}
+	}
+
+	/**
+	 * Checks whether the prompt of the given read contains the given text.
+	 *
+	 * @param index Index of the read, starting from 0
+	 * @param text  Expected text, e.g. a label or a message
+	 * @throws AssertionError if there was no such read, or its prompt doesn't
+	 *                        contain the text
+	 */
+	public void assertPrompt(int index, @Nonnull String text) {
+		List<String> p = getPrompts();
+		if (index >= p.size()) {
+			throw new AssertionError(String.format("Expected prompt #%d containing '%s', but there were only %d prompt(s)", index, text, p.size()));
+		}
+		if (!p.get(index).contains(text)) {
+			throw new AssertionError(String.format("Prompt #%d doesn't contain '%s':%n%s", index, text, p.get(index)));
+		}
+	}
+
+	/**
+	 * Sets this console as the input and output of the given session.
+	 *
+	 * @param session Session to be attached
+	 * @return The session
+	 */
+	@Nonnull
+	public AskSession attach(@Nonnull AskSession session) {
+		session.setInput(this);
+		session.setOutput(output);
+		return session;
+	}
+
+	/**
+	 * @return The whole captured output
+	 */
+	@Nonnull
+	public synchronized String getOutput() {
+		return buffer.since(0);
+	}
+
+	/**
+	 * @return The output printed before each read, in order
+	 */
+	@Nonnull
+	public synchronized List<String> getPrompts() {
+		return Collections.unmodifiableList(new ArrayList<>(prompts));
+	}
+
+	/**
+	 * @return Stream which writes the captured output
+	 */
+	@Nonnull
+	public PrintStream getStream() {
+		return output;
+	}
+
+	/**
+	 * Returns an upcoming scripted line without recording a prompt or echoing
+	 * it.
+	 *
+	 * @param index Index of the line, 0 means the next line
+	 * @return The scripted line, or <code>null</code> if the script ends
+	 * before it
+	 */
+	@Override
+	@CheckForNull
+	public synchronized String peekLine(int index) {
+		int i = 0;
+		for (String line : lines) {
+			if (i++ == index) {
+				return line;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Records the output printed since the previous read as a prompt, then
+	 * returns the next scripted line.
+	 *
+	 * @return The next scripted line, or <code>null</code> if the script
+	 * has ended
+	 */
+	@Override
+	@CheckForNull
+	public synchronized String readLine() {
+		output.flush();
+		prompts.add(buffer.since(mark));
+		String line = lines.poll();
+		if (null != line) {
+			output.println(line); // echo, like a terminal
+		}
+		mark = buffer.size();
+		return line;
+	}
+
+	/**
+	 * Output buffer which can decode its tail without copying the whole
+	 * buffer.
+	 */
+	private static class Capture extends ByteArrayOutputStream {
+
+		synchronized String since(int from) {
+			return new String(buf, from, count - from, UTF_8);
+		}
+	}
+}
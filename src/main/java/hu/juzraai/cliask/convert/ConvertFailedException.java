@@ -33,4 +33,17 @@ public class ConvertFailedException extends Exception {
 	public ConvertFailedException(String message) {
 		super(message);
 	}
+
+	/**
+	 * Creates a new instance. Instances created without a writable stack
+	 * trace are cheap to create and can be preallocated and thrown multiple
+	 * times, which is useful for invalid user input, a non-exceptional event.
+	 *
+	 * @param message            Exception message which describes the
+	 *                           problem for the user
+	 * @param writableStackTrace Whether the stack trace should be filled in
+	 */
+	public ConvertFailedException(String message, boolean writableStackTrace) {
+		super(message, null, false, writableStackTrace);
+	}
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.convert;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * Result of a conversion: either a converted value or a failure message.
+ * Used by {@link TryConvertTo} to report invalid input without throwing an
+ * exception. Failure results don't depend on the target type, so converters
+ * can preallocate them for their constant messages.
+ *
+ * @author Zsolt Jurányi
+ */
+public final class ConvertResult<T> {
+
+	private final T value;
+	private final String message;
+
+	private ConvertResult(T value, String message) {
+		this.value = value;
+		this.message = message;
+	}
+
+	/**
+	 * @param message Message which describes the problem for the user
+	 * @param <T>     Target type of the conversion
+	 * @return A failure result with the given message
+	 */
+	@Nonnull
+	public static <T> ConvertResult<T> failure(@Nonnull String message) {
+		return new ConvertResult<>(null, message);
+	}
+
+	/**
+	 * @param value Converted value
+	 * @param <T>   Target type of the conversion
+	 * @return A successful result with the given value
+	 */
+	@Nonnull
+	public static <T> ConvertResult<T> success(@Nonnull T value) {
+		return new ConvertResult<>(value, null);
+	}
+
+	/**
+	 * @return Message which describes the problem for the user, or
+	 * <code>null</code> if conversion was successful
+	 */
+	@CheckForNull
+	public String getMessage() {
+		return message;
+	}
+
+	/**
+	 * Returns the converted value, or throws {@link ConvertFailedException}
+	 * with the failure message. Used to implement {@link
+	 * ConvertTo#convert(String)} using {@link TryConvertTo#tryConvert(String)}.
+	 *
+	 * @return Converted value
+	 * @throws ConvertFailedException if conversion failed
+	 */
+	@Nonnull
+	public T getOrThrow() throws ConvertFailedException {
+		if (null != message) {
+			throw new ConvertFailedException(message);
+		}
+		return value;
+	}
+
+	/**
+	 * @return Converted value, or <code>null</code> if conversion failed
+	 */
+	@CheckForNull
+	public T getValue() {
+		return value;
+	}
+
+	/**
+	 * @return Whether the conversion was successful
+	 */
+	public boolean isSuccess() {
+		return null == message;
+	}
+}
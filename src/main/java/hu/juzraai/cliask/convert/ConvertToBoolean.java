@@ -21,20 +21,40 @@ import javax.annotation.Nonnull;
 /**
  * @author Zsolt Jurányi
  */
-public class ConvertToBoolean implements ConvertTo<Boolean> {
+public class ConvertToBoolean implements TryConvertTo<Boolean> {
 
 	private static final String TRUE_PATTERN = "TRUE|YES|ON|1";
 	private static final String FALSE_PATTERN = "FALSE|NO|OFF|0";
+	private static final String[] TRUE_VALUES = TRUE_PATTERN.split("\\|");
+	private static final String[] FALSE_VALUES = FALSE_PATTERN.split("\\|");
+	private static final ConvertResult<Boolean> TRUE = ConvertResult.success(Boolean.TRUE);
+	private static final ConvertResult<Boolean> FALSE = ConvertResult.success(Boolean.FALSE);
+	private static final ConvertResult<Boolean> FAILURE = ConvertResult.failure(String.format("Invalid boolean value, specify one of these: %s|%s", TRUE_PATTERN, FALSE_PATTERN));
+
+	private static boolean matches(@Nonnull String rawValue, @Nonnull String[] values) {
+		for (String value : values) {
+			if (value.equalsIgnoreCase(rawValue)) {
+				return true;
+			}
+		}
+		return false;
+	}
 
 	@Override
 	@Nonnull
 	public Boolean convert(@Nonnull String rawValue) throws ConvertFailedException {
-		if (rawValue.toUpperCase().matches(TRUE_PATTERN)) {
-			return Boolean.TRUE;
+		return tryConvert(rawValue).getOrThrow();
+	}
+
+	@Override
+	@Nonnull
+	public ConvertResult<Boolean> tryConvert(@Nonnull String rawValue) {
+		if (matches(rawValue, TRUE_VALUES)) {
+			return TRUE;
 		}
-		if (rawValue.toUpperCase().matches(FALSE_PATTERN)) {
-			return Boolean.FALSE;
+		if (matches(rawValue, FALSE_VALUES)) {
+			return FALSE;
 		}
-		throw new ConvertFailedException(String.format("Invalid boolean value, specify one of these: %s|%s", TRUE_PATTERN, FALSE_PATTERN));
+		return FAILURE;
 	}
 }
@@ -21,15 +21,21 @@ import javax.annotation.Nonnull;
 /**
  * @author Zsolt Jurányi
  */
-public class ConvertToByte implements ConvertTo<Byte> {
+public class ConvertToByte implements TryConvertTo<Byte> {
+
+	private static final ConvertResult<Byte> FAILURE = ConvertResult.failure("Invalid value for: byte");
 
 	@Override
 	@Nonnull
 	public Byte convert(@Nonnull String rawValue) throws ConvertFailedException {
-		try {
-			return Byte.parseByte(rawValue);
-		} catch (NumberFormatException e) {
-			throw new ConvertFailedException("Invalid value for: byte");
-		}
+		return tryConvert(rawValue).getOrThrow();
+	}
+
+	@Override
+	@Nonnull
+	public ConvertResult<Byte> tryConvert(@Nonnull String rawValue) {
+		return Numbers.isInteger(rawValue, Byte.MIN_VALUE, Byte.MAX_VALUE)
+				? ConvertResult.success(Byte.valueOf(rawValue))
+				: FAILURE;
 	}
 }
@@ -21,15 +21,21 @@ import javax.annotation.Nonnull;
 /**
  * @author Zsolt Jurányi
  */
-public class ConvertToDouble implements ConvertTo<Double> {
+public class ConvertToDouble implements TryConvertTo<Double> {
+
+	private static final ConvertResult<Double> FAILURE = ConvertResult.failure("Invalid value for: double");
 
 	@Override
 	@Nonnull
 	public Double convert(@Nonnull String rawValue) throws ConvertFailedException {
-		try {
-			return Double.parseDouble(rawValue);
-		} catch (NumberFormatException e) {
-			throw new ConvertFailedException("Invalid value for: double");
-		}
+		return tryConvert(rawValue).getOrThrow();
+	}
+
+	@Override
+	@Nonnull
+	public ConvertResult<Double> tryConvert(@Nonnull String rawValue) {
+		return Numbers.isFloatingPoint(rawValue)
+				? ConvertResult.success(Double.valueOf(rawValue))
+				: FAILURE;
 	}
 }
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.convert;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts input to a duration, e.g. <code>30s</code> or <code>1h30m</code>.
+ * The input is one or more non-negative whole numbers (underscores are
+ * allowed between digits), each followed by a unit: <code>d</code>,
+ * <code>h</code>, <code>m</code>, <code>s</code>, <code>ms</code>,
+ * <code>us</code> or <code>ns</code>. Units are case-insensitive, parts can
+ * be separated by spaces. A single number without unit is accepted too, it's
+ * interpreted in the target unit.
+ * <p>
+ * Target type is long, the duration is expressed in milliseconds by default.
+ * It can be selected in the <code>converter</code> attribute of {@link
+ * hu.juzraai.cliask.annotation.Ask}. For another target unit, extend this
+ * class with a no-arg constructor which calls {@link
+ * #ConvertToDuration(TimeUnit)}.
+ * <p>
+ * The input is parsed in a single pass with overflow checks, failure
+ * results are preallocated.
+ *
+ * @author Zsolt Jurányi
+ */
+public class ConvertToDuration implements TryConvertTo<Long> {
+
+	private static final TimeUnit[] FORMAT_UNITS = {TimeUnit.DAYS, TimeUnit.HOURS, TimeUnit.MINUTES, TimeUnit.SECONDS,
+			TimeUnit.MILLISECONDS, TimeUnit.MICROSECONDS, TimeUnit.NANOSECONDS};
+	private static final String[] FORMAT_SUFFIXES = {"d", "h", "m", "s", "ms", "us", "ns"};
+	private static final ConvertResult<Long> INVALID = ConvertResult.failure("Invalid duration, specify whole numbers with units: d|h|m|s|ms|us|ns (e.g. 1h30m)");
+	private static final ConvertResult<Long> TOO_LONG = ConvertResult.failure("Duration is too long");
+
+	private final TimeUnit unit;
+	private final long unitNanos;
+	private final ConvertResult<Long> notWhole;
+
+	/**
+	 * Creates a new instance which expresses durations in milliseconds.
+	 */
+	public ConvertToDuration() {
+		this(TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param unit Unit of the converted value, and of the input numbers
+	 *             without unit
+	 */
+	protected ConvertToDuration(@Nonnull TimeUnit unit) {
+		this.unit = unit;
+		this.unitNanos = unit.toNanos(1);
+		this.notWhole = ConvertResult.failure("Duration must be a whole number of " + unit.name().toLowerCase());
+	}
+
+	@Override
+	@Nonnull
+	public Long convert(@Nonnull String rawValue) throws ConvertFailedException {
+		return tryConvert(rawValue).getOrThrow();
+	}
+
+	/**
+	 * Formats the given duration using the units from days to the target
+	 * unit, so it can be converted back.
+	 *
+	 * @param duration Duration in the target unit
+	 * @return Text representation of the duration, e.g. <code>1h30m</code>
+	 */
+	@Nonnull
+	public String format(long duration) {
+		if (duration <= 0 || duration > Long.MAX_VALUE / unitNanos) {
+			return Long.toString(duration);
+		}
+		long nanos = duration * unitNanos;
+		StringBuilder s = new StringBuilder();
+		for (int i = 0; i < FORMAT_UNITS.length; i++) {
+			long size = FORMAT_UNITS[i].toNanos(1);
+			if (nanos >= size) {
+				s.append(nanos / size).append(FORMAT_SUFFIXES[i]);
+				nanos %= size;
+			}
+		}
+		return s.toString();
+	}
+
+	/**
+	 * @return Unit of the converted value
+	 */
+	@Nonnull
+	public TimeUnit getUnit() {
+		return unit;
+	}
+
+	@Override
+	@Nonnull
+	public ConvertResult<Long> tryConvert(@Nonnull String rawValue) {
+		int length = rawValue.length();
+		int i = 0;
+		int parts = 0;
+		long total = 0; // nanoseconds
+		boolean overflow = false;
+		while (true) {
+			while (i < length && ' ' == rawValue.charAt(i)) {
+				i++;
+			}
+			if (i == length) {
+				break;
+			}
+
+			// number
+			long number = 0;
+			boolean digits = false;
+			boolean separator = false;
+			for (; i < length; i++) {
+				char c = rawValue.charAt(i);
+				if ('_' == c) {
+					if (!digits || separator) {
+						return INVALID;
+					}
+					separator = true;
+					continue;
+				}
+				if (c < '0' || c > '9') {
+					break;
+				}
+				digits = true;
+				separator = false;
+				int digit = c - '0';
+				if (number > (Long.MAX_VALUE - digit) / 10) {
+					overflow = true;
+				} else {
+					number = number * 10 + digit;
+				}
+			}
+			if (!digits || separator) {
+				return INVALID;
+			}
+			parts++;
+
+			// unit
+			long unitSize;
+			char u = i < length ? Character.toLowerCase(rawValue.charAt(i)) : ' ';
+			char next = i + 1 < length ? Character.toLowerCase(rawValue.charAt(i + 1)) : ' ';
+			if ('d' == u) {
+				unitSize = TimeUnit.DAYS.toNanos(1);
+			} else if ('h' == u) {
+				unitSize = TimeUnit.HOURS.toNanos(1);
+			} else if ('m' == u && 's' == next) {
+				unitSize = TimeUnit.MILLISECONDS.toNanos(1);
+				i++;
+			} else if ('m' == u) {
+				unitSize = TimeUnit.MINUTES.toNanos(1);
+			} else if ('s' == u) {
+				unitSize = TimeUnit.SECONDS.toNanos(1);
+			} else if (('u' == u || '\u00b5' == u) && 's' == next) {
+				unitSize = TimeUnit.MICROSECONDS.toNanos(1);
+				i++;
+			} else if ('n' == u && 's' == next) {
+				unitSize = TimeUnit.NANOSECONDS.toNanos(1);
+				i++;
+			} else if (' ' == u && 1 == parts && !hasMoreParts(rawValue, i)) {
+				unitSize = unitNanos; // single number without unit
+			} else {
+				return INVALID;
+			}
+			if (' ' != u) {
+				i++;
+			}
+
+			// add to total
+			if (overflow || number > (Long.MAX_VALUE - total) / unitSize) {
+				overflow = true;
+			} else {
+				total += number * unitSize;
+			}
+		}
+		if (0 == parts) {
+			return INVALID;
+		}
+		if (overflow) {
+			return TOO_LONG;
+		}
+		if (0 != total % unitNanos) {
+			return notWhole;
+		}
+		return ConvertResult.success(total / unitNanos);
+	}
+
+	private static boolean hasMoreParts(@Nonnull String s, int i) {
+		for (; i < s.length(); i++) {
+			if (' ' != s.charAt(i)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
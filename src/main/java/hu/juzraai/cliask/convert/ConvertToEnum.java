@@ -0,0 +1,211 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.convert;
+
+import hu.juzraai.cliask.annotation.AcceptOrdinal;
+import hu.juzraai.cliask.annotation.Alias;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * Converts input to a constant of the given enum type. Constant names and
+ * their aliases (specified by {@link Alias} annotation on the constants) are
+ * matched case-insensitively. Optionally, the ordinal of the constant can be
+ * accepted too, which can be turned on by annotating the enum type with
+ * {@link AcceptOrdinal}.
+ * <p>
+ * The lookup table is built in the constructor, so an instance should be
+ * reused for the same enum type - {@link Converters} does this for enum
+ * fields. Matching does not allocate memory: it's an open addressing hash
+ * table with case-insensitive hash and comparison, and the failure result is
+ * preallocated.
+ *
+ * @author Zsolt Jurányi
+ */
+public class ConvertToEnum<E extends Enum<E>> implements TryConvertTo<E> {
+
+	private final Class<E> type;
+	private final boolean acceptOrdinal;
+	private final E[] constants;
+	private final String[] keys;
+	private final Object[] values;
+	private final int mask;
+	private final ConvertResult<E> failure;
+
+	/**
+	 * Creates a new instance which accepts constant names and aliases, and
+	 * also ordinals if the enum type is annotated with {@link AcceptOrdinal}.
+	 *
+	 * @param type Target enum type
+	 */
+	public ConvertToEnum(@Nonnull Class<E> type) {
+		this(type, type.isAnnotationPresent(AcceptOrdinal.class));
+	}
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param type          Target enum type
+	 * @param acceptOrdinal Whether to accept the ordinal of the constants as
+	 *                      input
+	 * @throws IllegalArgumentException if an alias is specified for more than
+	 *                                  one constant
+	 */
+	public ConvertToEnum(@Nonnull Class<E> type, boolean acceptOrdinal) {
+		this.type = type;
+		this.acceptOrdinal = acceptOrdinal;
+		this.constants = type.getEnumConstants();
+
+		// collect aliases
+		String[][] aliases = new String[constants.length][];
+		int count = constants.length;
+		for (E constant : constants) {
+			aliases[constant.ordinal()] = aliasesOf(constant);
+			count += aliases[constant.ordinal()].length;
+		}
+
+		// build table
+		int capacity = 2;
+		while (capacity < count * 2) {
+			capacity <<= 1;
+		}
+		this.keys = new String[capacity];
+		this.values = new Object[capacity];
+		this.mask = capacity - 1;
+		StringBuilder names = new StringBuilder();
+		for (E constant : constants) {
+			put(constant.name(), constant);
+			for (String alias : aliases[constant.ordinal()]) {
+				put(alias, constant);
+			}
+			names.append(names.length() > 0 ? "|" : "").append(constant.name());
+		}
+
+		this.failure = ConvertResult.failure(acceptOrdinal && constants.length > 0
+				? String.format("Invalid %s value, specify one of these: %s (or 0-%d)", type.getSimpleName(), names, constants.length - 1)
+				: String.format("Invalid %s value, specify one of these: %s", type.getSimpleName(), names));
+	}
+
+	/**
+	 * Calculates a case-insensitive hash code for the given string, which is
+	 * consistent with <code>String.equalsIgnoreCase</code>.
+	 *
+	 * @param s Input string
+	 * @return Case-insensitive hash code
+	 */
+	protected static int hashIgnoreCase(@Nonnull String s) {
+		int h = 0;
+		for (int i = 0; i < s.length(); i++) {
+			h = 31 * h + Character.toLowerCase(Character.toUpperCase(s.charAt(i)));
+		}
+		return h ^ (h >>> 16);
+	}
+
+	@Nonnull
+	protected String[] aliasesOf(@Nonnull E constant) {
+		try {
+			Alias alias = type.getField(constant.name()).getAnnotation(Alias.class);
+			return null == alias ? new String[0] : alias.value();
+		} catch (NoSuchFieldException e) {
+			return new String[0];
+		}
+	}
+
+	@Override
+	@Nonnull
+	public E convert(@Nonnull String rawValue) throws ConvertFailedException {
+		return tryConvert(rawValue).getOrThrow();
+	}
+
+	@Override
+	@Nonnull
+	public ConvertResult<E> tryConvert(@Nonnull String rawValue) {
+		E value = lookup(rawValue);
+		if (null == value && acceptOrdinal) {
+			int ordinal = parseOrdinal(rawValue);
+			if (ordinal >= 0 && ordinal < constants.length) {
+				value = constants[ordinal];
+			}
+		}
+		return null == value ? failure : ConvertResult.success(value);
+	}
+
+	/**
+	 * @return Target enum type
+	 */
+	@Nonnull
+	public Class<E> getType() {
+		return type;
+	}
+
+	/**
+	 * Finds the constant which has the given name or alias, ignoring case.
+	 *
+	 * @param key Name or alias of a constant
+	 * @return The constant or <code>null</code> if the key is unknown
+	 */
+	@CheckForNull
+	@SuppressWarnings("unchecked")
+	protected E lookup(@Nonnull String key) {
+		int i = hashIgnoreCase(key) & mask;
+		while (null != keys[i]) {
+			if (keys[i].equalsIgnoreCase(key)) {
+				return (E) values[i];
+			}
+			i = (i + 1) & mask;
+		}
+		return null;
+	}
+
+	/**
+	 * Parses a non-negative decimal integer without allocating.
+	 *
+	 * @param s Input string
+	 * @return The parsed number or -1 if the input is not a (small enough)
+	 * non-negative integer
+	 */
+	protected int parseOrdinal(@Nonnull String s) {
+		if (s.isEmpty() || s.length() > 9) {
+			return -1;
+		}
+		int n = 0;
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			n = n * 10 + (c - '0');
+		}
+		return n;
+	}
+
+	private void put(@Nonnull String key, @Nonnull E constant) {
+		int i = hashIgnoreCase(key) & mask;
+		while (null != keys[i]) {
+			if (keys[i].equalsIgnoreCase(key)) {
+				if (values[i] != constant) {
+					throw new IllegalArgumentException(String.format("Ambiguous alias '%s' in enum %s", key, type.getName()));
+				}
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		values[i] = constant;
+	}
+}
@@ -21,15 +21,21 @@ import javax.annotation.Nonnull;
 /**
  * @author Zsolt Jurányi
  */
-public class ConvertToFloat implements ConvertTo<Float> {
+public class ConvertToFloat implements TryConvertTo<Float> {
+
+	private static final ConvertResult<Float> FAILURE = ConvertResult.failure("Invalid value for: float");
 
 	@Override
 	@Nonnull
 	public Float convert(@Nonnull String rawValue) throws ConvertFailedException {
-		try {
-			return Float.parseFloat(rawValue);
-		} catch (NumberFormatException e) {
-			throw new ConvertFailedException("Invalid value for: float");
-		}
+		return tryConvert(rawValue).getOrThrow();
+	}
+
+	@Override
+	@Nonnull
+	public ConvertResult<Float> tryConvert(@Nonnull String rawValue) {
+		return Numbers.isFloatingPoint(rawValue)
+				? ConvertResult.success(Float.valueOf(rawValue))
+				: FAILURE;
 	}
 }
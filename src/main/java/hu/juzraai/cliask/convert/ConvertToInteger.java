@@ -21,15 +21,21 @@ import javax.annotation.Nonnull;
 /**
  * @author Zsolt Jurányi
  */
-public class ConvertToInteger implements ConvertTo<Integer> {
+public class ConvertToInteger implements TryConvertTo<Integer> {
+
+	private static final ConvertResult<Integer> FAILURE = ConvertResult.failure("Invalid value for: integer");
 
 	@Override
 	@Nonnull
 	public Integer convert(@Nonnull String rawValue) throws ConvertFailedException {
-		try {
-			return Integer.parseInt(rawValue);
-		} catch (NumberFormatException e) {
-			throw new ConvertFailedException("Invalid value for: integer");
-		}
+		return tryConvert(rawValue).getOrThrow();
+	}
+
+	@Override
+	@Nonnull
+	public ConvertResult<Integer> tryConvert(@Nonnull String rawValue) {
+		return Numbers.isInteger(rawValue, Integer.MIN_VALUE, Integer.MAX_VALUE)
+				? ConvertResult.success(Integer.valueOf(rawValue))
+				: FAILURE;
 	}
 }
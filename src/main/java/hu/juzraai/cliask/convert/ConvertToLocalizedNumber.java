@@ -0,0 +1,286 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.convert;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.text.ParsePosition;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Converts input to a number using the format of the given locale, e.g.
+ * <code>1.234,5</code> in German or <code>12 000</code> in Hungarian.
+ * Whitespace is ignored, so grouping can be typed with normal spaces even if
+ * the locale uses non-breaking spaces. Supports <code>byte</code>,
+ * <code>short</code>, <code>int</code>, <code>long</code>,
+ * <code>float</code>, <code>double</code> and their boxed types.
+ * <p>
+ * <code>NumberFormat</code> is not thread-safe and expensive to create, so
+ * instances are cached per thread and locale, and shared by the converters
+ * of all numeric types. Converter instances should be obtained from {@link
+ * Converters#findLocalized(Class, Locale)}.
+ *
+ * @author Zsolt Jurányi
+ */
+public class ConvertToLocalizedNumber<T extends Number> implements TryConvertTo<T> {
+
+	private static final ConcurrentMap<Locale, ThreadLocal<DecimalFormat>> FORMATS = new ConcurrentHashMap<>();
+
+	private final Class<T> type;
+	private final Locale locale;
+	private final boolean integer;
+	private final BigDecimal min;
+	private final BigDecimal max;
+	private final ThreadLocal<DecimalFormat> format;
+	private final char minusSign;
+	private final char groupingSeparator;
+	private final char decimalSeparator;
+	private final int groupingSize;
+	private final ConvertResult<T> failure;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param type   Target type (boxed type of a primitive number type)
+	 * @param locale Locale which defines the number format
+	 * @throws IllegalArgumentException if the type is not supported
+	 */
+	public ConvertToLocalizedNumber(@Nonnull Class<T> type, @Nonnull Locale locale) {
+		this.type = type;
+		this.locale = locale;
+		this.integer = Byte.class.equals(type) || Short.class.equals(type) || Integer.class.equals(type) || Long.class.equals(type);
+		if (!integer && !Float.class.equals(type) && !Double.class.equals(type)) {
+			throw new IllegalArgumentException("Unsupported type: " + type.getName());
+		}
+		this.min = integer ? BigDecimal.valueOf(minOf(type)) : null;
+		this.max = integer ? BigDecimal.valueOf(-(minOf(type) + 1)) : null;
+		this.format = formatOf(locale);
+		DecimalFormat df = format.get();
+		DecimalFormatSymbols symbols = df.getDecimalFormatSymbols();
+		this.minusSign = symbols.getMinusSign();
+		this.groupingSeparator = symbols.getGroupingSeparator();
+		this.decimalSeparator = symbols.getDecimalSeparator();
+		this.groupingSize = df.isGroupingUsed() ? df.getGroupingSize() : 0;
+		Number example = Byte.class.equals(type) ? -123L : integer ? (Number) (-12345L) : (Number) (-12345.67);
+		this.failure = ConvertResult.failure(String.format("Invalid value for: %s (e.g. %s)",
+				type.getSimpleName().toLowerCase(), format(example)));
+	}
+
+	/**
+	 * Returns the thread-local format cache of the given locale, creates it
+	 * if needed.
+	 *
+	 * @param locale Locale which defines the number format
+	 * @return Thread-local cache of the locale's number format
+	 */
+	@Nonnull
+	protected static ThreadLocal<DecimalFormat> formatOf(@Nonnull final Locale locale) {
+		ThreadLocal<DecimalFormat> format = FORMATS.get(locale);
+		if (null == format) {
+			format = new ThreadLocal<DecimalFormat>() {
+				@Override
+				protected DecimalFormat initialValue() {
+					NumberFormat nf = NumberFormat.getNumberInstance(locale);
+					DecimalFormat df = nf instanceof DecimalFormat
+							? (DecimalFormat) nf
+							: new DecimalFormat("#,##0.###", DecimalFormatSymbols.getInstance(locale));
+					df.setParseBigDecimal(true);
+					df.setMaximumFractionDigits(340);
+					return df;
+				}
+			};
+			ThreadLocal<DecimalFormat> existing = FORMATS.putIfAbsent(locale, format);
+			if (null != existing) {
+				format = existing;
+			}
+		}
+		return format;
+	}
+
+	private static long minOf(@Nonnull Class<?> type) {
+		if (Byte.class.equals(type)) {
+			return Byte.MIN_VALUE;
+		} else if (Short.class.equals(type)) {
+			return Short.MIN_VALUE;
+		} else if (Integer.class.equals(type)) {
+			return Integer.MIN_VALUE;
+		}
+		return Long.MIN_VALUE;
+	}
+
+	@Override
+	@Nonnull
+	public T convert(@Nonnull String rawValue) throws ConvertFailedException {
+		return tryConvert(rawValue).getOrThrow();
+	}
+
+	/**
+	 * Formats the given number using the format of the locale, so that it can
+	 * be converted back by this converter.
+	 *
+	 * @param value Number to be formatted
+	 * @return Formatted number
+	 */
+	@Nonnull
+	public String format(@Nonnull Number value) {
+		Object n = value;
+		if (value instanceof Float || value instanceof Double) {
+			double d = value.doubleValue();
+			if (!Double.isNaN(d) && !Double.isInfinite(d)) {
+				n = new BigDecimal(value.toString()); // shortest representation
+			}
+		}
+		return format.get().format(n);
+	}
+
+	/**
+	 * @return Locale which defines the number format
+	 */
+	@Nonnull
+	public Locale getLocale() {
+		return locale;
+	}
+
+	/**
+	 * @return Target type
+	 */
+	@Nonnull
+	public Class<T> getType() {
+		return type;
+	}
+
+	@Override
+	@Nonnull
+	public ConvertResult<T> tryConvert(@Nonnull String rawValue) {
+		String s = normalize(rawValue);
+		if (s.isEmpty()) {
+			return failure;
+		}
+		if (!isGroupingValid(s)) {
+			return failure;
+		}
+		ParsePosition position = new ParsePosition(0);
+		Number n = format.get().parse(s, position);
+		if (null == n || position.getIndex() != s.length()) {
+			return failure;
+		}
+		T value = valueOf(n);
+		return null == value ? failure : ConvertResult.success(value);
+	}
+
+	/**
+	 * Checks whether grouping separators are in the right positions, because
+	 * <code>DecimalFormat</code> ignores them. This way <code>1.5</code> is
+	 * not accepted as <code>15</code> in German format. A leading sign is
+	 * skipped, so negative numbers are checked the same way.
+	 *
+	 * @param s Normalized input
+	 * @return Whether every grouping separator is followed by exactly as many
+	 * digits as the grouping size, before the next separator
+	 */
+	protected boolean isGroupingValid(@Nonnull String s) {
+		int start = 0;
+		while (start < s.length() && (minusSign == s.charAt(start) || '-' == s.charAt(start) || '+' == s.charAt(start))) {
+			start++;
+		}
+		int last = -1;
+		for (int i = start; i < s.length(); i++) {
+			char c = s.charAt(i);
+			boolean end = c == decimalSeparator || !Character.isDigit(c) && c != groupingSeparator;
+			if (c == groupingSeparator || end) {
+				if (-1 != last && i - last - 1 != groupingSize) {
+					return false;
+				}
+				if (end) {
+					return true;
+				}
+				last = i;
+			}
+		}
+		return -1 == last || s.length() - last - 1 == groupingSize;
+	}
+
+	/**
+	 * Removes whitespace and replaces ASCII minus with the locale's minus
+	 * sign. Returns the input itself if there's nothing to replace.
+	 *
+	 * @param s Raw input
+	 * @return Normalized input
+	 */
+	@Nonnull
+	protected String normalize(@Nonnull String s) {
+		int i = 0;
+		while (i < s.length() && !isSpace(s.charAt(i)) && ('-' != s.charAt(i) || '-' == minusSign)) {
+			i++;
+		}
+		if (i == s.length()) {
+			return s;
+		}
+		StringBuilder b = new StringBuilder(s.length()).append(s, 0, i);
+		for (; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (!isSpace(c)) {
+				b.append('-' == c ? minusSign : c);
+			}
+		}
+		return b.toString();
+	}
+
+	private static boolean isSpace(char c) {
+		return Character.isWhitespace(c) || Character.isSpaceChar(c);
+	}
+
+	@CheckForNull
+	private T valueOf(@Nonnull Number n) {
+		Number value;
+		if (n instanceof BigDecimal) {
+			BigDecimal d = (BigDecimal) n;
+			if (integer) {
+				if (d.signum() != 0 && d.stripTrailingZeros().scale() > 0 || d.compareTo(min) < 0 || d.compareTo(max) > 0) {
+					return null;
+				}
+				value = d.longValue();
+			} else {
+				value = d.doubleValue();
+			}
+		} else { // NaN, infinity or negative zero
+			if (integer && 0 != Double.compare(Math.abs(n.doubleValue()), 0.0)) {
+				return null;
+			}
+			value = integer ? (Number) 0L : n;
+		}
+
+		if (Byte.class.equals(type)) {
+			return type.cast(value.byteValue());
+		} else if (Short.class.equals(type)) {
+			return type.cast(value.shortValue());
+		} else if (Integer.class.equals(type)) {
+			return type.cast(value.intValue());
+		} else if (Long.class.equals(type)) {
+			return type.cast(value.longValue());
+		} else if (Float.class.equals(type)) {
+			return type.cast(value.floatValue());
+		}
+		return type.cast(value.doubleValue());
+	}
+}
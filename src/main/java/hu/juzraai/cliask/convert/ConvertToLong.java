@@ -21,15 +21,21 @@ import javax.annotation.Nonnull;
 /**
  * @author Zsolt Jurányi
  */
-public class ConvertToLong implements ConvertTo<Long> {
+public class ConvertToLong implements TryConvertTo<Long> {
+
+	private static final ConvertResult<Long> FAILURE = ConvertResult.failure("Invalid value for: long");
 
 	@Override
 	@Nonnull
 	public Long convert(@Nonnull String rawValue) throws ConvertFailedException {
-		try {
-			return Long.parseLong(rawValue);
-		} catch (NumberFormatException e) {
-			throw new ConvertFailedException("Invalid value for: long");
-		}
+		return tryConvert(rawValue).getOrThrow();
+	}
+
+	@Override
+	@Nonnull
+	public ConvertResult<Long> tryConvert(@Nonnull String rawValue) {
+		return Numbers.isInteger(rawValue, Long.MIN_VALUE, Long.MAX_VALUE)
+				? ConvertResult.success(Long.valueOf(rawValue))
+				: FAILURE;
 	}
 }
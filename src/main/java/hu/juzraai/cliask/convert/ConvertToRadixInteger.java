@@ -0,0 +1,40 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.convert;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Converts input to integer, accepting radix prefixes and digit separators
+ * (e.g. <code>0x1F</code>, <code>1_000_000</code>), see {@link
+ * ConvertToRadixNumber}. It can be selected in the <code>converter</code>
+ * attribute of {@link hu.juzraai.cliask.annotation.Ask}.
+ *
+ * @author Zsolt Jurányi
+ */
+public class ConvertToRadixInteger extends ConvertToRadixNumber<Integer> {
+
+	public ConvertToRadixInteger() {
+		super("integer", Integer.MIN_VALUE, Integer.MAX_VALUE);
+	}
+
+	@Override
+	@Nonnull
+	protected Integer box(long value) {
+		return Integer.valueOf((int) value);
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.convert;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Base class of integer converters which accept radix prefixes and digit
+ * separators: <code>0x1F</code> (hexadecimal), <code>0o17</code> (octal),
+ * <code>0b1010</code> (binary), <code>1_000_000</code> (decimal). An optional
+ * sign can precede the prefix, prefixes and digits are case-insensitive, and
+ * underscores are allowed between digits only.
+ * <p>
+ * The input is parsed in a single pass, accumulating the value negatively
+ * like <code>Long.parseLong</code> does, with overflow checks against the
+ * target type's range. Failure results are preallocated, so only the boxed
+ * result is allocated.
+ *
+ * @author Zsolt Jurányi
+ */
+public abstract class ConvertToRadixNumber<T extends Number> implements TryConvertTo<T> {
+
+	private final long min;
+	private final long max;
+	private final ConvertResult<T> invalid;
+	private final ConvertResult<T> outOfRange;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param typeName Name of the target type, used in messages
+	 * @param min      Minimum value, must not be positive
+	 * @param max      Maximum value, must not be negative
+	 */
+	protected ConvertToRadixNumber(@Nonnull String typeName, long min, long max) {
+		this.min = min;
+		this.max = max;
+		this.invalid = ConvertResult.failure(String.format("Invalid value for: %s (use decimal digits, or 0x, 0o, 0b prefix)", typeName));
+		this.outOfRange = ConvertResult.failure(String.format("Value is out of range for: %s (%d..%d)", typeName, min, max));
+	}
+
+	/**
+	 * @param value Parsed value, within the range of the target type
+	 * @return The value as an instance of the target type
+	 */
+	@Nonnull
+	protected abstract T box(long value);
+
+	@Override
+	@Nonnull
+	public T convert(@Nonnull String rawValue) throws ConvertFailedException {
+		return tryConvert(rawValue).getOrThrow();
+	}
+
+	@Override
+	@Nonnull
+	public ConvertResult<T> tryConvert(@Nonnull String rawValue) {
+		int length = rawValue.length();
+		int i = 0;
+		boolean negative = false;
+		if (length > 0 && ('-' == rawValue.charAt(0) || '+' == rawValue.charAt(0))) {
+			negative = '-' == rawValue.charAt(0);
+			i++;
+		}
+		int radix = 10;
+		if (i + 1 < length && '0' == rawValue.charAt(i)) {
+			switch (rawValue.charAt(i + 1)) {
+				case 'x':
+				case 'X':
+					radix = 16;
+					break;
+				case 'o':
+				case 'O':
+					radix = 8;
+					break;
+				case 'b':
+				case 'B':
+					radix = 2;
+					break;
+				default:
+			}
+			if (10 != radix) {
+				i += 2;
+			}
+		}
+		long limit = negative ? min : -max; // accumulate negatively, like Long.parseLong
+		long multmin = limit / radix;
+		long result = 0;
+		boolean digits = false;
+		boolean separator = false;
+		boolean overflow = false;
+		for (; i < length; i++) {
+			char c = rawValue.charAt(i);
+			if ('_' == c) {
+				if (!digits || separator) {
+					return invalid;
+				}
+				separator = true;
+				continue;
+			}
+			int digit = Character.digit(c, radix);
+			if (digit < 0) {
+				return invalid;
+			}
+			digits = true;
+			separator = false;
+			if (!overflow) {
+				if (result < multmin || result * radix < limit + digit) {
+					overflow = true;
+				} else {
+					result = result * radix - digit;
+				}
+			}
+		}
+		if (!digits || separator) {
+			return invalid;
+		}
+		if (overflow) {
+			return outOfRange;
+		}
+		return ConvertResult.success(box(negative ? result : -result));
+	}
+}
@@ -21,15 +21,21 @@ import javax.annotation.Nonnull;
 /**
  * @author Zsolt Jurányi
  */
-public class ConvertToShort implements ConvertTo<Short> {
+public class ConvertToShort implements TryConvertTo<Short> {
+
+	private static final ConvertResult<Short> FAILURE = ConvertResult.failure("Invalid value for: short");
 
 	@Override
 	@Nonnull
 	public Short convert(@Nonnull String rawValue) throws ConvertFailedException {
-		try {
-			return Short.parseShort(rawValue);
-		} catch (NumberFormatException e) {
-			throw new ConvertFailedException("Invalid value for: short");
-		}
+		return tryConvert(rawValue).getOrThrow();
+	}
+
+	@Override
+	@Nonnull
+	public ConvertResult<Short> tryConvert(@Nonnull String rawValue) {
+		return Numbers.isInteger(rawValue, Short.MIN_VALUE, Short.MAX_VALUE)
+				? ConvertResult.success(Short.valueOf(rawValue))
+				: FAILURE;
 	}
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.convert;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Converts input to a size in bytes, e.g. <code>512M</code>. The input is a
+ * non-negative whole number (underscores are allowed between digits) with an
+ * optional unit: <code>B</code>, <code>K</code>, <code>M</code>,
+ * <code>G</code>, <code>T</code>, <code>P</code> or <code>E</code>. Units are
+ * case-insensitive, binary (1K = 1024 bytes, like JVM options), and can be
+ * followed by <code>B</code> or <code>iB</code> (<code>512MB</code>,
+ * <code>512MiB</code>). Target type is long, it can be selected in the
+ * <code>converter</code> attribute of {@link
+ * hu.juzraai.cliask.annotation.Ask}.
+ * <p>
+ * The input is parsed in a single pass with overflow checks, failure
+ * results are preallocated.
+ *
+ * @author Zsolt Jurányi
+ */
+public class ConvertToSize implements TryConvertTo<Long> {
+
+	private static final String UNITS = "BKMGTPE";
+	private static final ConvertResult<Long> INVALID = ConvertResult.failure("Invalid size, specify a whole number with optional unit: B|K|M|G|T|P|E (e.g. 512M)");
+	private static final ConvertResult<Long> TOO_LARGE = ConvertResult.failure("Size is too large, maximum is " + Long.MAX_VALUE + " bytes");
+
+	@Override
+	@Nonnull
+	public Long convert(@Nonnull String rawValue) throws ConvertFailedException {
+		return tryConvert(rawValue).getOrThrow();
+	}
+
+	/**
+	 * Formats the given size with the largest unit which divides it, so it
+	 * can be converted back.
+	 *
+	 * @param bytes Size in bytes
+	 * @return Text representation of the size, e.g. <code>512M</code>
+	 */
+	@Nonnull
+	public String format(long bytes) {
+		if (bytes <= 0) {
+			return Long.toString(bytes);
+		}
+		int unit = 0;
+		while (unit + 1 < UNITS.length() && 0 == (bytes & 1023)) {
+			bytes >>= 10;
+			unit++;
+		}
+		return 0 == unit ? Long.toString(bytes) : Long.toString(bytes) + UNITS.charAt(unit);
+	}
+
+	@Override
+	@Nonnull
+	public ConvertResult<Long> tryConvert(@Nonnull String rawValue) {
+		int length = rawValue.length();
+		int i = 0;
+		long result = 0;
+		boolean digits = false;
+		boolean separator = false;
+		boolean overflow = false;
+		for (; i < length; i++) {
+			char c = rawValue.charAt(i);
+			if ('_' == c) {
+				if (!digits || separator) {
+					return INVALID;
+				}
+				separator = true;
+				continue;
+			}
+			if (c < '0' || c > '9') {
+				break;
+			}
+			digits = true;
+			separator = false;
+			int digit = c - '0';
+			if (result > (Long.MAX_VALUE - digit) / 10) {
+				overflow = true;
+			} else if (!overflow) {
+				result = result * 10 + digit;
+			}
+		}
+		if (!digits || separator) {
+			return INVALID;
+		}
+
+		// unit
+		int shift = 0;
+		if (i < length) {
+			int unit = UNITS.indexOf(Character.toUpperCase(rawValue.charAt(i)));
+			if (unit < 0) {
+				return INVALID;
+			}
+			shift = 10 * unit;
+			i++;
+			if (unit > 0 && i < length) { // optional B or iB suffix
+				if ('i' == rawValue.charAt(i) || 'I' == rawValue.charAt(i)) {
+					i++;
+					if (i == length) {
+						return INVALID;
+					}
+				}
+				if ('b' != rawValue.charAt(i) && 'B' != rawValue.charAt(i)) {
+					return INVALID;
+				}
+				i++;
+			}
+			if (i < length) {
+				return INVALID;
+			}
+		}
+		if (overflow || result > Long.MAX_VALUE >> shift) {
+			return TOO_LARGE;
+		}
+		return ConvertResult.success(result << shift);
+	}
+}
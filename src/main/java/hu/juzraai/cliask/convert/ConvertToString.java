@@ -21,11 +21,17 @@ import javax.annotation.Nonnull;
 /**
  * @author Zsolt Jurányi
  */
-public class ConvertToString implements ConvertTo<String> {
+public class ConvertToString implements TryConvertTo<String> {
 
 	@Override
 	@Nonnull
 	public String convert(@Nonnull String rawValue) throws ConvertFailedException {
 		return rawValue;
 	}
+
+	@Override
+	@Nonnull
+	public ConvertResult<String> tryConvert(@Nonnull String rawValue) {
+		return ConvertResult.success(rawValue);
+	}
 }
@@ -16,10 +16,20 @@
 
 package hu.juzraai.cliask.convert;
 
+import hu.juzraai.cliask.annotation.AcceptOrdinal;
+import hu.juzraai.cliask.annotation.Stateful;
+import hu.juzraai.cliask.inspect.InspectFailedException;
+import hu.juzraai.cliask.inspect.Instantiators;
+import hu.juzraai.toolbox.log.LoggerFactory;
+import org.slf4j.Logger;
+
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Converter pool used in CLI-Ask, to convert String input into various types.
@@ -33,12 +43,25 @@ import java.util.Map;
  * can be added.
  * <p>
  * It has a method which can find an appropriate converter for a given type.
+ * Enum types are supported out of the box: a {@link ConvertToEnum} is created
+ * for each enum type on first use, and then reused.
+ * <p>
+ * It also caches the instances of custom converter classes specified in
+ * {@link hu.juzraai.cliask.annotation.Ask} annotations, see {@link
+ * #instanceOf(Class)}, and the locale-aware number converters, see {@link
+ * #findLocalized(Class, Locale)}.
  *
  * @author Zsolt Jurányi
  */
 public class Converters {
 
+	private static final Logger L = LoggerFactory.getLogger(Converters.class);
 	private static final Map<Class<?>, ConvertTo<?>> CONVERTERS = new LinkedHashMap<>();
+	private static final ConcurrentMap<Class<?>, ConvertTo<?>> ENUM_CONVERTERS = new ConcurrentHashMap<>();
+	private static final ConcurrentMap<Class<?>, ConvertTo<?>> INSTANCES = new ConcurrentHashMap<>();
+	private static final ConcurrentMap<Locale, ConcurrentMap<Class<?>, ConvertTo<?>>> LOCALIZED_CONVERTERS = new ConcurrentHashMap<>();
+	private static final Map<Class<?>, Class<? extends Number>> NUMBER_TYPES = new LinkedHashMap<>();
+	private static final String INVALID_VALUE = "Invalid value";
 
 	static {
 		// string (NOP)
@@ -63,6 +86,20 @@ public class Converters {
 		// boolean
 		add(Boolean.TYPE, new ConvertToBoolean());
 		add(Boolean.class, new ConvertToBoolean());
+
+		// types supported by locale-aware converters
+		NUMBER_TYPES.put(Byte.TYPE, Byte.class);
+		NUMBER_TYPES.put(Byte.class, Byte.class);
+		NUMBER_TYPES.put(Short.TYPE, Short.class);
+		NUMBER_TYPES.put(Short.class, Short.class);
+		NUMBER_TYPES.put(Integer.TYPE, Integer.class);
+		NUMBER_TYPES.put(Integer.class, Integer.class);
+		NUMBER_TYPES.put(Long.TYPE, Long.class);
+		NUMBER_TYPES.put(Long.class, Long.class);
+		NUMBER_TYPES.put(Float.TYPE, Float.class);
+		NUMBER_TYPES.put(Float.class, Float.class);
+		NUMBER_TYPES.put(Double.TYPE, Double.class);
+		NUMBER_TYPES.put(Double.class, Double.class);
 	}
 
 	/**
@@ -87,7 +124,8 @@ public class Converters {
 	 * converts to a type assignable to the target type. So if the field
 	 * type is <code>ClassA</code>, <code>ClassB</code> extends
 	 * <code>ClassA</code>, and there's a  converter for <code>ClassB</code>
-	 * it will be returned.
+	 * it will be returned. If there's no such converter and the given type is
+	 * an enum, returns the {@link ConvertToEnum} instance of that type.
 	 *
 	 * @param type Type to search converter for
 	 * @return An appropriate converter instance which converts from
@@ -109,8 +147,156 @@ public class Converters {
 			}
 		}
 
+		// enum
+		if (type.isEnum()) {
+			return findEnumConverter(type);
+		}
+
 		// no converter found
 		return null;
 	}
 
+	/**
+	 * Returns the cached {@link ConvertToEnum} instance for the given enum
+	 * type, creates it if needed. Ordinals are accepted if the enum type is
+	 * annotated with {@link AcceptOrdinal}.
+	 *
+	 * @param type Enum type
+	 * @return Converter for the given enum type
+	 */
+	@Nonnull
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	protected static ConvertTo<?> findEnumConverter(@Nonnull Class<?> type) {
+		ConvertTo<?> converter = ENUM_CONVERTERS.get(type);
+		if (null == converter) {
+			converter = new ConvertToEnum(type.asSubclass(Enum.class));
+			ConvertTo<?> existing = ENUM_CONVERTERS.putIfAbsent(type, converter);
+			if (null != existing) {
+				converter = existing;
+			}
+		}
+		return converter;
+	}
+
+	/**
+	 * Returns the cached {@link ConvertToLocalizedNumber} instance for the
+	 * given numeric type and locale, creates it if needed.
+	 *
+	 * @param type   Numeric type (primitive or boxed)
+	 * @param locale Locale which defines the number format
+	 * @return Locale-aware converter for the given type, or <code>null</code>
+	 * if the type is not numeric
+	 */
+	@CheckForNull
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public static ConvertTo<?> findLocalized(@Nonnull Class<?> type, @Nonnull Locale locale) {
+		Class<? extends Number> numberType = NUMBER_TYPES.get(type);
+		if (null == numberType) {
+			return null;
+		}
+		ConcurrentMap<Class<?>, ConvertTo<?>> converters = LOCALIZED_CONVERTERS.get(locale);
+		if (null == converters) {
+			converters = new ConcurrentHashMap<>();
+			ConcurrentMap<Class<?>, ConvertTo<?>> existing = LOCALIZED_CONVERTERS.putIfAbsent(locale, converters);
+			if (null != existing) {
+				converters = existing;
+			}
+		}
+		ConvertTo<?> converter = converters.get(numberType);
+		if (null == converter) {
+			converter = new ConvertToLocalizedNumber(numberType, locale);
+			ConvertTo<?> existing = converters.putIfAbsent(numberType, converter);
+			if (null != existing) {
+				converter = existing;
+			}
+		}
+		return converter;
+	}
+
+	/**
+	 * Converts the given value to text which can be converted back by the
+	 * given converter. Numbers are formatted by {@link
+	 * ConvertToLocalizedNumber}, sizes and durations with their units by
+	 * {@link ConvertToSize} and {@link ConvertToDuration}, other values are
+	 * converted using <code>toString()</code>.
+	 *
+	 * @param converter Converter of the value
+	 * @param value     Value to be converted to text
+	 * @return Text representation of the value
+	 */
+	@Nonnull
+	public static String format(@Nonnull ConvertTo<?> converter, @Nonnull Object value) {
+		if (converter instanceof ConvertToLocalizedNumber && value instanceof Number) {
+			return ((ConvertToLocalizedNumber<?>) converter).format((Number) value);
+		}
+		if (converter instanceof ConvertToSize && value instanceof Long) {
+			return ((ConvertToSize) converter).format((Long) value);
+		}
+		if (converter instanceof ConvertToDuration && value instanceof Long) {
+			return ((ConvertToDuration) converter).format((Long) value);
+		}
+		return value.toString();
+	}
+
+	/**
+	 * Returns the shared instance of the given converter class, instantiates
+	 * it using its cached factory if needed (see {@link Instantiators}),
+	 * which calls the no-arg constructor. If the class is annotated with
+	 * {@link Stateful}, a new instance is returned every time.
+	 * <p>
+	 * Shared instances are used by multiple fields and threads at the same
+	 * time, so they must be thread-safe.
+	 *
+	 * @param converterClass Converter class with no-arg constructor
+	 * @param <C>            Converter class
+	 * @return Instance of the converter class
+	 * @throws InspectFailedException if the class cannot be instantiated
+	 */
+	@Nonnull
+	public static <C extends ConvertTo<?>> C instanceOf(@Nonnull Class<C> converterClass) throws InspectFailedException {
+		if (converterClass.isAnnotationPresent(Stateful.class)) {
+			return Instantiators.newInstance(converterClass);
+		}
+		ConvertTo<?> converter = INSTANCES.get(converterClass);
+		if (null == converter) {
+			converter = Instantiators.newInstance(converterClass);
+			ConvertTo<?> existing = INSTANCES.putIfAbsent(converterClass, converter);
+			if (null != existing) {
+				converter = existing;
+			}
+		}
+		return converterClass.cast(converter);
+	}
+
+	/**
+	 * Converts the given raw value using the given converter, without
+	 * throwing exception on invalid input. If the converter implements {@link
+	 * TryConvertTo}, its <code>tryConvert</code> method is used, otherwise
+	 * the {@link ConvertFailedException} thrown by <code>convert</code> is
+	 * turned into a failure result. Runtime exceptions of custom converters
+	 * (e.g. <code>NumberFormatException</code>) are turned into failure
+	 * results too, so an invalid value affects only its own field. Their
+	 * messages are not used, because they may contain the raw value, which
+	 * can be a secret.
+	 *
+	 * @param converter Converter to be used
+	 * @param rawValue  Raw value to be converted
+	 * @return Result of the conversion: the converted value or a failure
+	 * message
+	 */
+	@Nonnull
+	@SuppressWarnings("unchecked")
+	public static ConvertResult<Object> tryConvert(@Nonnull ConvertTo<?> converter, @Nonnull String rawValue) {
+		try {
+			if (converter instanceof TryConvertTo) {
+				return (ConvertResult<Object>) ((TryConvertTo<?>) converter).tryConvert(rawValue);
+			}
+			return ConvertResult.<Object>success(converter.convert(rawValue));
+		} catch (ConvertFailedException e) {
+			return ConvertResult.failure(String.valueOf(e.getMessage()));
+		} catch (RuntimeException e) {
+			L.debug("Converter {} failed with {}", converter.getClass().getName(), e.getClass().getName());
+			return ConvertResult.failure(INVALID_VALUE);
+		}
+	}
 }
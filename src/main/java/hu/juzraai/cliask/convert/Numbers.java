@@ -0,0 +1,99 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.convert;
+
+import javax.annotation.Nonnull;
+import java.util.regex.Pattern;
+
+/**
+ * Syntax checks for built-in numeric converters, so they can detect invalid
+ * input before calling the <code>parseX</code> methods, which would throw
+ * {@link NumberFormatException}.
+ *
+ * @author Zsolt Jurányi
+ */
+class Numbers {
+
+	/**
+	 * The regular expression recommended by <code>Double.valueOf(String)</code>
+	 * to check inputs.
+	 */
+	private static final Pattern FLOATING_POINT;
+
+	static {
+		String digits = "(\\p{Digit}+)";
+		String hexDigits = "(\\p{XDigit}+)";
+		String exp = "[eE][+-]?" + digits;
+		FLOATING_POINT = Pattern.compile("[\\x00-\\x20]*[+-]?(NaN|Infinity|((("
+				+ digits + "(\\.)?(" + digits + "?)(" + exp + ")?)|(\\.(" + digits + ")(" + exp + ")?)|(("
+				+ "(0[xX]" + hexDigits + "(\\.)?)|(0[xX]" + hexDigits + "?(\\.)" + hexDigits + ")"
+				+ ")[pP][+-]?" + digits + "))[fFdD]?))[\\x00-\\x20]*");
+	}
+
+	private Numbers() {
+	}
+
+	/**
+	 * @param s Input string
+	 * @return Whether <code>Double.parseDouble</code> and
+	 * <code>Float.parseFloat</code> would accept the input
+	 */
+	static boolean isFloatingPoint(@Nonnull String s) {
+		return FLOATING_POINT.matcher(s).matches();
+	}
+
+	/**
+	 * Checks the input in the same way as <code>Long.parseLong</code> does
+	 * (optional sign, decimal digits), and also checks the range.
+	 *
+	 * @param s   Input string
+	 * @param min Minimum value, must not be positive
+	 * @param max Maximum value, must not be negative
+	 * @return Whether the input is a valid integer between the given bounds
+	 */
+	static boolean isInteger(@Nonnull String s, long min, long max) {
+		int length = s.length();
+		if (0 == length) {
+			return false;
+		}
+		int i = 0;
+		boolean negative = false;
+		char first = s.charAt(0);
+		if ('-' == first || '+' == first) {
+			negative = '-' == first;
+			if (1 == length) {
+				return false;
+			}
+			i++;
+		}
+		long limit = negative ? min : -max; // accumulate negatively, like Long.parseLong
+		long multmin = limit / 10;
+		long result = 0;
+		for (; i < length; i++) {
+			int digit = Character.digit(s.charAt(i), 10);
+			if (digit < 0 || result < multmin) {
+				return false;
+			}
+			result *= 10;
+			if (result < limit + digit) {
+				return false;
+			}
+			result -= digit;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.convert;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Extension of {@link ConvertTo} for converters which can report invalid input
+ * without throwing an exception. CLI-Ask prefers {@link #tryConvert(String)}
+ * when re-asking, because building exceptions (and their stack traces) for
+ * every invalid input is expensive when error rate is high.
+ * <p>
+ * Implementations should keep {@link #convert(String)} consistent with {@link
+ * #tryConvert(String)}, it can simply be implemented as
+ * <code>tryConvert(rawValue).getOrThrow()</code>.
+ *
+ * @author Zsolt Jurányi
+ */
+public interface TryConvertTo<T> extends ConvertTo<T> {
+
+	/**
+	 * This method should convert the input value into the target type. If any
+	 * error occurs, it should return a failure result instead of throwing an
+	 * exception.
+	 *
+	 * @param rawValue The input value to be converted
+	 * @return Result of the conversion: the converted value or a failure
+	 * message
+	 */
+	@Nonnull
+	ConvertResult<T> tryConvert(@Nonnull String rawValue);
+}
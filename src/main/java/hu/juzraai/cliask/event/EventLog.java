@@ -0,0 +1,335 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.event;
+
+import hu.juzraai.toolbox.log.LoggerFactory;
+import org.slf4j.Logger;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous audit log of prompt sessions. Every answer (accepted, default
+ * or rejected, from the user or from a non-interactive source) is recorded
+ * as an event, and written as a JSON line by a background thread.
+ * <p>
+ * Events are passed through a preallocated ring buffer: {@link
+ * #publish(String, String, int, String, Result, String, String, long, long)}
+ * claims a slot with a CAS operation, copies the references into it and
+ * publishes it with a volatile write, so the prompt thread never blocks on
+ * I/O or locks. The writer thread sleeps while there are no events, and it's
+ * woken up by the first event published after that. If the buffer is full
+ * because the writer can't keep up, the event is dropped and counted (see
+ * {@link #getDropped()}).
+ *
+ * @author Zsolt Jurányi
+ */
+public class EventLog implements Closeable {
+
+	/**
+	 * Default number of slots in the ring buffer.
+	 */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	private static final Logger L = LoggerFactory.getLogger(EventLog.class);
+
+	private final Event[] slots;
+	private final int mask;
+	private final AtomicLong next = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+	private final AtomicBoolean signalled = new AtomicBoolean();
+	private final Writer out;
+	private final Thread writerThread;
+	private volatile long consumed = -1;
+	private volatile boolean running = true;
+
+	/**
+	 * Creates a new instance and starts the writer thread.
+	 *
+	 * @param out      Output of the JSON lines, will be closed by {@link
+	 *                 #close()}
+	 * @param capacity Number of slots in the ring buffer, will be rounded up
+	 *                 to a power of two
+	 */
+	public EventLog(@Nonnull Writer out, int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive");
+		}
+		int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+		this.slots = new Event[size];
+		for (int i = 0; i < size; i++) {
+			slots[i] = new Event();
+		}
+		this.mask = size - 1;
+		this.out = out;
+		this.writerThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				drain();
+			}
+		}, "cli-ask-event-log");
+		writerThread.setDaemon(true);
+		writerThread.start();
+	}
+
+	/**
+	 * Creates a new instance which appends UTF-8 encoded JSON lines to the
+	 * given file.
+	 *
+	 * @param file File to append to
+	 * @return A new event log
+	 * @throws IOException if the file cannot be opened
+	 */
+	@Nonnull
+	public static EventLog open(@Nonnull File file) throws IOException {
+		return new EventLog(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), Charset.forName("UTF-8"))), DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Appends the given string as a JSON string literal.
+	 *
+	 * @param s   String to be appended, can be <code>null</code>
+	 * @param out Output to append to
+	 */
+	protected static void appendJsonString(String s, @Nonnull StringBuilder out) {
+		if (null == s) {
+			out.append("null");
+			return;
+		}
+		out.append('"');
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			switch (c) {
+				case '"':
+					out.append("\\\"");
+					break;
+				case '\\':
+					out.append("\\\\");
+					break;
+				case '\n':
+					out.append("\\n");
+					break;
+				case '\r':
+					out.append("\\r");
+					break;
+				case '\t':
+					out.append("\\t");
+					break;
+				default:
+					if (c < 0x20) {
+						out.append(String.format("\\u%04x", (int) c));
+					} else {
+						out.append(c);
+					}
+			}
+		}
+		out.append('"');
+	}
+
+	/**
+	 * Stops the writer thread after it has written the published events, then
+	 * closes the output.
+	 *
+	 * @throws IOException if closing the output fails
+	 */
+	@Override
+	public void close() throws IOException {
+		running = false;
+		LockSupport.unpark(writerThread);
+		try {
+			writerThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		out.close();
+	}
+
+	/**
+	 * Writes the published events until the log is closed and there are no
+	 * more published events.
+	 */
+	protected void drain() {
+		StringBuilder line = new StringBuilder(256);
+		long sequence = consumed + 1;
+		boolean dirty = false;
+		while (true) {
+			Event event = slots[(int) sequence & mask];
+			if (event.sequence == sequence) {
+				line.setLength(0);
+				event.appendJson(line);
+				line.append('\n');
+				event.clear();
+				consumed = sequence++;
+				try {
+					out.write(line.toString());
+					dirty = true;
+				} catch (IOException e) {
+					L.warn("Failed to write event log: {}", e.getMessage());
+				}
+			} else {
+				if (dirty) {
+					try {
+						out.flush();
+					} catch (IOException e) {
+						L.warn("Failed to flush event log: {}", e.getMessage());
+					}
+					dirty = false;
+				}
+				if (!running && next.get() == sequence) {
+					return;
+				}
+				signalled.set(false);
+				if (running && event.sequence != sequence) {
+					LockSupport.park(this);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return Number of events dropped because the ring buffer was full
+	 */
+	public long getDropped() {
+		return dropped.get();
+	}
+
+	/**
+	 * Records an answer event. Never blocks: if the ring buffer is full or
+	 * the log is closed, the event is dropped.
+	 *
+	 * @param field        Path of the field
+	 * @param label        Label of the field
+	 * @param attempt      Number of the attempt, starting from 1
+	 * @param source       Where the answer came from (e.g. "input" or the
+	 *                     name of a source)
+	 * @param result       Result of conversion and validation
+	 * @param message      Problem description if the answer was rejected,
+	 *                     can be <code>null</code>
+	 * @param value        Raw answer, should be redacted for secrets
+	 * @param waitNanos    Time spent waiting for the answer, or -1 if it's
+	 *                     not applicable
+	 * @param convertNanos Time spent converting and validating the answer
+	 * @return Whether the event has been recorded
+	 */
+	public boolean publish(String field, String label, int attempt, String source, @Nonnull Result result, String message, String value, long waitNanos, long convertNanos) {
+		long sequence;
+		do {
+			sequence = next.get();
+			if (!running || sequence - consumed > slots.length) {
+				dropped.incrementAndGet();
+				return false;
+			}
+		} while (!next.compareAndSet(sequence, sequence + 1));
+
+		Event event = slots[(int) sequence & mask];
+		event.time = System.currentTimeMillis();
+		event.field = field;
+		event.label = label;
+		event.attempt = attempt;
+		event.source = source;
+		event.result = result;
+		event.message = message;
+		event.value = value;
+		event.waitNanos = waitNanos;
+		event.convertNanos = convertNanos;
+		event.sequence = sequence; // publish
+		if (signalled.compareAndSet(false, true)) {
+			LockSupport.unpark(writerThread);
+		}
+		return true;
+	}
+
+	/**
+	 * Result of an answer.
+	 */
+	public enum Result {
+
+		/**
+		 * The answer has been converted, validated and set.
+		 */
+		ACCEPTED,
+
+		/**
+		 * The user provided empty input and the default value has been kept.
+		 */
+		DEFAULT,
+
+		/**
+		 * The answer was invalid.
+		 */
+		REJECTED
+	}
+
+	/**
+	 * Preallocated slot of the ring buffer.
+	 */
+	private static class Event {
+
+		volatile long sequence = -1;
+		long time;
+		String field;
+		String label;
+		int attempt;
+		String source;
+		Result result;
+		String message;
+		String value;
+		long waitNanos;
+		long convertNanos;
+
+		void appendJson(@Nonnull StringBuilder out) {
+			out.append("{\"time\":").append(time);
+			out.append(",\"field\":");
+			appendJsonString(field, out);
+			out.append(",\"label\":");
+			appendJsonString(label, out);
+			out.append(",\"attempt\":").append(attempt);
+			out.append(",\"source\":");
+			appendJsonString(source, out);
+			out.append(",\"result\":\"").append(result.name().toLowerCase()).append('"');
+			if (null != message) {
+				out.append(",\"message\":");
+				appendJsonString(message, out);
+			}
+			out.append(",\"value\":");
+			appendJsonString(value, out);
+			if (waitNanos >= 0) {
+				out.append(",\"waitMicros\":").append(waitNanos / 1000);
+			}
+			out.append(",\"convertMicros\":").append(convertNanos / 1000);
+			out.append('}');
+		}
+
+		void clear() {
+			field = null;
+			label = null;
+			source = null;
+			message = null;
+			value = null;
+		}
+	}
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.input;
+
+import javax.annotation.CheckForNull;
+import java.io.IOException;
+
+/**
+ * Source of input lines for {@link hu.juzraai.cliask.AskSession}.
+ * Implementations should be thread-safe.
+ *
+ * @author Zsolt Jurányi
+ */
+public interface LineInput {
+
+	/**
+	 * Reads the next line.
+	 *
+	 * @return The next line without line terminator, or <code>null</code> if
+	 * the end of input has been reached
+	 * @throws IOException if an I/O error occurs
+	 */
+	@CheckForNull
+	String readLine() throws IOException;
+}
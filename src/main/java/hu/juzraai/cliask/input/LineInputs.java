@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.input;
+
+import hu.juzraai.toolbox.log.LoggerFactory;
+import org.slf4j.Logger;
+
+import javax.annotation.Nonnull;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Factory methods for {@link LineInput} implementations.
+ *
+ * @author Zsolt Jurányi
+ */
+public class LineInputs {
+
+	private static final Logger L = LoggerFactory.getLogger(LineInputs.class);
+	private static final String[] STDIN_PATHS = {"/proc/self/fd/0", "/dev/stdin"};
+
+	private LineInputs() {
+	}
+
+	/**
+	 * Creates the best input for the standard input. If it's redirected from
+	 * a regular file (e.g. <code>&lt; answers.txt</code>), a {@link
+	 * MappedFileLineInput} is returned, which reads the file directly,
+	 * starting at the current offset of the standard input. Otherwise a
+	 * {@link ReaderLineInput} is returned which reads
+	 * <code>System.in</code>.
+	 * <p>
+	 * Note that bytes already buffered by <code>System.in</code> are not seen
+	 * by the mapped input, so the standard input should not be read by other
+	 * means before.
+	 *
+	 * @return Input for the standard input
+	 */
+	@Nonnull
+	public static LineInput standardInput() {
+		if (null == System.console() && isStandardInputRegularFile()) {
+			try {
+				FileInputStream in = new FileInputStream(FileDescriptor.in); // must not be closed
+				return new MappedFileLineInput(in.getChannel(), Charset.defaultCharset(), true);
+			} catch (IOException e) {
+				L.debug("Cannot map standard input, falling back to reader: {}", e.getMessage());
+			}
+		}
+		return new ReaderLineInput(System.in);
+	}
+
+	private static boolean isStandardInputRegularFile() {
+		for (String stdinPath : STDIN_PATHS) {
+			try {
+				Path path = Paths.get(stdinPath);
+				if (Files.exists(path)) {
+					return Files.isRegularFile(path);
+				}
+			} catch (InvalidPathException | SecurityException e) {
+				L.trace("Cannot check {}: {}", stdinPath, e.getMessage());
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.input;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Makes any {@link LineInput} peekable by buffering the lines read ahead
+ * from it. Lines are returned by {@link #readLine()} from the buffer first.
+ *
+ * @author Zsolt Jurányi
+ */
+public class LookaheadLineInput implements PeekableLineInput {
+
+	private final LineInput input;
+	private final List<String> buffer = new ArrayList<>();
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param input Input to be read
+	 */
+	public LookaheadLineInput(@Nonnull LineInput input) {
+		this.input = input;
+	}
+
+	/**
+	 * @return The wrapped input
+	 */
+	@Nonnull
+	public LineInput getInput() {
+		return input;
+	}
+
+	@CheckForNull
+	@Override
+	public synchronized String peekLine(int index) throws IOException {
+		while (buffer.size() <= index) {
+			String line = input.readLine();
+			if (null == line) {
+				return null;
+			}
+			buffer.add(line);
+		}
+		return buffer.get(index);
+	}
+
+	@CheckForNull
+	@Override
+	public synchronized String readLine() throws IOException {
+		return buffer.isEmpty() ? input.readLine() : buffer.remove(0);
+	}
+}
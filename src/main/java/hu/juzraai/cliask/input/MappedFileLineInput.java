@@ -0,0 +1,164 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.input;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Reads lines from a file through a memory-mapped buffer. Line terminators
+ * are searched directly in the mapped bytes, and only the bytes of the
+ * returned line are decoded, into a reused character buffer. Large files are
+ * mapped in windows.
+ * <p>
+ * Reading starts at the current position of the channel. If requested, the
+ * channel's position is kept in sync with the consumed lines, so when the
+ * channel belongs to a shared file descriptor (e.g. standard input), other
+ * readers will continue where this one stopped.
+ *
+ * @author Zsolt Jurányi
+ */
+public class MappedFileLineInput implements LineInput {
+
+	private static final int DEFAULT_WINDOW_SIZE = 16 << 20;
+
+	private final FileChannel channel;
+	private final CharsetDecoder decoder;
+	private final boolean syncPosition;
+	private int windowSize;
+	private MappedByteBuffer window;
+	private long windowStart;
+	private long position;
+	private CharBuffer chars = CharBuffer.allocate(256);
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param channel      File channel to read from
+	 * @param charset      Charset of the file
+	 * @param syncPosition Whether to update the channel's position after each
+	 *                     line
+	 * @throws IOException if the position of the channel cannot be determined
+	 */
+	public MappedFileLineInput(@Nonnull FileChannel channel, @Nonnull Charset charset, boolean syncPosition) throws IOException {
+		this(channel, charset, syncPosition, DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * Creates a new instance with the given initial window size. The window
+	 * grows if a line doesn't fit in it.
+	 *
+	 * @param channel      File channel to read from
+	 * @param charset      Charset of the file
+	 * @param syncPosition Whether to update the channel's position after each
+	 *                     line
+	 * @param windowSize   Number of bytes to be mapped at once
+	 * @throws IOException if the position of the channel cannot be determined
+	 */
+	MappedFileLineInput(@Nonnull FileChannel channel, @Nonnull Charset charset, boolean syncPosition, int windowSize) throws IOException {
+		if (windowSize < 1) {
+			throw new IllegalArgumentException("Window size must be positive");
+		}
+		this.channel = channel;
+		this.decoder = charset.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		this.syncPosition = syncPosition;
+		this.windowSize = windowSize;
+		this.position = channel.position();
+	}
+
+	@CheckForNull
+	@Override
+	public synchronized String readLine() throws IOException {
+		long size = channel.size();
+		if (position >= size) {
+			return null;
+		}
+		while (true) {
+			if (null == window || position < windowStart || position >= windowStart + window.limit()) {
+				map(position, size);
+			}
+			int start = (int) (position - windowStart);
+			int limit = window.limit();
+			int end = start;
+			while (end < limit && '\n' != window.get(end)) {
+				end++;
+			}
+			if (end < limit || windowStart + limit >= size) { // terminator found or last line
+				int lineEnd = end > start && '\r' == window.get(end - 1) ? end - 1 : end;
+				String line = decode(start, lineEnd);
+				position = windowStart + Math.min(end + 1, limit);
+				if (syncPosition) {
+					channel.position(position);
+				}
+				return line;
+			}
+			if (0 == start) { // line is longer than the window
+				windowSize = (int) Math.min(Integer.MAX_VALUE, 2L * windowSize);
+			}
+			map(position, size);
+		}
+	}
+
+	@Nonnull
+	private String decode(int start, int end) throws CharacterCodingException {
+		if (start == end) {
+			return "";
+		}
+		window.limit(end).position(start);
+		try {
+			decoder.reset();
+			chars.clear();
+			CoderResult result;
+			while ((result = decoder.decode(window, chars, true)).isOverflow()) {
+				grow();
+			}
+			while (!result.isError() && (result = decoder.flush(chars)).isOverflow()) {
+				grow();
+			}
+			if (result.isError()) {
+				result.throwException();
+			}
+			chars.flip();
+			return chars.toString();
+		} finally {
+			window.clear();
+		}
+	}
+
+	private void grow() {
+		CharBuffer larger = CharBuffer.allocate(2 * chars.capacity());
+		chars.flip();
+		larger.put(chars);
+		chars = larger;
+	}
+
+	private void map(long from, long size) throws IOException {
+		windowStart = from;
+		window = channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(windowSize, size - from));
+	}
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.input;
+
+import javax.annotation.CheckForNull;
+import java.io.IOException;
+
+/**
+ * {@link LineInput} which can return upcoming lines without consuming them.
+ * Used by {@link hu.juzraai.cliask.AskSession} to read ahead in pipelined
+ * mode: lines are consumed only by {@link #readLine()}, when the session
+ * asks for them, so implementations which track prompts (e.g. {@link
+ * hu.juzraai.cliask.console.VirtualConsole}) see the same reads as in
+ * sequential mode.
+ *
+ * @author Zsolt Jurányi
+ * @see LookaheadLineInput
+ */
+public interface PeekableLineInput extends LineInput {
+
+	/**
+	 * Returns an upcoming line without consuming it.
+	 *
+	 * @param index Index of the line, 0 means the line which will be returned
+	 *              by the next {@link #readLine()} call
+	 * @return The line without line terminator, or <code>null</code> if the
+	 * input ends before it
+	 * @throws IOException if an I/O error occurs
+	 */
+	@CheckForNull
+	String peekLine(int index) throws IOException;
+}
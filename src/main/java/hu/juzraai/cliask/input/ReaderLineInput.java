@@ -0,0 +1,62 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.input;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+
+/**
+ * Reads lines from a character stream through a {@link BufferedReader}. The
+ * same instance should be used for every read, otherwise buffered input
+ * would be lost.
+ *
+ * @author Zsolt Jurányi
+ */
+public class ReaderLineInput implements LineInput {
+
+	private final BufferedReader reader;
+
+	/**
+	 * Creates a new instance which decodes the given stream using the default
+	 * charset.
+	 *
+	 * @param inputStream Input stream to read from
+	 */
+	public ReaderLineInput(@Nonnull InputStream inputStream) {
+		this(new InputStreamReader(inputStream));
+	}
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param reader Reader to read from
+	 */
+	public ReaderLineInput(@Nonnull Reader reader) {
+		this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+	}
+
+	@CheckForNull
+	@Override
+	public synchronized String readLine() throws IOException {
+		return reader.readLine();
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.inspect;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A {@link PreparedField} which holds a creator argument instead of a field
+ * of an existing object. Its value is stored in an argument array, which is
+ * passed to the creator when every value has been collected (see {@link
+ * CreatorPlan}).
+ *
+ * @author Zsolt Jurányi
+ */
+public class ArgumentField extends PreparedField {
+
+	private final Class<?> objectType;
+	private final Object[] arguments;
+	private final int index;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param objectType Class of the object to be created
+	 * @param arguments  Argument array of the creator
+	 * @param index      Index of this argument
+	 * @param plan       Plan of the field which belongs to this argument
+	 */
+	public ArgumentField(@Nonnull Class<?> objectType, @Nonnull Object[] arguments, int index, @Nonnull FieldPlan plan) {
+		super(arguments, plan);
+		this.objectType = objectType;
+		this.arguments = arguments;
+		this.index = index;
+	}
+
+	/**
+	 * @return The current value of the argument
+	 */
+	@Override
+	public Object get() {
+		return arguments[index];
+	}
+
+	@Nonnull
+	@Override
+	public Class<?> getObjectType() {
+		return objectType;
+	}
+
+	/**
+	 * Sets the value of the argument.
+	 *
+	 * @param value New value of the argument
+	 */
+	@Override
+	protected void setValue(Object value) {
+		arguments[index] = value;
+	}
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.inspect;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Contains the precompiled {@link FieldPlan} objects of a class' fields which
+ * has {@link hu.juzraai.cliask.annotation.Ask} annotation. It's built once per
+ * class by {@link ObjectInspector} and reused for every object of that class.
+ *
+ * @author Zsolt Jurányi
+ */
+public class ClassPlan {
+
+	private final Class<?> type;
+	private final List<FieldPlan> fields;
+	private final long schemaHash;
+	private final CreatorPlan creator;
+	private final FieldRule[] rules;
+	private final int[] order;
+	private final ConcurrentMap<String, String[]> paths = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param type   The class
+	 * @param fields Plans of the class' fields, in asking order
+	 */
+	public ClassPlan(@Nonnull Class<?> type, @Nonnull List<FieldPlan> fields) {
+		this(type, fields, null);
+	}
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param type    The class
+	 * @param fields  Plans of the class' fields, in asking order
+	 * @param creator Plan of the class' creator, or <code>null</code> if the
+	 *                class has no creator
+	 */
+	public ClassPlan(@Nonnull Class<?> type, @Nonnull List<FieldPlan> fields, CreatorPlan creator) {
+		this(type, fields, creator, new FieldRule[fields.size()], null);
+	}
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param type    The class
+	 * @param fields  Plans of the class' fields, in declaration order
+	 * @param creator Plan of the class' creator, or <code>null</code> if the
+	 *                class has no creator
+	 * @param rules   Rules of the fields (<code>null</code> elements for
+	 *                fields without rule), indexed like the fields
+	 * @param order   Indexes of the fields in asking order, or
+	 *                <code>null</code> to use declaration order
+	 */
+	public ClassPlan(@Nonnull Class<?> type, @Nonnull List<FieldPlan> fields, CreatorPlan creator, @Nonnull FieldRule[] rules, int[] order) {
+		this.type = type;
+		this.fields = Collections.unmodifiableList(fields);
+		this.schemaHash = calculateSchemaHash();
+		this.creator = creator;
+		this.rules = rules;
+		if (null == order) {
+			order = new int[fields.size()];
+			for (int i = 0; i < order.length; i++) {
+				order[i] = i;
+			}
+		}
+		this.order = order;
+	}
+
+	/**
+	 * @return Plan of the class' creator, or <code>null</code> if the class
+	 * has no {@link hu.juzraai.cliask.annotation.Creator}
+	 */
+	public CreatorPlan getCreator() {
+		return creator;
+	}
+
+	/**
+	 * Calculates a 64-bit FNV-1a hash of the field names, types, labels,
+	 * converter classes, locales and recursive flags.
+	 *
+	 * @return Schema hash of the class
+	 */
+	protected long calculateSchemaHash() {
+		long h = 0xcbf29ce484222325L;
+		for (FieldPlan plan : fields) {
+			h = hash(h, plan.getField().getName());
+			h = hash(h, plan.getField().getType().getName());
+			if (null != plan.getAsk()) {
+				h = hash(h, plan.getAsk().value());
+				h = hash(h, plan.getAsk().converter().getName());
+				h = hash(h, plan.getAsk().locale());
+				h = hash(h, plan.getAsk().recursive() ? "R" : "-");
+			}
+		}
+		return h;
+	}
+
+	private static long hash(long h, @Nonnull String s) {
+		for (int i = 0; i < s.length(); i++) {
+			h = (h ^ s.charAt(i)) * 0x100000001b3L;
+		}
+		return (h ^ 0xFFFF) * 0x100000001b3L; // separator
+	}
+
+	/**
+	 * @return Plans of the class' fields, in declaration order (inherited
+	 * fields first)
+	 */
+	@Nonnull
+	public List<FieldPlan> getFields() {
+		return fields;
+	}
+
+	/**
+	 * @return Indexes of the fields in asking order: fields referenced by a
+	 * {@link FieldRule} come before the fields referring to them, otherwise
+	 * declaration order is kept
+	 */
+	@Nonnull
+	public int[] getOrder() {
+		return order.clone();
+	}
+
+	/**
+	 * @param index Index of the field
+	 * @return Rule of the field, or <code>null</code> if it has no condition
+	 * and no derived default value
+	 */
+	public FieldRule getRule(int index) {
+		return rules[index];
+	}
+
+	/**
+	 * Returns the paths of the fields, in the same order as {@link
+	 * #getFields()}. The path of a field is its name, prepended with the given
+	 * prefix and a dot, if the prefix is not empty. Paths are calculated once
+	 * per prefix.
+	 *
+	 * @param prefix Path of the parent object, empty string for top-level
+	 *               objects
+	 * @return Paths of the fields
+	 */
+	@Nonnull
+	public String[] pathsOf(@Nonnull String prefix) {
+		String[] r = paths.get(prefix);
+		if (null == r) {
+			r = new String[fields.size()];
+			for (int i = 0; i < r.length; i++) {
+				String name = fields.get(i).getField().getName();
+				r[i] = prefix.isEmpty() ? name : prefix + "." + name;
+			}
+			paths.putIfAbsent(prefix, r);
+		}
+		return r;
+	}
+
+	/**
+	 * @return Hash of the class' schema (field names, types, labels,
+	 * converters), calculated once
+	 */
+	public long getSchemaHash() {
+		return schemaHash;
+	}
+
+	/**
+	 * @return The class
+	 */
+	@Nonnull
+	public Class<?> getType() {
+		return type;
+	}
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.inspect;
+
+import hu.juzraai.cliask.annotation.Creator;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Contains the constructor or static factory method of a class which is
+ * annotated with {@link Creator}, and the mapping of its parameters to the
+ * class' {@link hu.juzraai.cliask.annotation.Ask} fields. It's built once per
+ * class by {@link ObjectInspector}, as part of the {@link ClassPlan}.
+ *
+ * @author Zsolt Jurányi
+ */
+public class CreatorPlan {
+
+	private static final Object NONE = new Object();
+	private static final ConcurrentMap<Class<?>, Object> CREATORS = new ConcurrentHashMap<>();
+
+	private final Constructor<?> constructor;
+	private final Method method;
+	private final Class<?>[] parameterTypes;
+	private final int[] fieldIndexes;
+	private final InspectFailedException problem;
+
+	private CreatorPlan(Constructor<?> constructor, Method method, @Nonnull Class<?>[] parameterTypes, @Nonnull int[] fieldIndexes, InspectFailedException problem) {
+		this.constructor = constructor;
+		this.method = method;
+		this.parameterTypes = parameterTypes;
+		this.fieldIndexes = fieldIndexes;
+		this.problem = problem;
+	}
+
+	/**
+	 * Builds the creator plan of the given class.
+	 *
+	 * @param type   The class
+	 * @param fields Plans of the class' fields, in asking order
+	 * @return Creator plan of the class, or <code>null</code> if the class
+	 * has no {@link Creator} annotated constructor or method
+	 */
+	@CheckForNull
+	public static CreatorPlan build(@Nonnull Class<?> type, @Nonnull List<FieldPlan> fields) {
+		AccessibleObject creator;
+		try {
+			creator = creatorOf(type);
+		} catch (InspectFailedException e) {
+			return new CreatorPlan(null, null, new Class<?>[0], new int[0], e);
+		}
+		if (null == creator) {
+			return null;
+		}
+		Constructor<?> constructor = creator instanceof Constructor ? (Constructor<?>) creator : null;
+		Method method = creator instanceof Method ? (Method) creator : null;
+		Class<?>[] parameterTypes = null != constructor ? constructor.getParameterTypes() : method.getParameterTypes();
+		String[] names = creator.getAnnotation(Creator.class).value();
+		int[] fieldIndexes = new int[parameterTypes.length];
+		try {
+			if (0 == names.length) {
+				if (parameterTypes.length != fields.size()) {
+					throw new InspectFailedException(String.format("Creator has %d parameter(s), but the class has %d @Ask field(s)", parameterTypes.length, fields.size()));
+				}
+				for (int i = 0; i < fieldIndexes.length; i++) {
+					fieldIndexes[i] = i;
+				}
+			} else if (names.length != parameterTypes.length) {
+				throw new InspectFailedException(String.format("Creator has %d parameter(s), but %d field name(s) are specified", parameterTypes.length, names.length));
+			} else {
+				for (int i = 0; i < names.length; i++) {
+					fieldIndexes[i] = indexOf(names[i], fields);
+				}
+			}
+			for (int i = 0; i < fieldIndexes.length; i++) {
+				Class<?> fieldType = fields.get(fieldIndexes[i]).getField().getType();
+				if (!wrap(parameterTypes[i]).isAssignableFrom(wrap(fieldType))) {
+					throw new InspectFailedException(String.format("Type of creator parameter #%d (%s) doesn't match type of field '%s' (%s)",
+							i + 1, parameterTypes[i].getName(), fields.get(fieldIndexes[i]).getField().getName(), fieldType.getName()));
+				}
+			}
+			return new CreatorPlan(constructor, method, parameterTypes, fieldIndexes, null);
+		} catch (InspectFailedException e) {
+			return new CreatorPlan(constructor, method, parameterTypes, fieldIndexes, e);
+		}
+	}
+
+	/**
+	 * Finds the {@link Creator} annotated constructor or static method of the
+	 * given class. The result is cached.
+	 *
+	 * @param type The class
+	 * @return The creator constructor or method made accessible, or
+	 * <code>null</code> if there's none
+	 * @throws InspectFailedException if there are more than one creators or
+	 *                                the creator method is invalid
+	 */
+	@CheckForNull
+	public static AccessibleObject creatorOf(@Nonnull Class<?> type) throws InspectFailedException {
+		Object creator = CREATORS.get(type);
+		if (null == creator) {
+			try {
+				creator = findCreator(type);
+			} catch (InspectFailedException e) {
+				creator = e;
+			}
+			CREATORS.putIfAbsent(type, creator);
+		}
+		if (creator instanceof InspectFailedException) {
+			throw (InspectFailedException) creator;
+		}
+		return NONE == creator ? null : (AccessibleObject) creator;
+	}
+
+	@Nonnull
+	private static Object findCreator(@Nonnull Class<?> type) throws InspectFailedException {
+		AccessibleObject creator = null;
+		for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+			if (constructor.isAnnotationPresent(Creator.class)) {
+				if (null != creator) {
+					throw new InspectFailedException("Class has more than one @Creator");
+				}
+				creator = constructor;
+			}
+		}
+		for (Method method : type.getDeclaredMethods()) {
+			if (method.isAnnotationPresent(Creator.class)) {
+				if (null != creator) {
+					throw new InspectFailedException("Class has more than one @Creator");
+				}
+				if (!Modifier.isStatic(method.getModifiers()) || !type.isAssignableFrom(method.getReturnType())) {
+					throw new InspectFailedException("@Creator method must be static and must return the class' type");
+				}
+				creator = method;
+			}
+		}
+		if (null == creator) {
+			return NONE;
+		}
+		try {
+			creator.setAccessible(true);
+		} catch (SecurityException e) {
+			throw new InspectFailedException("@Creator is not accessible", e);
+		}
+		return creator;
+	}
+
+	/**
+	 * Checks whether the given class has a {@link Creator} annotated
+	 * constructor or method, valid or not.
+	 *
+	 * @param type The class
+	 * @return Whether the class should be built by a creator
+	 */
+	public static boolean hasCreator(@Nonnull Class<?> type) {
+		try {
+			return null != creatorOf(type);
+		} catch (InspectFailedException e) {
+			return true;
+		}
+	}
+
+	private static int indexOf(@Nonnull String name, @Nonnull List<FieldPlan> fields) throws InspectFailedException {
+		for (int i = 0; i < fields.size(); i++) {
+			if (fields.get(i).getField().getName().equals(name)) {
+				return i;
+			}
+		}
+		throw new InspectFailedException(String.format("Creator refers to field '%s', but there's no such @Ask field", name));
+	}
+
+	@Nonnull
+	private static Class<?> wrap(@Nonnull Class<?> type) {
+		return type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0).getClass() : type;
+	}
+
+	/**
+	 * Calls the creator with the given arguments.
+	 *
+	 * @param arguments Arguments of the creator
+	 * @return The created object
+	 * @throws Exception if the creator threw an exception
+	 */
+	@Nonnull
+	public Object create(@Nonnull Object[] arguments) throws Exception {
+		try {
+			return null != constructor ? constructor.newInstance(arguments) : method.invoke(null, arguments);
+		} catch (InvocationTargetException e) {
+			throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+		}
+	}
+
+	/**
+	 * @return Indexes of the fields (in the class plan) which are passed as
+	 * arguments, in the order of the parameters
+	 */
+	@Nonnull
+	public int[] getFieldIndexes() {
+		return fieldIndexes.clone();
+	}
+
+	/**
+	 * @return The problem found while building the plan, or <code>null</code>
+	 * if the creator can be used
+	 */
+	public InspectFailedException getProblem() {
+		return problem;
+	}
+
+	/**
+	 * Creates a new argument array, filled with the default values of the
+	 * parameter types (<code>0</code>, <code>false</code> or
+	 * <code>null</code>).
+	 *
+	 * @return A new argument array
+	 */
+	@Nonnull
+	public Object[] newArguments() {
+		Object[] arguments = new Object[parameterTypes.length];
+		for (int i = 0; i < arguments.length; i++) {
+			if (parameterTypes[i].isPrimitive()) {
+				arguments[i] = Array.get(Array.newInstance(parameterTypes[i], 1), 0);
+			}
+		}
+		return arguments;
+	}
+}
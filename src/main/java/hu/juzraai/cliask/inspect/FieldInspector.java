@@ -20,25 +20,85 @@ import hu.juzraai.cliask.annotation.Ask;
 import hu.juzraai.cliask.convert.ConvertTo;
 import hu.juzraai.cliask.convert.Converters;
 import hu.juzraai.cliask.convert.DefaultConverter;
+import hu.juzraai.cliask.suggest.NoSuggestions;
+import hu.juzraai.cliask.suggest.SuggestionIndex;
+import hu.juzraai.cliask.suggest.SuggestionSource;
+import hu.juzraai.cliask.validate.AllowedValuesValidator;
+import hu.juzraai.cliask.validate.LengthValidator;
+import hu.juzraai.cliask.validate.PatternValidator;
+import hu.juzraai.cliask.validate.RangeValidator;
+import hu.juzraai.cliask.validate.Validator;
 import hu.juzraai.toolbox.log.LoggerFactory;
 import org.slf4j.Logger;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Inspects a given field by extracting its type, value and arguments of its
  * {@link Ask} annotation. Generates a label for the field and decides whether
  * the field is relevant for asking, whether it should be handled
  * recursively, and selects an appropriate converter for it.
+ * <p>
+ * Instance-independent information (e.g. validators) is compiled into a {@link
+ * FieldPlan} by {@link #planField(Field)}, which is done only once per class
+ * by {@link ObjectInspector}.
  *
  * @author Zsolt Jurányi
  */
 public class FieldInspector {
 
 	private static final Logger L = LoggerFactory.getLogger(FieldInspector.class);
+	private static final Set<String> REPORTED = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	/**
+	 * Compiles the validators specified in the {@link Ask} annotation of the
+	 * given field. Length, pattern and allowed values constraints are checked
+	 * on the raw input, range constraints are checked on the converted value.
+	 *
+	 * @param field           Field to be inspected
+	 * @param ask             {@link Ask} annotation of the field
+	 * @param rawValidators   List to put raw value validators in
+	 * @param valueValidators List to put value validators in
+	 * @throws InspectFailedException if a constraint is invalid or not
+	 *                                applicable for the field type
+	 */
+	protected void compileValidators(@Nonnull Field field, @Nonnull Ask ask, @Nonnull List<Validator<String>> rawValidators, @Nonnull List<Validator<Object>> valueValidators) throws InspectFailedException {
+		if (ask.minLength() > 0 || ask.maxLength() < Integer.MAX_VALUE) {
+			if (ask.minLength() > ask.maxLength()) {
+				throw new InspectFailedException("minLength is greater than maxLength");
+			}
+			rawValidators.add(new LengthValidator(ask.minLength(), ask.maxLength()));
+		}
+		if (!ask.pattern().isEmpty()) {
+			try {
+				rawValidators.add(new PatternValidator(ask.pattern()));
+			} catch (Exception e) {
+				throw new InspectFailedException("Invalid pattern", e);
+			}
+		}
+		if (ask.allowed().length > 0) {
+			rawValidators.add(new AllowedValuesValidator(ask.allowed()));
+		}
+		if (!Double.isInfinite(ask.min()) || !Double.isInfinite(ask.max())) {
+			if (!RangeValidator.supports(field.getType())) {
+				throw new InspectFailedException("min/max can only be used on numeric fields");
+			}
+			if (ask.min() > ask.max()) {
+				throw new InspectFailedException("min is greater than max");
+			}
+			valueValidators.add(new RangeValidator(ask.min(), ask.max()));
+		}
+	}
 
 	/**
 	 * Determines whether the given field is relevant for asking, sets its
@@ -104,7 +164,9 @@ public class FieldInspector {
 
 	/**
 	 * Marks the given prepared field to irrelevant then logs the given
-	 * exception.
+	 * exception. The same problem of the same field of the same class is
+	 * logged as a warning only once, later occurrences are logged on debug
+	 * level, so filling many objects doesn't flood the log.
 	 *
 	 * @param preparedField Prepared field which couldn't be inspected
 	 *                      completely
@@ -112,11 +174,15 @@ public class FieldInspector {
 	 */
 	protected void handleInspectionFail(@Nonnull PreparedField preparedField, @Nonnull InspectFailedException e) {
 		preparedField.setRelevant(false);
-		L.warn(String.format("Error while inspecting field '%s.%s' - %s",
-				preparedField.getObject().getClass().getName(),
+		String message = String.format("Error while inspecting field '%s.%s' - %s",
+				preparedField.getObjectType().getName(),
 				preparedField.getField().getName(),
-				e.getMessage()),
-				e);
+				e.getMessage());
+		if (REPORTED.add(message)) {
+			L.warn(message, e);
+		} else {
+			L.debug(message);
+		}
 	}
 
 	/**
@@ -133,9 +199,22 @@ public class FieldInspector {
 	 * object, {@link Ask} annotation and <code>recursive</code>
 	 */
 	protected PreparedField initializeField(@Nonnull Field field, @Nonnull Object object) {
-		Ask ask = field.getAnnotation(Ask.class);
-		PreparedField preparedField = new PreparedField(object, field, ask);
-		preparedField.setRecursive(ask.recursive());
+		return initializeField(planField(field), object);
+	}
+
+	/**
+	 * Constructs a {@link PreparedField} object from the given field plan and
+	 * parent object, and sets its <code>recursive</code> property based on the
+	 * annotation's appropriate argument.
+	 *
+	 * @param plan   Plan of the input field
+	 * @param object Parent object of the input field
+	 * @return Prepared field with the following values: field plan, input
+	 * field, parent object, {@link Ask} annotation and <code>recursive</code>
+	 */
+	protected PreparedField initializeField(@Nonnull FieldPlan plan, @Nonnull Object object) {
+		PreparedField preparedField = new PreparedField(object, plan);
+		preparedField.setRecursive(null != plan.getAsk() && plan.getAsk().recursive());
 		return preparedField;
 	}
 
@@ -157,7 +236,23 @@ public class FieldInspector {
 	 */
 	@Nonnull
 	public PreparedField inspectField(@Nonnull Field field, @Nonnull Object object) {
-		PreparedField preparedField = initializeField(field, object);
+		return inspectField(planField(field), object);
+	}
+
+	/**
+	 * Inspects the field of the given object described by the given plan, in
+	 * the same way as {@link #inspectField(Field, Object)}, but reuses the
+	 * precompiled information of the plan.
+	 *
+	 * @param plan   Plan of the input field
+	 * @param object Parent object of the input field
+	 * @return Prepared field which contains the field plan, the input field,
+	 * the parent object, the {@link Ask} annotation, whether it's relevant,
+	 * whether it's recursive, the default value, the converter and the label
+	 */
+	@Nonnull
+	public PreparedField inspectField(@Nonnull FieldPlan plan, @Nonnull Object object) {
+		PreparedField preparedField = initializeField(plan, object);
 		if (determineIfRelevant(preparedField)) {
 			try {
 				inspectRelevantField(preparedField);
@@ -188,7 +283,7 @@ public class FieldInspector {
 
 		// get converter
 		try {
-			preparedField.setConverter(provideConverter(preparedField)); // throws IAE, IE, NSAE
+			preparedField.setConverter(provideConverter(preparedField)); // throws IFE, NSAE
 		} catch (Exception e) {
 			throw new InspectFailedException("Failed to select/construct converter", e);
 		}
@@ -199,7 +294,8 @@ public class FieldInspector {
 
 	/**
 	 * Inspects a field which is marked relevant and recursive. If default value
-	 * is <code>null</code>, tries to instantiate it first by calling {@link
+	 * is <code>null</code> and the field type has no {@link CreatorPlan
+	 * creator}, tries to instantiate it first by calling {@link
 	 * #instantiateDefaultValue(PreparedField)}. Then it checks whether parent
 	 * object's type is assignable from the field type - if so, that would lead
 	 * to an infinite loop, so throws an {@link InspectFailedException} to avoid
@@ -214,13 +310,17 @@ public class FieldInspector {
 	 */
 	protected void inspectRecursiveField(@Nonnull PreparedField preparedField) throws InspectFailedException {
 
-		// try to instantiate default value
-		if (null == preparedField.getDefaultValue()) {
+		// try to instantiate default value - types with creator are created later
+		Class<?> type = preparedField.getField().getType();
+		if (null == preparedField.getDefaultValue() && !CreatorPlan.hasCreator(type)) {
 			instantiateDefaultValue(preparedField);
 		}
 
 		// avoid infinite loops
-		if (preparedField.getObject().getClass().isAssignableFrom(preparedField.getDefaultValue().getClass())) {
+		if (null != preparedField.getDefaultValue()) {
+			type = preparedField.getDefaultValue().getClass();
+		}
+		if (preparedField.getObjectType().isAssignableFrom(type)) {
 			throw new InspectFailedException("Parent object's type is assignable from type of recursive field's value - this would lead to infinite loop!");
 		}
 
@@ -228,6 +328,50 @@ public class FieldInspector {
 		generateLabel(preparedField, false);
 	}
 
+	/**
+	 * Inspects the field described by the given plan as an argument of the
+	 * creator of the given class (see {@link CreatorPlan}). The value is
+	 * stored in the given argument array instead of an object's field, so
+	 * <code>final</code> fields are relevant too. The default value is read
+	 * from the template object, if any, otherwise the current value of the
+	 * argument is kept.
+	 *
+	 * @param type      Class to be created
+	 * @param plan      Plan of the field
+	 * @param arguments Argument array of the creator
+	 * @param index     Index of the argument
+	 * @param template  Object to read default value from, can be
+	 *                  <code>null</code>
+	 * @return Prepared field which stores its value in the argument array
+	 */
+	@Nonnull
+	public PreparedField inspectArgument(@Nonnull Class<?> type, @Nonnull FieldPlan plan, @Nonnull Object[] arguments, int index, Object template) {
+		ArgumentField argumentField = new ArgumentField(type, arguments, index, plan);
+		argumentField.setRecursive(null != plan.getAsk() && plan.getAsk().recursive());
+		argumentField.setRelevant(null != plan.getAsk());
+		if (argumentField.isRelevant()) {
+			try {
+				if (null != plan.getProblem()) {
+					throw plan.getProblem();
+				}
+				if (null != template) {
+					PreparedField templateField = new PreparedField(template, plan);
+					extractDefaultValue(templateField);
+					arguments[index] = templateField.getDefaultValue();
+				}
+				argumentField.setDefaultValue(arguments[index]);
+				if (argumentField.isRecursive()) {
+					inspectRecursiveField(argumentField);
+				} else {
+					inspectNonRecursiveField(argumentField);
+				}
+			} catch (InspectFailedException e) {
+				handleInspectionFail(argumentField, e);
+			}
+		}
+		return argumentField;
+	}
+
 	/**
 	 * Inspects a field which is marked relevant before. Calls {@link
 	 * #extractDefaultValue(PreparedField)} first, then {@link
@@ -236,11 +380,16 @@ public class FieldInspector {
 	 * property of the given prepared field.
 	 * <p>
 	 * Doesn't catch {@link InspectFailedException}'s throwed by called methods.
+	 * If an error occurred when the field's plan was compiled, that will be
+	 * thrown.
 	 *
 	 * @param preparedField Prepared field to be inspected
 	 * @throws InspectFailedException if any error occurred during inspection
 	 */
 	protected void inspectRelevantField(@Nonnull PreparedField preparedField) throws InspectFailedException {
+		if (null != preparedField.getPlan().getProblem()) {
+			throw preparedField.getPlan().getProblem();
+		}
 		extractDefaultValue(preparedField);
 		if (preparedField.isRecursive()) {
 			inspectRecursiveField(preparedField);
@@ -250,10 +399,11 @@ public class FieldInspector {
 	}
 
 	/**
-	 * Instantiates the default value by calling the no-arg constructor of the
-	 * field's type. After constructing the object, set's this value to the
-	 * field. If any error occurs during this operations, throws an {@link
-	 * InspectFailedException}.
+	 * Instantiates the default value using the cached factory of the field's
+	 * type (see {@link Instantiators}), which calls the no-arg constructor or
+	 * a registered {@link InstanceFactory}. After constructing the object,
+	 * set's this value to the field. If any error occurs during this
+	 * operations, throws an {@link InspectFailedException}.
 	 * <p>
 	 * This instantiation is needed in recursive mode when default value is
 	 * null.
@@ -263,48 +413,185 @@ public class FieldInspector {
 	 *                                and setting
 	 */
 	protected void instantiateDefaultValue(@Nonnull PreparedField preparedField) throws InspectFailedException {
-		Field field = preparedField.getField();
+		preparedField.setDefaultValue(Instantiators.newInstance(preparedField.getField().getType()));
 		try {
-			preparedField.setDefaultValue(field.getType().newInstance()); // throws IE, IAE
-			field.set(preparedField.getObject(), preparedField.getDefaultValue()); // throws IAE
+			preparedField.setValue(preparedField.getDefaultValue()); // throws IAE
 		} catch (Exception e) {
-			throw new InspectFailedException("Failed to instantiate field value, probably missing no-arg constructor", e);
+			throw new InspectFailedException("Failed to set instantiated field value", e);
 		}
 	}
 
 	/**
-	 * Instantiates the custom converter if the class was specified in {@link
-	 * Ask}, or selects a converter from the pool using {@link Converters}.
-	 * Exceptions thrown by Reflection when constructing the objects won't be
-	 * catched and if no suitable constructor available, throws {@link
-	 * NoSuchAlgorithmException}.
+	 * Compiles the instance-independent information of the given field into a
+	 * {@link FieldPlan}. If an error occurs (e.g. a constraint is invalid),
+	 * the error is stored in the plan, and fields of this plan will be marked
+	 * irrelevant during inspection.
+	 *
+	 * @param field Input field to be inspected
+	 * @return Plan of the field
+	 */
+	@Nonnull
+	public FieldPlan planField(@Nonnull Field field) {
+		FieldPlan plan = new FieldPlan(field, field.getAnnotation(Ask.class));
+		if (null != plan.getAsk()) {
+			try {
+				List<Validator<String>> rawValidators = new ArrayList<>();
+				List<Validator<Object>> valueValidators = new ArrayList<>();
+				compileValidators(field, plan.getAsk(), rawValidators, valueValidators);
+				plan.setRawValidators(rawValidators);
+				plan.setValueValidators(valueValidators);
+				plan.setSuggestions(provideSuggestions(plan.getAsk()));
+			} catch (InspectFailedException e) {
+				plan.setProblem(e);
+			}
+		}
+		return plan;
+	}
+
+	/**
+	 * Returns the shared {@link SuggestionIndex} of the suggestion source
+	 * class specified in {@link Ask}, if any.
+	 *
+	 * @param ask {@link Ask} annotation of the field
+	 * @return Index of the field's valid values or <code>null</code> if no
+	 * suggestion source was specified
+	 * @throws InspectFailedException if the suggestion source class couldn't
+	 *                                be instantiated or failed to provide the
+	 *                                values
+	 */
+	@CheckForNull
+	protected SuggestionIndex provideSuggestions(@Nonnull Ask ask) throws InspectFailedException {
+		Class<? extends SuggestionSource> sourceClass = ask.suggestions();
+		if (NoSuggestions.class.equals(sourceClass)) {
+			return null;
+		}
+		try {
+			return SuggestionIndex.of(sourceClass);
+		} catch (Exception e) {
+			throw new InspectFailedException("Failed to build suggestion index", e);
+		}
+	}
+
+	/**
+	 * Provides the shared instance of the custom converter if the class was
+	 * specified in {@link Ask} (see {@link Converters#instanceOf(Class)}), or
+	 * selects a converter from the pool using {@link Converters}. If no
+	 * suitable converter available, throws {@link NoSuchAlgorithmException}.
 	 *
 	 * @param preparedField Prepared field to be inspected
 	 * @return A converter instance - of the custom converter class or the
 	 * selected converter from the pool, if any
-	 * @throws IllegalAccessException   if the class or its nullary constructor
-	 *                                  is not accessible
-	 * @throws InstantiationException   if converter class represents an
-	 *                                  abstract class, an interface, an array
-	 *                                  class, a primitive type, or void; or if
-	 *                                  the class has no nullary constructor; or
-	 *                                  if the instantiation fails for some
-	 *                                  other reason
+	 * @throws InspectFailedException   if converter class cannot be
+	 *                                  instantiated (see {@link
+	 *                                  Instantiators})
 	 * @throws NoSuchAlgorithmException if no suitable converter found in the
 	 *                                  pool for the field type
 	 */
 	@Nonnull
-	protected ConvertTo<?> provideConverter(@Nonnull PreparedField preparedField) throws IllegalAccessException, InstantiationException, NoSuchAlgorithmException {
-		Class<? extends ConvertTo<?>> converterClass = preparedField.getAsk().converter();
-		Class<?> fieldType = preparedField.getField().getType();
-		ConvertTo<?> converter = DefaultConverter.class.equals(converterClass)
-				? Converters.find(fieldType)
-				: converterClass.newInstance();
+	protected ConvertTo<?> provideConverter(@Nonnull PreparedField preparedField) throws InspectFailedException, NoSuchAlgorithmException {
+		return provideConverter(preparedField.getPlan());
+	}
+
+	/**
+	 * Works like {@link #provideConverter(PreparedField)}, but needs only the
+	 * plan of the field.
+	 *
+	 * @param plan Plan of the field
+	 * @return A converter instance - of the custom converter class or the
+	 * selected converter from the pool, if any
+	 * @throws InspectFailedException   if converter class cannot be
+	 *                                  instantiated (see {@link
+	 *                                  Instantiators})
+	 * @throws NoSuchAlgorithmException if no suitable converter found in the
+	 *                                  pool for the field type
+	 */
+	@Nonnull
+	protected ConvertTo<?> provideConverter(@Nonnull FieldPlan plan) throws InspectFailedException, NoSuchAlgorithmException {
+		Class<? extends ConvertTo<?>> converterClass = plan.getAsk().converter();
+		Class<?> fieldType = plan.getField().getType();
+		String locale = plan.getAsk().locale();
+		ConvertTo<?> converter;
+		if (!DefaultConverter.class.equals(converterClass)) {
+			converter = Converters.instanceOf(converterClass);
+		} else if (locale.isEmpty()) {
+			converter = Converters.find(fieldType);
+		} else {
+			converter = Converters.findLocalized(fieldType, Locale.forLanguageTag(locale));
+		}
 		if (null == converter) {
-			throw new NoSuchAlgorithmException("No converter found for type: " + fieldType.getName());
+			throw new NoSuchAlgorithmException(locale.isEmpty()
+					? "No converter found for type: " + fieldType.getName()
+					: "No locale-aware converter found for type: " + fieldType.getName());
 		}
 		// TODO verify custom converter class' generic type
 		return converter;
 	}
 
+	/**
+	 * Verifies the given field plan without an instance of the declaring
+	 * class, to detect problems before asking (dry run). Checks the errors
+	 * occurred during planning, whether the field is final, whether a
+	 * converter can be provided for a non-recursive field, and whether a
+	 * recursive field's type can be instantiated (see {@link Instantiators})
+	 * and would not lead to an infinite loop.
+	 *
+	 * @param plan Plan of the field
+	 * @throws InspectFailedException if the field would be skipped or would
+	 *                                fail when asking
+	 */
+	public void verifyField(@Nonnull FieldPlan plan) throws InspectFailedException {
+		verifyField(plan, false);
+	}
+
+	/**
+	 * Verifies the given field plan like {@link #verifyField(FieldPlan)}. If
+	 * the field is a creator argument, it can be <code>final</code>.
+	 *
+	 * @param plan     Plan of the field
+	 * @param argument Whether the field is passed to a creator (see {@link
+	 *                 CreatorPlan})
+	 * @throws InspectFailedException if the field would be skipped or would
+	 *                                fail when asking
+	 */
+	public void verifyField(@Nonnull FieldPlan plan, boolean argument) throws InspectFailedException {
+		verifyField(plan.getField().getDeclaringClass(), plan, argument);
+	}
+
+	/**
+	 * Verifies the given field plan like {@link #verifyField(FieldPlan,
+	 * boolean)}, as part of the plan of the given class. The class can be a
+	 * subclass of the field's declaring class, and infinite loops are checked
+	 * against it, the same way as when asking for an object of that class.
+	 *
+	 * @param type     Class whose plan contains the field
+	 * @param plan     Plan of the field
+	 * @param argument Whether the field is passed to a creator (see {@link
+	 *                 CreatorPlan})
+	 * @throws InspectFailedException if the field would be skipped or would
+	 *                                fail when asking
+	 */
+	public void verifyField(@Nonnull Class<?> type, @Nonnull FieldPlan plan, boolean argument) throws InspectFailedException {
+		if (null != plan.getProblem()) {
+			throw plan.getProblem();
+		}
+		Field field = plan.getField();
+		if (!argument && (field.getModifiers() & Modifier.FINAL) == Modifier.FINAL) {
+			throw new InspectFailedException("Field is final, it will be skipped");
+		}
+		if (plan.getAsk().recursive()) {
+			if (type.isAssignableFrom(field.getType())) {
+				throw new InspectFailedException("Parent object's type is assignable from type of recursive field - this would lead to infinite loop!");
+			}
+			if (!CreatorPlan.hasCreator(field.getType())) {
+				Instantiators.verify(field.getType());
+			}
+		} else {
+			try {
+				provideConverter(plan);
+			} catch (Exception e) {
+				throw new InspectFailedException("Failed to select/construct converter", e);
+			}
+		}
+	}
+
 }
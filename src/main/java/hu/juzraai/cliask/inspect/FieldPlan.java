@@ -0,0 +1,150 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.inspect;
+
+import hu.juzraai.cliask.annotation.Ask;
+import hu.juzraai.cliask.suggest.SuggestionIndex;
+import hu.juzraai.cliask.validate.ValidationFailedException;
+import hu.juzraai.cliask.validate.Validator;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Contains the instance-independent, precompiled information about a field,
+ * which can be reused every time an object of the declaring class is asked.
+ * Field plans are created by {@link FieldInspector#planField(Field)} and
+ * cached in {@link ClassPlan} objects. Setters are used only while building
+ * the plan, a plan should not be modified after it has been cached.
+ *
+ * @author Zsolt Jurányi
+ */
+public class FieldPlan {
+
+	private final Field field;
+	private final Ask ask;
+	private List<Validator<String>> rawValidators = Collections.emptyList();
+	private List<Validator<Object>> valueValidators = Collections.emptyList();
+	private SuggestionIndex suggestions;
+	private InspectFailedException problem;
+
+	/**
+	 * Creates a new instance without validators.
+	 *
+	 * @param field The field
+	 * @param ask   The {@link Ask} annotation of the field or
+	 *              <code>null</code> if it hasn't got one
+	 */
+	public FieldPlan(@Nonnull Field field, Ask ask) {
+		this.field = field;
+		this.ask = ask;
+	}
+
+	/**
+	 * @return The {@link Ask} annotation of the field or <code>null</code> if
+	 * it hasn't got one
+	 */
+	public Ask getAsk() {
+		return ask;
+	}
+
+	/**
+	 * @return The field
+	 */
+	@Nonnull
+	public Field getField() {
+		return field;
+	}
+
+	/**
+	 * @return The error occurred during planning, or <code>null</code> if
+	 * planning was successful
+	 */
+	@CheckForNull
+	public InspectFailedException getProblem() {
+		return problem;
+	}
+
+	public void setProblem(InspectFailedException problem) {
+		this.problem = problem;
+	}
+
+	/**
+	 * @return Validators to be called on raw input
+	 */
+	@Nonnull
+	public List<Validator<String>> getRawValidators() {
+		return rawValidators;
+	}
+
+	public void setRawValidators(@Nonnull List<Validator<String>> rawValidators) {
+		this.rawValidators = rawValidators;
+	}
+
+	/**
+	 * @return Index of the field's valid values to be used for suggestions on
+	 * invalid input, or <code>null</code> if the field has no suggestion
+	 * source
+	 */
+	@CheckForNull
+	public SuggestionIndex getSuggestions() {
+		return suggestions;
+	}
+
+	public void setSuggestions(SuggestionIndex suggestions) {
+		this.suggestions = suggestions;
+	}
+
+	/**
+	 * @return Validators to be called on converted value
+	 */
+	@Nonnull
+	public List<Validator<Object>> getValueValidators() {
+		return valueValidators;
+	}
+
+	public void setValueValidators(@Nonnull List<Validator<Object>> valueValidators) {
+		this.valueValidators = valueValidators;
+	}
+
+	/**
+	 * Calls the raw value validators on the given input.
+	 *
+	 * @param rawValue Raw input
+	 * @throws ValidationFailedException if any validator rejects the input
+	 */
+	public void validateRaw(@Nonnull String rawValue) throws ValidationFailedException {
+		for (int i = 0; i < rawValidators.size(); i++) {
+			rawValidators.get(i).validate(rawValue);
+		}
+	}
+
+	/**
+	 * Calls the value validators on the given converted value.
+	 *
+	 * @param value Converted value
+	 * @throws ValidationFailedException if any validator rejects the value
+	 */
+	public void validateValue(@Nonnull Object value) throws ValidationFailedException {
+		for (int i = 0; i < valueValidators.size(); i++) {
+			valueValidators.get(i).validate(value);
+		}
+	}
+}
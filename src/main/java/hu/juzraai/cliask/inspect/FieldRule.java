@@ -0,0 +1,279 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.inspect;
+
+import hu.juzraai.cliask.annotation.Ask;
+import hu.juzraai.cliask.convert.ConvertResult;
+import hu.juzraai.cliask.convert.ConvertTo;
+import hu.juzraai.cliask.convert.Converters;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Contains the compiled <code>when</code> condition and <code>derive</code>
+ * template of a field's {@link Ask} annotation. Field names are resolved to
+ * indexes in the {@link ClassPlan} and the values of the condition are
+ * converted by the referenced fields' converters, so checking the condition
+ * or deriving the default value of an object's field needs no parsing, only
+ * reading the referenced fields and comparing the values.
+ * <p>
+ * Rules are compiled once per class by {@link ObjectInspector}, because the
+ * same field plan can be part of plans of several classes (subclasses) where
+ * the referenced names may mean different fields.
+ *
+ * @author Zsolt Jurányi
+ */
+public class FieldRule {
+
+	private final int[] termFields;
+	private final boolean[] negated;
+	private final Object[][] expected;
+	private final String[] literals;
+	private final int[] references;
+	private final ConvertTo<?>[] formatters;
+	private final int[] dependencies;
+	private InspectFailedException problem;
+
+	private FieldRule(@Nonnull int[] termFields, @Nonnull boolean[] negated, @Nonnull Object[][] expected, String[] literals, int[] references, ConvertTo<?>[] formatters, @Nonnull int[] dependencies, InspectFailedException problem) {
+		this.termFields = termFields;
+		this.negated = negated;
+		this.expected = expected;
+		this.literals = literals;
+		this.references = references;
+		this.formatters = formatters;
+		this.dependencies = dependencies;
+		this.problem = problem;
+	}
+
+	/**
+	 * Compiles the rule of the given field.
+	 *
+	 * @param fields         Plans of the class' fields
+	 * @param index          Index of the field in the list
+	 * @param fieldInspector Field inspector to provide the converters of the
+	 *                       referenced fields
+	 * @return Rule of the field, or <code>null</code> if the field has no
+	 * condition and no derived default value
+	 */
+	@CheckForNull
+	public static FieldRule compile(@Nonnull List<FieldPlan> fields, int index, @Nonnull FieldInspector fieldInspector) {
+		Ask ask = fields.get(index).getAsk();
+		if (null == ask || ask.when().trim().isEmpty() && ask.derive().isEmpty()) {
+			return null;
+		}
+		Set<Integer> dependencies = new LinkedHashSet<>();
+		List<Integer> termFields = new ArrayList<>();
+		List<Boolean> negated = new ArrayList<>();
+		List<Object[]> expected = new ArrayList<>();
+		List<String> literals = null;
+		List<Integer> references = null;
+		List<ConvertTo<?>> formatters = null;
+		try {
+
+			// condition: term && term ...
+			if (!ask.when().trim().isEmpty()) {
+				for (String term : ask.when().split("&&")) {
+					term = term.trim();
+					int eq = term.indexOf('=');
+					boolean not = eq > 0 ? '!' == term.charAt(eq - 1) : term.startsWith("!");
+					String name = (eq < 0 ? term.substring(not ? 1 : 0) : term.substring(0, not ? eq - 1 : eq)).trim();
+					int field = indexOf(name, fields, index, "when");
+					FieldPlan plan = fields.get(field);
+					Object[] values;
+					if (eq < 0) {
+						Class<?> type = plan.getField().getType();
+						if (!boolean.class.equals(type) && !Boolean.class.equals(type)) {
+							throw new InspectFailedException(String.format("Condition '%s' refers to non-boolean field '%s' without a value", term, name));
+						}
+						values = new Object[]{Boolean.TRUE};
+					} else {
+						String[] raw = term.substring(eq + 1).split("\\|");
+						ConvertTo<?> converter = converterOf(plan, fieldInspector);
+						values = new Object[raw.length];
+						for (int i = 0; i < raw.length; i++) {
+							ConvertResult<Object> result = Converters.tryConvert(converter, raw[i].trim());
+							if (!result.isSuccess()) {
+								throw new InspectFailedException(String.format("Invalid value '%s' for field '%s' in condition: %s", raw[i].trim(), name, result.getMessage()));
+							}
+							values[i] = result.getValue();
+						}
+					}
+					termFields.add(field);
+					negated.add(not);
+					expected.add(values);
+					dependencies.add(field);
+				}
+			}
+
+			// derived default value: literal ${name} literal ...
+			String template = ask.derive();
+			if (!template.isEmpty()) {
+				if (fields.get(index).getAsk().recursive()) {
+					throw new InspectFailedException("Recursive field can't have a derived default value");
+				}
+				literals = new ArrayList<>();
+				references = new ArrayList<>();
+				formatters = new ArrayList<>();
+				int from = 0;
+				for (int start = template.indexOf("${"); start >= 0; start = template.indexOf("${", from)) {
+					int end = template.indexOf('}', start);
+					if (end < 0) {
+						throw new InspectFailedException("Unclosed reference in derive template: " + template);
+					}
+					int field = indexOf(template.substring(start + 2, end).trim(), fields, index, "derive");
+					literals.add(template.substring(from, start));
+					references.add(field);
+					formatters.add(converterOf(fields.get(field), fieldInspector));
+					dependencies.add(field);
+					from = end + 1;
+				}
+				literals.add(template.substring(from));
+			}
+
+		} catch (InspectFailedException e) {
+			return new FieldRule(new int[0], new boolean[0], new Object[0][], null, null, null, new int[0], e);
+		}
+		return new FieldRule(toArray(termFields), toBooleanArray(negated), expected.toArray(new Object[expected.size()][]),
+				null == literals ? null : literals.toArray(new String[literals.size()]),
+				null == references ? null : toArray(references),
+				null == formatters ? null : formatters.toArray(new ConvertTo<?>[formatters.size()]),
+				toArray(dependencies), null);
+	}
+
+	@Nonnull
+	private static ConvertTo<?> converterOf(@Nonnull FieldPlan plan, @Nonnull FieldInspector fieldInspector) throws InspectFailedException {
+		if (plan.getAsk().recursive()) {
+			throw new InspectFailedException(String.format("Rule refers to recursive field '%s'", plan.getField().getName()));
+		}
+		try {
+			return fieldInspector.provideConverter(plan);
+		} catch (Exception e) {
+			throw new InspectFailedException(String.format("Failed to provide converter of referenced field '%s'", plan.getField().getName()), e);
+		}
+	}
+
+	private static int indexOf(@Nonnull String name, @Nonnull List<FieldPlan> fields, int self, @Nonnull String attribute) throws InspectFailedException {
+		for (int i = 0; i < fields.size(); i++) {
+			if (fields.get(i).getField().getName().equals(name) && null != fields.get(i).getAsk()) {
+				if (i == self) {
+					throw new InspectFailedException(String.format("'%s' refers to the field itself", attribute));
+				}
+				return i;
+			}
+		}
+		throw new InspectFailedException(String.format("'%s' refers to field '%s', but there's no such @Ask field", attribute, name));
+	}
+
+	@Nonnull
+	private static int[] toArray(@Nonnull Iterable<Integer> list) {
+		List<Integer> l = new ArrayList<>();
+		for (Integer i : list) {
+			l.add(i);
+		}
+		int[] a = new int[l.size()];
+		for (int i = 0; i < a.length; i++) {
+			a[i] = l.get(i);
+		}
+		return a;
+	}
+
+	@Nonnull
+	private static boolean[] toBooleanArray(@Nonnull List<Boolean> list) {
+		boolean[] a = new boolean[list.size()];
+		for (int i = 0; i < a.length; i++) {
+			a[i] = list.get(i);
+		}
+		return a;
+	}
+
+	/**
+	 * Builds the derived default value from the current values of the
+	 * referenced fields.
+	 *
+	 * @param fields Prepared fields of the object, indexed like the fields of
+	 *               the class plan, can contain <code>null</code> elements
+	 * @return The derived raw value, or <code>null</code> if the field has no
+	 * <code>derive</code> template or any referenced field has no value
+	 */
+	@CheckForNull
+	public String derive(@Nonnull PreparedField[] fields) {
+		if (null == literals) {
+			return null;
+		}
+		StringBuilder s = new StringBuilder(literals[0]);
+		for (int i = 0; i < references.length; i++) {
+			PreparedField field = fields[references[i]];
+			Object value = null == field ? null : field.get();
+			if (null == value) {
+				return null;
+			}
+			s.append(Converters.format(formatters[i], value)).append(literals[i + 1]);
+		}
+		return s.toString();
+	}
+
+	/**
+	 * @return Indexes of the fields (in the class plan) which this rule
+	 * refers to
+	 */
+	@Nonnull
+	public int[] getDependencies() {
+		return dependencies.clone();
+	}
+
+	/**
+	 * @return The problem found while compiling the rule or ordering the
+	 * fields, or <code>null</code> if the rule can be used
+	 */
+	@CheckForNull
+	public InspectFailedException getProblem() {
+		return problem;
+	}
+
+	public void setProblem(InspectFailedException problem) {
+		this.problem = problem;
+	}
+
+	/**
+	 * Checks the condition on the current values of the referenced fields.
+	 * Referenced fields which are not prepared (e.g. not passed to a creator)
+	 * are treated as <code>null</code>.
+	 *
+	 * @param fields Prepared fields of the object, indexed like the fields of
+	 *               the class plan, can contain <code>null</code> elements
+	 * @return Whether the field should be asked
+	 */
+	public boolean isActive(@Nonnull PreparedField[] fields) {
+		for (int t = 0; t < termFields.length; t++) {
+			PreparedField field = fields[termFields[t]];
+			Object value = null == field ? null : field.get();
+			boolean match = false;
+			for (int i = 0; !match && i < expected[t].length; i++) {
+				match = expected[t][i].equals(value);
+			}
+			if (match == negated[t]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
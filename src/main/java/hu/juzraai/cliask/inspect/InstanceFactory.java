@@ -0,0 +1,37 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.inspect;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Creates new instances of a type. Can be registered for types which cannot
+ * be instantiated by their no-arg constructor, see {@link
+ * Instantiators#register(Class, InstanceFactory)}.
+ *
+ * @param <T> Type of the created instances
+ * @author Zsolt Jurányi
+ */
+public interface InstanceFactory<T> {
+
+	/**
+	 * @return A new instance
+	 * @throws Exception if instantiation failed
+	 */
+	@Nonnull
+	T newInstance() throws Exception;
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.inspect;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache of {@link InstanceFactory} objects per type, used to create values
+ * of recursive fields. Factories registered by the user are used first,
+ * otherwise the no-arg constructor of the type is looked up once (it doesn't
+ * need to be public) and cached. If a type cannot be instantiated (e.g. it's
+ * abstract or has no no-arg constructor), the failure is cached, further
+ * attempts fail fast without reflection. The failure is not logged here,
+ * it's reported by the caller (see {@link
+ * FieldInspector#handleInspectionFail(PreparedField,
+ * InspectFailedException)}).
+ *
+ * @author Zsolt Jurányi
+ */
+public class Instantiators {
+
+	private static final ConcurrentMap<Class<?>, InstanceFactory<?>> FACTORIES = new ConcurrentHashMap<>();
+
+	private Instantiators() {
+	}
+
+	/**
+	 * Returns the cached factory of the given type, creates it if needed.
+	 *
+	 * @param type Type to be instantiated
+	 * @param <T>  Type to be instantiated
+	 * @return Factory of the given type, which may be a failing one if the
+	 * type cannot be instantiated
+	 */
+	@Nonnull
+	@SuppressWarnings("unchecked")
+	public static <T> InstanceFactory<T> factoryOf(@Nonnull Class<T> type) {
+		InstanceFactory<?> factory = FACTORIES.get(type);
+		if (null == factory) {
+			factory = createFactory(type);
+			InstanceFactory<?> existing = FACTORIES.putIfAbsent(type, factory);
+			if (null != existing) {
+				factory = existing;
+			}
+		}
+		return (InstanceFactory<T>) factory;
+	}
+
+	/**
+	 * Checks whether the given type can be instantiated by its factory.
+	 *
+	 * @param type Type to be instantiated
+	 * @throws InspectFailedException if the type cannot be instantiated
+	 */
+	public static void verify(@Nonnull Class<?> type) throws InspectFailedException {
+		InstanceFactory<?> factory = factoryOf(type);
+		if (factory instanceof FailingFactory) {
+			throw ((FailingFactory<?>) factory).getProblem();
+		}
+	}
+
+	@Nonnull
+	private static <T> InstanceFactory<T> createFactory(@Nonnull Class<T> type) {
+		if (type.isInterface() || type.isPrimitive() || type.isArray() || Modifier.isAbstract(type.getModifiers())) {
+			return new FailingFactory<>(new InspectFailedException(String.format("Type '%s' is abstract, an interface, a primitive or an array, register an InstanceFactory or initialize the field", type.getName())));
+		}
+		try {
+			final Constructor<T> constructor = type.getDeclaredConstructor();
+			constructor.setAccessible(true);
+			return new InstanceFactory<T>() {
+				@Nonnull
+				@Override
+				public T newInstance() throws Exception {
+					try {
+						return constructor.newInstance();
+					} catch (InvocationTargetException e) {
+						throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+					}
+				}
+			};
+		} catch (NoSuchMethodException e) {
+			return new FailingFactory<>(new InspectFailedException(String.format("Type '%s' has no no-arg constructor, register an InstanceFactory or initialize the field", type.getName()), e));
+		} catch (SecurityException e) {
+			return new FailingFactory<>(new InspectFailedException(String.format("No-arg constructor of type '%s' is not accessible", type.getName()), e));
+		}
+	}
+
+	/**
+	 * Creates a new instance of the given type using its factory.
+	 *
+	 * @param type Type to be instantiated
+	 * @param <T>  Type to be instantiated
+	 * @return A new instance
+	 * @throws InspectFailedException if instantiation failed
+	 */
+	@Nonnull
+	public static <T> T newInstance(@Nonnull Class<T> type) throws InspectFailedException {
+		InstanceFactory<T> factory = factoryOf(type);
+		try {
+			return factory.newInstance();
+		} catch (InspectFailedException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new InspectFailedException("Failed to instantiate type: " + type.getName(), e);
+		}
+	}
+
+	/**
+	 * Registers a factory for the given type, which will be used instead of
+	 * the no-arg constructor. Useful for types which don't have a no-arg
+	 * constructor or need some initialization.
+	 *
+	 * @param type    Type to be instantiated
+	 * @param factory Factory which creates new instances of the type
+	 * @param <T>     Type to be instantiated
+	 */
+	public static <T> void register(@Nonnull Class<T> type, @Nonnull InstanceFactory<? extends T> factory) {
+		FACTORIES.put(type, factory);
+	}
+
+	/**
+	 * Factory of a type which cannot be instantiated. Throws the same,
+	 * preallocated exception every time.
+	 */
+	private static class FailingFactory<T> implements InstanceFactory<T> {
+
+		private final InspectFailedException problem;
+
+		FailingFactory(@Nonnull InspectFailedException problem) {
+			this.problem = problem;
+		}
+
+		@Nonnull
+		InspectFailedException getProblem() {
+			return problem;
+		}
+
+		@Nonnull
+		@Override
+		public T newInstance() throws InspectFailedException {
+			throw problem;
+		}
+	}
+}
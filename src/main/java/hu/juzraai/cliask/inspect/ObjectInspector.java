@@ -19,17 +19,35 @@ package hu.juzraai.cliask.inspect;
 import javax.annotation.Nonnull;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Contains method to inspect a POJO. Inspecting means that it analyzes the
  * object using Reflection and returns with prepared values which then be used
  * when asking for values.
+ * <p>
+ * The instance-independent information of a class is compiled into a {@link
+ * ClassPlan} only once, plans are cached and shared between inspectors.
+ * Inherited fields are included too, plans of base classes are reused when
+ * building the plans of their subclasses.
  *
  * @author Zsolt Jurányi
  */
 public class ObjectInspector {
 
+	private static final ConcurrentMap<Class<?>, ClassPlan> PLANS = new ConcurrentHashMap<>();
+
 	private final FieldInspector fieldInspector;
 
 	/**
@@ -51,23 +69,344 @@ public class ObjectInspector {
 	}
 
 	/**
-	 * Iterates through the declared fields of the given object and uses the
-	 * {@link FieldInspector} to analyze them. Returns a list which contains
-	 * those {@link PreparedField} objects which are marked as relevant for
-	 * asking.
+	 * Builds the plan of the given class. The plan contains the fields of the
+	 * superclass' plan (which is also cached, so it's built only once for
+	 * classes sharing the same base class) followed by the class' own declared
+	 * fields which has {@link hu.juzraai.cliask.annotation.Ask} annotation. A
+	 * {@link FieldPlan} is compiled for each own field using {@link
+	 * FieldInspector#planField(Field)}.
+	 * <p>
+	 * If an own field hides an inherited field with the same name, the
+	 * inherited one is left out.
+	 * <p>
+	 * The <code>when</code> and <code>derive</code> attributes of the fields
+	 * are compiled into {@link FieldRule}s, and the asking order is
+	 * calculated using {@link #orderOf(List, FieldRule[])}.
+	 *
+	 * @param type Class to be inspected
+	 * @return Plan of the class
+	 */
+	@Nonnull
+	protected ClassPlan buildPlan(@Nonnull Class<?> type) {
+
+		// own fields
+		List<FieldPlan> ownFields = new ArrayList<>();
+		Set<String> names = new HashSet<>();
+		for (Field field : type.getDeclaredFields()) {
+			FieldPlan plan = fieldInspector.planField(field);
+			if (null != plan.getAsk()) {
+				ownFields.add(plan);
+				names.add(field.getName());
+			}
+		}
+
+		// inherited fields first
+		List<FieldPlan> fields = new ArrayList<>();
+		Class<?> superclass = type.getSuperclass();
+		if (null != superclass && !Object.class.equals(superclass)) {
+			for (FieldPlan plan : planOf(superclass).getFields()) {
+				if (!names.contains(plan.getField().getName())) {
+					fields.add(plan);
+				}
+			}
+		}
+		fields.addAll(ownFields);
+
+		FieldRule[] rules = new FieldRule[fields.size()];
+		for (int i = 0; i < rules.length; i++) {
+			rules[i] = FieldRule.compile(fields, i, fieldInspector);
+		}
+
+		return new ClassPlan(type, fields, CreatorPlan.build(type, fields), rules, orderOf(fields, rules));
+	}
+
+	/**
+	 * Sorts the fields topologically by the dependencies of their rules, so
+	 * every field is asked after the fields referenced by its condition or
+	 * derived default value. Among independent fields declaration order is
+	 * kept. Fields in a circular dependency (and fields depending on them)
+	 * are put at the end, and a problem is set on their rules.
+	 *
+	 * @param fields Plans of the class' fields, in declaration order
+	 * @param rules  Rules of the fields
+	 * @return Indexes of the fields in asking order
+	 */
+	@Nonnull
+	protected int[] orderOf(@Nonnull List<FieldPlan> fields, @Nonnull FieldRule[] rules) {
+		int n = fields.size();
+		int[] pending = new int[n];
+		for (int i = 0; i < n; i++) {
+			pending[i] = null == rules[i] ? 0 : rules[i].getDependencies().length;
+		}
+		int[] order = new int[n];
+		boolean[] done = new boolean[n];
+		int count = 0;
+		boolean progress = true;
+		while (progress) {
+			progress = false;
+			for (int i = 0; i < n; i++) {
+				if (!done[i] && 0 == pending[i]) {
+					order[count++] = i;
+					done[i] = true;
+					for (int j = 0; j < n; j++) {
+						if (null != rules[j]) {
+							for (int dependency : rules[j].getDependencies()) {
+								if (dependency == i) {
+									pending[j]--;
+								}
+							}
+						}
+					}
+					progress = true;
+					break; // restart to keep declaration order
+				}
+			}
+		}
+		for (int i = 0; i < n; i++) {
+			if (!done[i]) {
+				order[count++] = i;
+				rules[i].setProblem(new InspectFailedException("Circular dependency between 'when'/'derive' rules"));
+			}
+		}
+		return order;
+	}
+
+	/**
+	 * Returns the cached plan of the given class, builds it using {@link
+	 * #buildPlan(Class)} if needed.
+	 *
+	 * @param type Class to be inspected
+	 * @return Plan of the class
+	 */
+	@Nonnull
+	public ClassPlan planOf(@Nonnull Class<?> type) {
+		ClassPlan plan = PLANS.get(type);
+		if (null == plan) {
+			plan = buildPlan(type);
+			ClassPlan existing = PLANS.putIfAbsent(type, plan);
+			if (null != existing) {
+				plan = existing;
+			}
+		}
+		return plan;
+	}
+
+	/**
+	 * Builds and verifies the plans of the given classes in parallel, on a
+	 * fork/join pool using all available processors. See {@link
+	 * #warmUp(Collection, ForkJoinPool)}.
+	 *
+	 * @param types Classes to be inspected
+	 * @return Report of the inspected classes and the problems found
+	 */
+	@Nonnull
+	public PlanReport warmUp(@Nonnull Collection<Class<?>> types) {
+		ForkJoinPool pool = new ForkJoinPool();
+		try {
+			return warmUp(types, pool);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Builds and verifies the plans of the given classes in parallel, on the
+	 * given fork/join pool. The types of recursive fields are inspected too.
+	 * Fields are verified using {@link FieldInspector#verifyField(Class,
+	 * FieldPlan, boolean)}, so problems which would only be logged when asking
+	 * (e.g. missing converter) are collected into the report.
+	 * <p>
+	 * Plans remain cached, so the first call of {@link
+	 * #relevantFieldsOf(Object)} won't need to build them.
+	 *
+	 * @param types Classes to be inspected
+	 * @param pool  Fork/join pool to be used
+	 * @return Report of the inspected classes and the problems found
+	 */
+	@Nonnull
+	public PlanReport warmUp(@Nonnull Collection<Class<?>> types, @Nonnull ForkJoinPool pool) {
+		Set<Class<?>> visited = Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+		Queue<PlanReport.Problem> problems = new ConcurrentLinkedQueue<>();
+		List<WarmUpTask> tasks = new ArrayList<>();
+		for (Class<?> type : types) {
+			if (visited.add(type)) {
+				tasks.add(new WarmUpTask(type, visited, problems));
+			}
+		}
+		pool.invoke(new WarmUpAllTask(tasks));
+		return new PlanReport(new ArrayList<>(visited), new ArrayList<>(problems));
+	}
+
+	/**
+	 * Iterates through the fields in the plan of the given object's class and
+	 * uses the {@link FieldInspector} to analyze them. Returns a list which
+	 * contains those {@link PreparedField} objects which are marked as
+	 * relevant for asking, in asking order (see {@link ClassPlan#getOrder()}).
+	 * Prepared fields are bound to their {@link FieldRule}s.
 	 *
 	 * @param object Input object to inspected
 	 * @return List of prepared fields which are marked as relevant for asking
 	 */
 	@Nonnull
 	public List<PreparedField> relevantFieldsOf(@Nonnull Object object) {
+		return relevantFieldsOf(object, "");
+	}
+
+	/**
+	 * Works like {@link #relevantFieldsOf(Object)}, but also sets the paths of
+	 * the prepared fields, using the given prefix.
+	 *
+	 * @param object Input object to inspected
+	 * @param prefix Path of the input object, empty string for top-level
+	 *               objects
+	 * @return List of prepared fields which are marked as relevant for asking
+	 */
+	@Nonnull
+	public List<PreparedField> relevantFieldsOf(@Nonnull Object object, @Nonnull String prefix) {
+		ClassPlan classPlan = planOf(object.getClass());
+		String[] paths = classPlan.pathsOf(prefix);
+		PreparedField[] prepared = new PreparedField[paths.length];
 		List<PreparedField> fields = new ArrayList<>();
-		for (Field field : object.getClass().getDeclaredFields()) {
-			PreparedField preparedField = fieldInspector.inspectField(field, object);
-			if (preparedField.isRelevant()) {
+		for (int i : classPlan.getOrder()) {
+			PreparedField preparedField = fieldInspector.inspectField(classPlan.getFields().get(i), object);
+			prepared[i] = preparedField;
+			if (bindRule(preparedField, classPlan.getRule(i), prepared)) {
+				preparedField.setPath(paths[i]);
 				fields.add(preparedField);
 			}
 		}
 		return fields;
 	}
+
+	/**
+	 * Binds the given rule to the prepared field, or marks the field
+	 * irrelevant if the rule is invalid.
+	 *
+	 * @param preparedField Prepared field
+	 * @param rule          Rule of the field, can be <code>null</code>
+	 * @param prepared      Prepared fields of the object, indexed like the
+	 *                      fields of the class plan
+	 * @return Whether the field is relevant for asking
+	 */
+	protected boolean bindRule(@Nonnull PreparedField preparedField, FieldRule rule, @Nonnull PreparedField[] prepared) {
+		if (preparedField.isRelevant() && null != rule) {
+			if (null != rule.getProblem()) {
+				fieldInspector.handleInspectionFail(preparedField, rule.getProblem());
+			} else {
+				preparedField.setRule(rule, prepared);
+			}
+		}
+		return preparedField.isRelevant();
+	}
+
+	/**
+	 * Uses the {@link FieldInspector} to prepare the fields which are passed
+	 * to the creator of the given class. The values are stored in the given
+	 * argument array. Default values are read from the template object, if
+	 * any. Fields are returned in asking order and bound to their rules, like
+	 * in {@link #relevantFieldsOf(Object, String)}.
+	 *
+	 * @param classPlan Plan of the class to be created
+	 * @param arguments Argument array of the creator, see {@link
+	 *                  CreatorPlan#newArguments()}
+	 * @param template  Object to read default values from, can be
+	 *                  <code>null</code>
+	 * @param prefix    Path of the object, empty string for top-level objects
+	 * @return List of prepared fields which are marked as relevant for asking
+	 */
+	@Nonnull
+	public List<PreparedField> relevantArgumentsOf(@Nonnull ClassPlan classPlan, @Nonnull Object[] arguments, Object template, @Nonnull String prefix) {
+		String[] paths = classPlan.pathsOf(prefix);
+		int[] argumentIndexes = new int[paths.length];
+		Arrays.fill(argumentIndexes, -1);
+		int[] fieldIndexes = classPlan.getCreator().getFieldIndexes();
+		for (int i = 0; i < fieldIndexes.length; i++) {
+			argumentIndexes[fieldIndexes[i]] = i;
+		}
+		PreparedField[] prepared = new PreparedField[paths.length];
+		List<PreparedField> fields = new ArrayList<>();
+		for (int i : classPlan.getOrder()) {
+			if (argumentIndexes[i] < 0) {
+				continue;
+			}
+			FieldPlan plan = classPlan.getFields().get(i);
+			PreparedField preparedField = fieldInspector.inspectArgument(classPlan.getType(), plan, arguments, argumentIndexes[i], template);
+			prepared[i] = preparedField;
+			if (bindRule(preparedField, classPlan.getRule(i), prepared)) {
+				preparedField.setPath(paths[i]);
+				fields.add(preparedField);
+			}
+		}
+		return fields;
+	}
+
+	private static class WarmUpAllTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<WarmUpTask> tasks;
+
+		private WarmUpAllTask(@Nonnull List<WarmUpTask> tasks) {
+			this.tasks = tasks;
+		}
+
+		@Override
+		protected void compute() {
+			invokeAll(tasks);
+		}
+	}
+
+	private class WarmUpTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Class<?> type;
+		private final Set<Class<?>> visited;
+		private final Queue<PlanReport.Problem> problems;
+
+		private WarmUpTask(@Nonnull Class<?> type, @Nonnull Set<Class<?>> visited, @Nonnull Queue<PlanReport.Problem> problems) {
+			this.type = type;
+			this.visited = visited;
+			this.problems = problems;
+		}
+
+		@Override
+		protected void compute() {
+			List<WarmUpTask> subtasks = new ArrayList<>();
+			ClassPlan classPlan = planOf(type);
+			CreatorPlan creator = classPlan.getCreator();
+			List<FieldPlan> plans = classPlan.getFields();
+			if (null != creator) { // only creator arguments are asked
+				if (null != creator.getProblem()) {
+					problems.add(new PlanReport.Problem(type, creator.getProblem()));
+					plans = new ArrayList<>();
+				} else {
+					plans = new ArrayList<>();
+					for (int fieldIndex : creator.getFieldIndexes()) {
+						plans.add(classPlan.getFields().get(fieldIndex));
+					}
+				}
+			}
+			for (int i = 0; i < classPlan.getFields().size(); i++) {
+				FieldRule rule = classPlan.getRule(i);
+				if (null != rule && null != rule.getProblem() && plans.contains(classPlan.getFields().get(i))) {
+					problems.add(new PlanReport.Problem(type, classPlan.getFields().get(i).getField(), rule.getProblem()));
+				}
+			}
+			for (FieldPlan plan : plans) {
+				try {
+					fieldInspector.verifyField(type, plan, null != creator);
+					Class<?> fieldType = plan.getField().getType();
+					if (plan.getAsk().recursive() && visited.add(fieldType)) {
+						subtasks.add(new WarmUpTask(fieldType, visited, problems));
+					}
+				} catch (InspectFailedException e) {
+					problems.add(new PlanReport.Problem(type, plan.getField(), e));
+				} catch (RuntimeException e) {
+					problems.add(new PlanReport.Problem(type, plan.getField(), new InspectFailedException("Unexpected error", e)));
+				}
+			}
+			invokeAll(subtasks);
+		}
+	}
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.inspect;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of {@link ObjectInspector#warmUp(java.util.Collection)}: contains the
+ * classes whose plans have been built and the problems found in them.
+ *
+ * @author Zsolt Jurányi
+ */
+public class PlanReport {
+
+	private final List<Class<?>> types;
+	private final List<Problem> problems;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param types    Classes whose plans have been built (including the
+	 *                 types of recursive fields)
+	 * @param problems Problems found in the plans
+	 */
+	public PlanReport(@Nonnull List<Class<?>> types, @Nonnull List<Problem> problems) {
+		this.types = Collections.unmodifiableList(new ArrayList<>(types));
+		this.problems = Collections.unmodifiableList(new ArrayList<>(problems));
+	}
+
+	/**
+	 * @return Problems found in the plans
+	 */
+	@Nonnull
+	public List<Problem> getProblems() {
+		return problems;
+	}
+
+	/**
+	 * @return Classes whose plans have been built (including the types of
+	 * recursive fields)
+	 */
+	@Nonnull
+	public List<Class<?>> getTypes() {
+		return types;
+	}
+
+	/**
+	 * @return Whether no problems were found
+	 */
+	public boolean isOk() {
+		return problems.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder s = new StringBuilder();
+		s.append(String.format("%d class(es) inspected, %d problem(s) found", types.size(), problems.size()));
+		for (Problem problem : problems) {
+			s.append(String.format("%n  %s", problem));
+		}
+		return s.toString();
+	}
+
+	/**
+	 * A problem found in a field's or a creator's plan. The field would be
+	 * skipped or asking would fail.
+	 */
+	public static class Problem {
+
+		private final Class<?> type;
+		private final Field field;
+		private final InspectFailedException exception;
+
+		/**
+		 * Creates a new instance.
+		 *
+		 * @param type      Class whose plan contains the field
+		 * @param field     The problematic field
+		 * @param exception The problem
+		 */
+		public Problem(@Nonnull Class<?> type, @Nonnull Field field, @Nonnull InspectFailedException exception) {
+			this.type = type;
+			this.field = field;
+			this.exception = exception;
+		}
+
+		/**
+		 * Creates a new instance for a problem which doesn't belong to a
+		 * field (e.g. invalid creator).
+		 *
+		 * @param type      The problematic class
+		 * @param exception The problem
+		 */
+		public Problem(@Nonnull Class<?> type, @Nonnull InspectFailedException exception) {
+			this.type = type;
+			this.field = null;
+			this.exception = exception;
+		}
+
+		/**
+		 * @return The problem
+		 */
+		@Nonnull
+		public InspectFailedException getException() {
+			return exception;
+		}
+
+		/**
+		 * @return The problematic field, or <code>null</code> if the problem
+		 * doesn't belong to a field
+		 */
+		@CheckForNull
+		public Field getField() {
+			return field;
+		}
+
+		/**
+		 * @return Class whose plan contains the field
+		 */
+		@Nonnull
+		public Class<?> getType() {
+			return type;
+		}
+
+		@Override
+		public String toString() {
+			Throwable cause = exception.getCause();
+			return String.format("%s%s - %s%s", type.getName(), null == field ? "" : "." + field.getName(), exception.getMessage(),
+					null == cause ? "" : String.format(" (%s)", cause));
+		}
+	}
+}
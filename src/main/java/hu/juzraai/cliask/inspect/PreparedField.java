@@ -36,18 +36,27 @@ public class PreparedField { // TODO doc: class, getters-setters
 	private static final Logger L = LoggerFactory.getLogger(PreparedField.class);
 
 	private final Object object;
+	private final FieldPlan plan;
 	private final Field field;
 	private final Ask ask;
 	private boolean recursive;
 	private boolean relevant;
 	private String label;
+	private String path;
 	private Object defaultValue;
 	private ConvertTo<?> converter;
+	private FieldRule rule;
+	private PreparedField[] siblings;
 
 	public PreparedField(@Nonnull Object object, @Nonnull Field field, Ask ask) {
+		this(object, new FieldPlan(field, ask));
+	}
+
+	public PreparedField(@Nonnull Object object, @Nonnull FieldPlan plan) {
 		this.object = object;
-		this.field = field;
-		this.ask = ask;
+		this.plan = plan;
+		this.field = plan.getField();
+		this.ask = plan.getAsk();
 	}
 
 	/**
@@ -90,6 +99,16 @@ public class PreparedField { // TODO doc: class, getters-setters
 		return field;
 	}
 
+	/**
+	 * @return The default value derived from the other fields of the object
+	 * by the <code>derive</code> attribute of {@link Ask}, or
+	 * <code>null</code> if the field has no such attribute or a referenced
+	 * field has no value
+	 */
+	public String getDerivedDefault() {
+		return null == rule ? null : rule.derive(siblings);
+	}
+
 	/**
 	 * @return The <code>value</code> attribute of {@link Ask} annotation, or
 	 * the field name
@@ -111,6 +130,65 @@ public class PreparedField { // TODO doc: class, getters-setters
 		return object;
 	}
 
+	/**
+	 * @return Class of the parent object
+	 */
+	@Nonnull
+	public Class<?> getObjectType() {
+		return object.getClass();
+	}
+
+	/**
+	 * @return The dot-separated path of the field, starting from the
+	 * top-level object
+	 */
+	public String getPath() {
+		return path;
+	}
+
+	public void setPath(String path) {
+		this.path = path;
+	}
+
+	/**
+	 * @return The precompiled, instance-independent information about the
+	 * field
+	 */
+	@Nonnull
+	public FieldPlan getPlan() {
+		return plan;
+	}
+
+	/**
+	 * @return The compiled condition and derived default value of the field,
+	 * or <code>null</code> if it has none
+	 */
+	public FieldRule getRule() {
+		return rule;
+	}
+
+	/**
+	 * Binds the rule of the field and the other prepared fields of the same
+	 * object, which the rule reads.
+	 *
+	 * @param rule     Rule of the field
+	 * @param siblings Prepared fields of the object, indexed like the fields
+	 *                 of the class plan
+	 */
+	public void setRule(FieldRule rule, PreparedField[] siblings) {
+		this.rule = rule;
+		this.siblings = siblings;
+	}
+
+	/**
+	 * @return Whether the <code>when</code> condition of {@link Ask} holds on
+	 * the current values of the other fields, <code>true</code> if the field
+	 * has no condition
+	 */
+	public boolean isActive() {
+		return null == rule || rule.isActive(siblings);
+	}
+
 	/**
 	 * @return Whether the field should be handled in recursive mode
 	 */
@@ -133,6 +211,23 @@ public class PreparedField { // TODO doc: class, getters-setters
 		this.relevant = relevant;
 	}
 
+	/**
+	 * Returns the current value of this field of the parent object, but
+	 * swallows the exceptions.
+	 *
+	 * @return The current value of the field, or <code>null</code> if it
+	 * couldn't be read
+	 */
+	public Object get() {
+		try {
+			return field.get(object);
+		} catch (IllegalAccessException e) {
+			L.warn("Error occurred while getting value of field '{}' of class '{}': {}", field.getName(), object.getClass().getName(), e.getMessage());
+			L.trace("Stack trace", e);
+			return null;
+		}
+	}
+
 	/**
 	 * Sets the given value for this field of the parent object, but swallows
 	 * the exceptions.
@@ -142,7 +237,7 @@ public class PreparedField { // TODO doc: class, getters-setters
 	public void set(Object value) {
 		if (relevant) {
 			try {
-				field.set(object, value);
+				setValue(value);
 			} catch (IllegalAccessException e) {
 				L.warn("Error occurred while setting value for field '{}' of class '{}': {}", field.getName(), object.getClass().getName(), e.getMessage());
 				L.trace("Stack trace", e);
@@ -152,4 +247,15 @@ public class PreparedField { // TODO doc: class, getters-setters
 		}
 	}
 
+	/**
+	 * Sets the given value for this field of the parent object, without
+	 * checking relevance.
+	 *
+	 * @param value New value to be set for this field of the parent object
+	 * @throws IllegalAccessException if the field is not accessible
+	 */
+	protected void setValue(Object value) throws IllegalAccessException {
+		field.set(object, value);
+	}
+
 }
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.screen;
+
+import hu.juzraai.cliask.convert.Converters;
+import hu.juzraai.cliask.inspect.PreparedField;
+
+import javax.annotation.Nonnull;
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Full-screen form which displays every field of an object at once, using
+ * ANSI cursor addressing. After each input only the changed screen cells are
+ * sent to the terminal (see {@link ScreenBuffer}), so labels are not repeated
+ * on every re-ask, which matters on high-latency or metered links.
+ * <p>
+ * Layout: title, field rows (label, ":", value or default value in
+ * brackets, focused field marked with "&gt;"), message row, hint row, the
+ * input row and an empty row at the bottom. Input is still read line by line
+ * and echoed by the terminal, the echoed text is erased on the next render.
+ * The empty row receives the echoed line break, so the screen doesn't scroll.
+ * The terminal should be at least as high as the form, which is the number
+ * of fields + 7 rows.
+ *
+ * @author Zsolt Jurányi
+ */
+public class FormScreen {
+
+	private static final String CLEAR_SCREEN = "\033[H\033[2J";
+	private static final String PROMPT = "> ";
+
+	private final PrintStream out;
+	private final int columns;
+	private final StringBuilder output = new StringBuilder();
+	private String title;
+	private String[] labels;
+	private String[] values;
+	private boolean[] defaults;
+	private int labelWidth;
+	private ScreenBuffer screen;
+
+	/**
+	 * Creates a new instance with 80 columns width.
+	 *
+	 * @param out Output of the terminal
+	 */
+	public FormScreen(@Nonnull PrintStream out) {
+		this(out, 80);
+	}
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param out     Output of the terminal
+	 * @param columns Width of the terminal, longer lines will be truncated
+	 */
+	public FormScreen(@Nonnull PrintStream out, int columns) {
+		this.out = out;
+		this.columns = columns;
+	}
+
+	/**
+	 * Moves the cursor below the form.
+	 */
+	public void close() {
+		if (null != screen) {
+			output.setLength(0);
+			screen.moveCursor(output, screen.getRows() - 1, 0);
+			out.print(output);
+			out.println();
+			out.flush();
+			screen = null;
+		}
+	}
+
+	/**
+	 * Records the user input echoed by the terminal in the input row, so it
+	 * will be erased on the next render.
+	 *
+	 * @param input Raw user input
+	 */
+	public void echoed(@Nonnull String input) {
+		screen.assume(inputRow(), PROMPT.length(), input);
+	}
+
+	/**
+	 * @return Width of the terminal
+	 */
+	public int getColumns() {
+		return columns;
+	}
+
+	/**
+	 * Clears the terminal and initializes the form for the given fields. Their
+	 * default values, formatted by the fields' converters, are displayed in
+	 * brackets until they are set by {@link #setValue(int, String)}.
+	 *
+	 * @param title  Title of the form, can be <code>null</code>
+	 * @param fields Fields to be displayed
+	 */
+	public void open(String title, @Nonnull List<PreparedField> fields) {
+		this.title = null == title ? "" : title.trim();
+		int n = fields.size();
+		labels = new String[n];
+		values = new String[n];
+		defaults = new boolean[n];
+		labelWidth = 0;
+		for (int i = 0; i < n; i++) {
+			PreparedField field = fields.get(i);
+			labels[i] = field.getLabel().replaceAll("\\s+", " ").trim();
+			Object defaultValue = field.getDefaultValue();
+			values[i] = null == defaultValue ? "" : null == field.getConverter() ? defaultValue.toString() : Converters.format(field.getConverter(), defaultValue);
+			defaults[i] = null != defaultValue;
+			labelWidth = Math.max(labelWidth, labels[i].length());
+		}
+		labelWidth = Math.min(labelWidth, columns / 2);
+		screen = new ScreenBuffer(n + 7, columns);
+		screen.assumeCleared();
+		out.print(CLEAR_SCREEN);
+	}
+
+	/**
+	 * Draws the form and sends the changed cells to the terminal, then moves
+	 * the cursor to the input row.
+	 *
+	 * @param focus   Index of the field being asked
+	 * @param message Message to be displayed (e.g. validation error), can be
+	 *                <code>null</code>
+	 * @param hint    Additional message to be displayed (e.g. suggestions),
+	 *                can be <code>null</code>
+	 */
+	public void render(int focus, String message, String hint) {
+		screen.clear();
+		screen.put(0, 0, title);
+		for (int i = 0; i < labels.length; i++) {
+			int row = 2 + i;
+			screen.put(row, 0, i == focus ? ">" : " ");
+			String label = labels[i];
+			if (label.length() > labelWidth) {
+				label = label.substring(0, labelWidth);
+			}
+			screen.put(row, 2 + labelWidth - label.length(), label);
+			screen.put(row, 2 + labelWidth, " : ");
+			screen.put(row, 5 + labelWidth, defaults[i] ? "[" + values[i] + "]" : values[i]);
+		}
+		int inputRow = inputRow();
+		screen.put(inputRow - 2, 0, null == message ? "" : message);
+		screen.put(inputRow - 1, 0, null == hint ? "" : hint);
+		screen.put(inputRow, 0, PROMPT);
+
+		output.setLength(0);
+		screen.flush(output);
+		screen.moveCursor(output, inputRow, PROMPT.length());
+		out.print(output);
+		out.flush();
+	}
+
+	/**
+	 * Sets the displayed default value of a field, e.g. when it's derived
+	 * from values given on the form. It's displayed in brackets until the
+	 * value is set by {@link #setValue(int, String)}.
+	 *
+	 * @param index        Index of the field
+	 * @param defaultValue Default value to be displayed
+	 */
+	public void setDefaultValue(int index, @Nonnull String defaultValue) {
+		values[index] = defaultValue;
+		defaults[index] = true;
+	}
+
+	/**
+	 * Sets the displayed value of a field.
+	 *
+	 * @param index Index of the field
+	 * @param value Value to be displayed
+	 */
+	public void setValue(int index, @Nonnull String value) {
+		values[index] = value;
+		defaults[index] = false;
+	}
+
+	private int inputRow() {
+		return screen.getRows() - 2;
+	}
+}
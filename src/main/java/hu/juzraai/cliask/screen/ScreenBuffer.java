@@ -0,0 +1,199 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.screen;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+
+/**
+ * Double-buffered character grid which produces the ANSI escape sequences
+ * needed to bring the terminal from its current state (front buffer) to the
+ * next frame (back buffer). Only the changed cells are sent: the cursor is
+ * moved with absolute addressing to the start of each changed run, short
+ * unchanged gaps inside a row are simply rewritten, because that's cheaper
+ * than a cursor movement.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @author Zsolt Jurányi
+ */
+public class ScreenBuffer {
+
+	private static final char UNKNOWN = '\uFFFF';
+	private static final int MIN_GAP = 8; // approx. length of a cursor movement sequence
+
+	private final int rows;
+	private final int columns;
+	private final char[][] front;
+	private final char[][] back;
+	private int cursorRow = -1;
+	private int cursorColumn = -1;
+
+	/**
+	 * Creates a new instance. The front buffer is invalid at first, so the
+	 * first flush will redraw every cell.
+	 *
+	 * @param rows    Height of the screen area
+	 * @param columns Width of the screen area
+	 */
+	public ScreenBuffer(int rows, int columns) {
+		if (rows < 1 || columns < 1) {
+			throw new IllegalArgumentException("Screen size must be positive");
+		}
+		this.rows = rows;
+		this.columns = columns;
+		this.front = new char[rows][columns];
+		this.back = new char[rows][columns];
+		invalidate();
+		clear();
+	}
+
+	/**
+	 * Tells the buffer that the terminal has written the given text on its
+	 * own (e.g. echoed user input), so the next flush can overwrite it.
+	 *
+	 * @param row    Row where the text starts
+	 * @param column Column where the text starts
+	 * @param text   Text written by the terminal
+	 */
+	public void assume(int row, int column, @Nonnull String text) {
+		write(front, row, column, text);
+		cursorRow = -1; // cursor position is unknown after terminal output
+	}
+
+	/**
+	 * Tells the buffer that the terminal's screen area has been cleared, so
+	 * blank cells don't need to be sent.
+	 */
+	public void assumeCleared() {
+		for (char[] row : front) {
+			Arrays.fill(row, ' ');
+		}
+		cursorRow = -1;
+	}
+
+	/**
+	 * Fills the back buffer with spaces.
+	 */
+	public void clear() {
+		for (char[] row : back) {
+			Arrays.fill(row, ' ');
+		}
+	}
+
+	/**
+	 * Appends the escape sequences and characters needed to display the back
+	 * buffer, then marks the back buffer as displayed.
+	 *
+	 * @param out Output to append to
+	 */
+	public void flush(@Nonnull StringBuilder out) {
+		for (int r = 0; r < rows; r++) {
+			char[] f = front[r];
+			char[] b = back[r];
+			int c = 0;
+			while (c < columns) {
+				if (f[c] == b[c]) {
+					c++;
+					continue;
+				}
+
+				// find end of changed run, allowing short unchanged gaps
+				int end = c + 1;
+				int last = c;
+				while (end < columns && end - last <= MIN_GAP) {
+					if (f[end] != b[end]) {
+						last = end;
+					}
+					end++;
+				}
+
+				moveCursor(out, r, c);
+				out.append(b, c, last - c + 1);
+				System.arraycopy(b, c, f, c, last - c + 1);
+				cursorColumn = last + 1;
+				c = last + 1;
+			}
+		}
+	}
+
+	/**
+	 * @return Width of the screen area
+	 */
+	public int getColumns() {
+		return columns;
+	}
+
+	/**
+	 * @return Height of the screen area
+	 */
+	public int getRows() {
+		return rows;
+	}
+
+	/**
+	 * Marks every cell of the front buffer as unknown, so the next flush will
+	 * redraw the whole screen area. Should be called when the screen was
+	 * modified by someone else.
+	 */
+	public void invalidate() {
+		for (char[] row : front) {
+			Arrays.fill(row, UNKNOWN);
+		}
+		cursorRow = -1;
+	}
+
+	/**
+	 * Appends the escape sequence which moves the cursor to the given
+	 * position, if it's not there already.
+	 *
+	 * @param out    Output to append to
+	 * @param row    Target row
+	 * @param column Target column
+	 */
+	public void moveCursor(@Nonnull StringBuilder out, int row, int column) {
+		if (row != cursorRow || column != cursorColumn) {
+			out.append("\033[").append(row + 1).append(';').append(column + 1).append('H');
+			cursorRow = row;
+			cursorColumn = column;
+		}
+	}
+
+	/**
+	 * Writes text into the back buffer. Characters outside the screen area
+	 * are dropped.
+	 *
+	 * @param row    Row where the text starts
+	 * @param column Column where the text starts
+	 * @param text   Text to be written
+	 */
+	public void put(int row, int column, @Nonnull String text) {
+		write(back, row, column, text);
+	}
+
+	private void write(@Nonnull char[][] buffer, int row, int column, @Nonnull String text) {
+		if (row < 0 || row >= rows) {
+			return;
+		}
+		for (int i = 0; i < text.length() && column + i < columns; i++) {
+			if (column + i >= 0) {
+				char ch = text.charAt(i);
+				buffer[row][column + i] = Character.isISOControl(ch) ? ' ' : ch;
+			}
+		}
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.source;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Provides values from command line arguments. Arguments in the form of
+ * <code>--path=value</code> or <code>path=value</code> are parsed once, in
+ * the constructor, other arguments are ignored.
+ *
+ * @author Zsolt Jurányi
+ */
+public class ArgumentsSource implements ValueSource {
+
+	private final Map<String, String> values = new HashMap<>();
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param args Command line arguments
+	 */
+	public ArgumentsSource(@Nonnull String... args) {
+		for (String arg : args) {
+			String a = arg.startsWith("--") ? arg.substring(2) : arg;
+			int eq = a.indexOf('=');
+			if (eq > 0) {
+				values.put(a.substring(0, eq).trim(), a.substring(eq + 1).trim());
+			}
+		}
+	}
+
+	@CheckForNull
+	@Override
+	public String get(@Nonnull String path) {
+		return values.get(path);
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.source;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Provides values from environment variables. The field path is mapped to an
+ * environment variable name by upper-casing it, replacing dots with
+ * underscores and separating camel case words with underscores, then adding
+ * the prefix. E.g. <code>database.maxPoolSize</code> becomes
+ * <code>APP_DATABASE_MAX_POOL_SIZE</code> with <code>APP_</code> prefix.
+ * <p>
+ * The environment is read once, in the constructor, and the name mapping is
+ * calculated only once per path.
+ *
+ * @author Zsolt Jurányi
+ */
+public class EnvironmentSource implements ValueSource {
+
+	private final String prefix;
+	private final Map<String, String> environment;
+	private final ConcurrentMap<String, String> names = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a new instance without prefix.
+	 */
+	public EnvironmentSource() {
+		this("");
+	}
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param prefix Prefix of the environment variable names
+	 */
+	public EnvironmentSource(@Nonnull String prefix) {
+		this(prefix, System.getenv());
+	}
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param prefix      Prefix of the environment variable names
+	 * @param environment Environment variables
+	 */
+	public EnvironmentSource(@Nonnull String prefix, @Nonnull Map<String, String> environment) {
+		this.prefix = prefix;
+		this.environment = environment;
+	}
+
+	@CheckForNull
+	@Override
+	public String get(@Nonnull String path) {
+		String name = names.get(path);
+		if (null == name) {
+			name = nameOf(path);
+			names.putIfAbsent(path, name);
+		}
+		return environment.get(name);
+	}
+
+	/**
+	 * Maps the given field path to an environment variable name.
+	 *
+	 * @param path Path of the field
+	 * @return Name of the environment variable
+	 */
+	@Nonnull
+	protected String nameOf(@Nonnull String path) {
+		StringBuilder s = new StringBuilder(prefix);
+		for (int i = 0; i < path.length(); i++) {
+			char c = path.charAt(i);
+			if ('.' == c || '-' == c) {
+				s.append('_');
+			} else {
+				if (Character.isUpperCase(c) && i > 0 && Character.isLowerCase(path.charAt(i - 1))) {
+					s.append('_');
+				}
+				s.append(Character.toUpperCase(c));
+			}
+		}
+		return s.toString();
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.source;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Provides values from a {@link Properties} object, the keys are the field
+ * paths with an optional prefix. The properties are copied into a map in the
+ * constructor, later changes are not reflected.
+ *
+ * @author Zsolt Jurányi
+ */
+public class PropertiesSource implements ValueSource {
+
+	private final Map<String, String> values = new HashMap<>();
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param properties Properties to be used
+	 * @param prefix     Prefix of the keys, it will be removed; keys not
+	 *                   starting with the prefix are ignored
+	 */
+	public PropertiesSource(@Nonnull Properties properties, @Nonnull String prefix) {
+		for (String key : properties.stringPropertyNames()) {
+			if (key.startsWith(prefix)) {
+				values.put(key.substring(prefix.length()), properties.getProperty(key));
+			}
+		}
+	}
+
+	/**
+	 * Creates a new instance without prefix.
+	 *
+	 * @param properties Properties to be used
+	 */
+	public PropertiesSource(@Nonnull Properties properties) {
+		this(properties, "");
+	}
+
+	/**
+	 * Loads a properties file and creates a source from it.
+	 *
+	 * @param file Properties file
+	 * @return A new source containing the properties of the file
+	 * @throws IOException if the file couldn't be read
+	 */
+	@Nonnull
+	public static PropertiesSource load(@Nonnull File file) throws IOException {
+		Properties properties = new Properties();
+		try (InputStream in = new FileInputStream(file)) {
+			properties.load(in);
+		}
+		return new PropertiesSource(properties);
+	}
+
+	/**
+	 * Creates a source from the system properties, the keys are the field
+	 * paths with the given prefix, e.g. <code>-Dapp.database.host=...</code>
+	 * with <code>app.</code> prefix.
+	 *
+	 * @param prefix Prefix of the keys
+	 * @return A new source containing the current system properties
+	 */
+	@Nonnull
+	public static PropertiesSource systemProperties(@Nonnull String prefix) {
+		return new PropertiesSource(System.getProperties(), prefix);
+	}
+
+	@CheckForNull
+	@Override
+	public String get(@Nonnull String path) {
+		return values.get(path);
+	}
+}
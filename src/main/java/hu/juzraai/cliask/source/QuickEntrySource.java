@@ -0,0 +1,118 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.source;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.text.ParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the values typed or pasted in quick-entry mode (see {@link
+ * hu.juzraai.cliask.AskSession#setQuickEntry(boolean)}), by field path. A
+ * quick-entry line contains whitespace-separated <code>name=value</code>
+ * pairs, e.g. <code>name=foo age=42 sure=no</code>. Values containing
+ * whitespace can be quoted with <code>"</code> or <code>'</code>, inside
+ * quotes <code>\</code> escapes the next character. Names of fields in
+ * recursive objects are dot-separated paths (e.g.
+ * <code>database.host=db1</code>).
+ *
+ * @author Zsolt Jurányi
+ */
+public class QuickEntrySource implements ValueSource {
+
+	private final Map<String, String> values = new ConcurrentHashMap<>();
+
+	/**
+	 * Parses a quick-entry line.
+	 *
+	 * @param line Line to be parsed
+	 * @return The values by name, in the order of the line; later pairs with
+	 * the same name override earlier ones
+	 * @throws ParseException if a token is not a <code>name=value</code> pair
+	 *                        or a quote is not closed
+	 */
+	@Nonnull
+	public static Map<String, String> parse(@Nonnull String line) throws ParseException {
+		Map<String, String> pairs = new LinkedHashMap<>();
+		int n = line.length();
+		int i = 0;
+		while (i < n) {
+			if (Character.isWhitespace(line.charAt(i))) {
+				i++;
+				continue;
+			}
+			int start = i;
+			while (i < n && '=' != line.charAt(i) && !Character.isWhitespace(line.charAt(i))) {
+				i++;
+			}
+			if (i == start || i == n || '=' != line.charAt(i)) {
+				throw new ParseException("Expected name=value: " + line.substring(start, i), start);
+			}
+			String name = line.substring(start, i++);
+			StringBuilder value = new StringBuilder();
+			if (i < n && ('"' == line.charAt(i) || '\'' == line.charAt(i))) {
+				char quote = line.charAt(i++);
+				while (i < n && quote != line.charAt(i)) {
+					if ('\\' == line.charAt(i) && i + 1 < n) {
+						i++;
+					}
+					value.append(line.charAt(i++));
+				}
+				if (i == n) {
+					throw new ParseException("Unclosed quote in value of " + name, start);
+				}
+				i++;
+			} else {
+				while (i < n && !Character.isWhitespace(line.charAt(i))) {
+					value.append(line.charAt(i++));
+				}
+			}
+			pairs.put(name, value.toString());
+		}
+		return pairs;
+	}
+
+	/**
+	 * @param path Path of the field
+	 * @return Whether a value has been entered for the field
+	 */
+	public boolean contains(@Nonnull String path) {
+		return values.containsKey(path);
+	}
+
+	@CheckForNull
+	@Override
+	public String get(@Nonnull String path) {
+		return values.get(path);
+	}
+
+	/**
+	 * Stores a value entered for a field. Empty values are ignored, as an
+	 * empty answer means the default value.
+	 *
+	 * @param path  Path of the field
+	 * @param value Raw value
+	 */
+	public void put(@Nonnull String path, @Nonnull String value) {
+		if (!value.trim().isEmpty()) {
+			values.put(path, value.trim());
+		}
+	}
+}
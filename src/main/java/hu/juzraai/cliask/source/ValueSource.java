@@ -0,0 +1,42 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.source;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * Interface of non-interactive value sources. {@link hu.juzraai.cliask.AskSession}
+ * tries its sources in order before prompting the user, and asks only for
+ * fields which are not provided by any source.
+ * <p>
+ * Values are looked up by field path: the field name for top-level fields,
+ * and the dot-separated field names for fields of recursive objects (e.g.
+ * <code>database.host</code>).
+ *
+ * @author Zsolt Jurányi
+ */
+public interface ValueSource {
+
+	/**
+	 * @param path Path of the field
+	 * @return The raw value for the field, or <code>null</code> if this source
+	 * doesn't provide a value for it
+	 */
+	@CheckForNull
+	String get(@Nonnull String path);
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.store;
+
+import hu.juzraai.toolbox.log.LoggerFactory;
+import org.slf4j.Logger;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Local cache of answers given to previous questions, so reruns of the same
+ * program can use them as defaults or skip asking them.
+ * <p>
+ * Entries are keyed by the class and the path of the asked object, and
+ * contain the schema hash of the class (see {@link
+ * hu.juzraai.cliask.inspect.ClassPlan#getSchemaHash()}) and the raw answers
+ * by field name. If the schema of the class changes, its hash changes too, so
+ * old entries will be dropped automatically on lookup.
+ * <p>
+ * The cache holds a limited number of entries, the least recently used ones
+ * are evicted. It's stored in a compact binary file, which is read in {@link
+ * #AnswerCache(File, int)} and written in {@link #save()}.
+ *
+ * @author Zsolt Jurányi
+ */
+public class AnswerCache {
+
+	private static final Logger L = LoggerFactory.getLogger(AnswerCache.class);
+	private static final int MAGIC = 0x434c4143; // "CLAC"
+	private static final int VERSION = 1;
+	private static final int MAX_LENGTH = 16384; // fits in writeUTF's limit
+
+	private final File file;
+	private final Map<String, CacheEntry> entries;
+	private boolean modified;
+
+	/**
+	 * Creates a new instance and loads the entries from the given file, if it
+	 * exists. If the file can't be read, the error is logged and the cache
+	 * starts empty.
+	 *
+	 * @param file       Cache file
+	 * @param maxEntries Maximum number of entries to be stored
+	 */
+	public AnswerCache(@Nonnull File file, final int maxEntries) {
+		this.file = file;
+		this.entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+				return size() > maxEntries;
+			}
+		};
+		if (file.isFile()) {
+			try {
+				load();
+			} catch (IOException e) {
+				L.warn("Failed to load answer cache '{}': {}", file, e.getMessage());
+				entries.clear();
+			}
+		}
+	}
+
+	/**
+	 * Returns the cached answers of the given key, if the schema hash of the
+	 * entry equals to the given hash. If the hash is different, the entry is
+	 * removed.
+	 *
+	 * @param key        Key of the entry (class and path of the object)
+	 * @param schemaHash Current schema hash of the class
+	 * @return Raw answers by field name, or <code>null</code> if there's no
+	 * valid entry for the key
+	 */
+	@CheckForNull
+	public synchronized Map<String, String> get(@Nonnull String key, long schemaHash) {
+		CacheEntry entry = entries.get(key);
+		if (null != entry && entry.schemaHash != schemaHash) {
+			entries.remove(key);
+			modified = true;
+			entry = null;
+		}
+		return null == entry ? null : Collections.unmodifiableMap(entry.answers);
+	}
+
+	/**
+	 * @return The cache file
+	 */
+	@Nonnull
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Builds the key of an entry.
+	 *
+	 * @param type Class of the object
+	 * @param path Path of the object, empty string for top-level objects
+	 * @return Key of the entry
+	 */
+	@Nonnull
+	public static String keyOf(@Nonnull Class<?> type, @Nonnull String path) {
+		return path.isEmpty() ? type.getName() : type.getName() + "#" + path;
+	}
+
+	protected void load() throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (MAGIC != in.readInt() || VERSION != in.readInt()) {
+				throw new IOException("Unknown file format");
+			}
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				String key = in.readUTF();
+				CacheEntry entry = new CacheEntry(in.readLong());
+				int answers = in.readInt();
+				for (int j = 0; j < answers; j++) {
+					entry.answers.put(in.readUTF(), in.readUTF());
+				}
+				entries.put(key, entry);
+			}
+		}
+	}
+
+	/**
+	 * Stores the answers of the given key, replacing the previous entry.
+	 * Very long answers (over 16384 characters) are not stored.
+	 *
+	 * @param key        Key of the entry (class and path of the object)
+	 * @param schemaHash Current schema hash of the class
+	 * @param answers    Raw answers by field name
+	 */
+	public synchronized void put(@Nonnull String key, long schemaHash, @Nonnull Map<String, String> answers) {
+		CacheEntry entry = new CacheEntry(schemaHash);
+		for (Map.Entry<String, String> answer : answers.entrySet()) {
+			if (answer.getKey().length() <= MAX_LENGTH && answer.getValue().length() <= MAX_LENGTH) {
+				entry.answers.put(answer.getKey(), answer.getValue());
+			}
+		}
+		entries.put(key, entry);
+		modified = true;
+	}
+
+	/**
+	 * Writes the entries into the cache file, if they were modified. The file
+	 * is written into a temporary file first, then it's renamed.
+	 *
+	 * @throws IOException if the file couldn't be written
+	 */
+	public synchronized void save() throws IOException {
+		if (!modified) {
+			return;
+		}
+		File tmp = new File(file.getPath() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(entries.size());
+			for (Map.Entry<String, CacheEntry> e : entries.entrySet()) {
+				out.writeUTF(e.getKey());
+				out.writeLong(e.getValue().schemaHash);
+				out.writeInt(e.getValue().answers.size());
+				for (Map.Entry<String, String> answer : e.getValue().answers.entrySet()) {
+					out.writeUTF(answer.getKey());
+					out.writeUTF(answer.getValue());
+				}
+			}
+		}
+		if (!tmp.renameTo(file) && !(file.delete() && tmp.renameTo(file))) {
+			throw new IOException("Failed to replace " + file);
+		}
+		modified = false;
+	}
+
+	/**
+	 * @return Number of entries
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Modes of using the cached answers.
+	 */
+	public enum Mode {
+
+		/**
+		 * Cached answers are used as default values, fields are still asked.
+		 */
+		PREFILL,
+
+		/**
+		 * Cached answers are used without asking the fields.
+		 */
+		SKIP
+	}
+
+	private static class CacheEntry {
+
+		private final long schemaHash;
+		private final Map<String, String> answers = new LinkedHashMap<>();
+
+		private CacheEntry(long schemaHash) {
+			this.schemaHash = schemaHash;
+		}
+	}
+}
@@ -0,0 +1,383 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.store;
+
+import hu.juzraai.toolbox.log.LoggerFactory;
+import org.slf4j.Logger;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent history of the answers given to fields, used to offer the most
+ * frequent or the most recent answer as default value when the field has no
+ * explicit default.
+ * <p>
+ * Fields are identified by their class and name (see {@link #keyOf(Class,
+ * String)}). For each field, a limited number of distinct answers are kept
+ * with their use count and the time of their last use. When the limit is
+ * reached, the least frequently used answer is evicted, and from answers
+ * used equally often, the least recently used one.
+ * <p>
+ * The history is stored in an append-only binary file: every {@link
+ * #record(String, String)} appends one small record, so nothing is rewritten
+ * while asking. The file is read in {@link #AnswerHistory(File, int)}; if it
+ * contains many more records than the history itself (e.g. after months of
+ * use) or its last record is truncated, it's compacted, so loading stays
+ * fast.
+ *
+ * @author Zsolt Jurányi
+ */
+public class AnswerHistory implements Closeable {
+
+	/**
+	 * Default maximum number of distinct answers per field.
+	 */
+	public static final int DEFAULT_MAX_ANSWERS = 16;
+
+	private static final Logger L = LoggerFactory.getLogger(AnswerHistory.class);
+	private static final int MAGIC = 0x434c4148; // "CLAH"
+	private static final int VERSION = 1;
+	private static final int MAX_LENGTH = 16384; // fits in writeUTF's limit
+	private static final int COMPACT_MIN_RECORDS = 1024;
+
+	private final File file;
+	private final int maxAnswers;
+	private final Map<String, Map<String, Answer>> fields = new HashMap<>();
+	private DataOutputStream out;
+	private long sequence;
+	private boolean truncated;
+	private boolean readOnly;
+
+	/**
+	 * Creates a new instance and loads the history from the given file, if it
+	 * exists. If the file can't be read, the error is logged and the history
+	 * starts empty. A truncated last record (e.g. after a crash) is dropped.
+	 * If the file can't be loaded or compacted, it's moved aside (see {@link
+	 * #discard()}), so new records go to a new, valid file.
+	 *
+	 * @param file       History file
+	 * @param maxAnswers Maximum number of distinct answers per field
+	 */
+	public AnswerHistory(@Nonnull File file, int maxAnswers) {
+		if (maxAnswers < 1) {
+			throw new IllegalArgumentException("maxAnswers must be positive");
+		}
+		this.file = file;
+		this.maxAnswers = maxAnswers;
+		if (file.isFile()) {
+			long records;
+			try {
+				records = load();
+			} catch (IOException e) {
+				L.warn("Failed to load answer history '{}', starting a new one: {}", file, e.getMessage());
+				fields.clear();
+				sequence = 0;
+				discard();
+				return;
+			}
+			if (truncated || records > COMPACT_MIN_RECORDS && records > 2 * size()) {
+				try {
+					compact();
+				} catch (IOException e) {
+					L.warn("Failed to compact answer history '{}', starting a new file: {}", file, e.getMessage());
+					discard();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Builds the key of a field.
+	 *
+	 * @param type      Class which the field belongs to
+	 * @param fieldName Name of the field
+	 * @return Key of the field
+	 */
+	@Nonnull
+	public static String keyOf(@Nonnull Class<?> type, @Nonnull String fieldName) {
+		return type.getName() + "." + fieldName;
+	}
+
+	/**
+	 * Closes the history file. Later records will reopen it.
+	 *
+	 * @throws IOException if the file couldn't be closed
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (null != out) {
+			try {
+				out.close();
+			} finally {
+				out = null;
+			}
+		}
+	}
+
+	/**
+	 * Rewrites the history file so that it contains only one record per
+	 * answer, in the order of their last use.
+	 *
+	 * @throws IOException if the file couldn't be written
+	 */
+	protected synchronized void compact() throws IOException {
+		close();
+		List<Map.Entry<String, Answer>> answers = new ArrayList<>();
+		for (Map.Entry<String, Map<String, Answer>> field : fields.entrySet()) {
+			for (Answer answer : field.getValue().values()) {
+				answers.add(new AbstractMap.SimpleEntry<>(field.getKey(), answer));
+			}
+		}
+		Collections.sort(answers, new Comparator<Map.Entry<String, Answer>>() {
+			@Override
+			public int compare(Map.Entry<String, Answer> a, Map.Entry<String, Answer> b) {
+				return Long.compare(a.getValue().lastUsed, b.getValue().lastUsed);
+			}
+		});
+		File tmp = new File(file.getPath() + ".tmp");
+		try (DataOutputStream o = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+			writeHeader(o);
+			for (Map.Entry<String, Answer> answer : answers) {
+				writeRecord(o, answer.getKey(), answer.getValue().value, answer.getValue().count);
+			}
+		}
+		if (!tmp.renameTo(file) && !(file.delete() && tmp.renameTo(file))) {
+			throw new IOException("Failed to replace " + file);
+		}
+		L.debug("Answer history '{}' compacted to {} record(s)", file, answers.size());
+	}
+
+	/**
+	 * Moves the damaged history file aside (to a file with
+	 * <code>.broken</code> suffix), so the next record starts a new file with
+	 * a header. If it can't be moved, it's truncated to a header. If that
+	 * fails too, the history is not written anymore, only kept in memory.
+	 */
+	protected synchronized void discard() {
+		try {
+			close();
+		} catch (IOException e) {
+			L.debug("Failed to close answer history '{}': {}", file, e.getMessage());
+		}
+		File broken = new File(file.getPath() + ".broken");
+		if ((!broken.exists() || broken.delete()) && file.renameTo(broken)) {
+			L.warn("Damaged answer history moved to '{}'", broken);
+			return;
+		}
+		try (DataOutputStream o = new DataOutputStream(new FileOutputStream(file))) {
+			writeHeader(o);
+		} catch (IOException e) {
+			L.warn("Failed to reset answer history '{}', answers won't be saved: {}", file, e.getMessage());
+			readOnly = true;
+		}
+	}
+
+	/**
+	 * @return The history file
+	 */
+	@Nonnull
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Reads the records of the history file.
+	 *
+	 * @return Number of records read, not including a truncated last record
+	 * @throws IOException if the file couldn't be read or has unknown format
+	 */
+	protected long load() throws IOException {
+		long records = 0;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+			if (MAGIC != in.readInt() || VERSION != in.readInt()) {
+				throw new IOException("Unknown file format");
+			}
+			while (true) {
+				in.mark(1);
+				if (in.read() < 0) {
+					break;
+				}
+				in.reset();
+				try {
+					use(in.readUTF(), in.readUTF(), in.readLong());
+				} catch (EOFException e) {
+					truncated = true; // appending after a partial record would corrupt the file
+					break;
+				}
+				records++;
+			}
+		}
+		return records;
+	}
+
+	/**
+	 * Records the given answer of the given field: increments its use count
+	 * and updates the time of its last use, then appends a record to the
+	 * history file. Very long answers (over 16384 characters) are not stored.
+	 * Write errors are logged, the history is still updated in memory.
+	 *
+	 * @param key   Key of the field, see {@link #keyOf(Class, String)}
+	 * @param value Raw answer
+	 */
+	public synchronized void record(@Nonnull String key, @Nonnull String value) {
+		if (key.length() > MAX_LENGTH || value.length() > MAX_LENGTH) {
+			return;
+		}
+		use(key, value, 1);
+		if (readOnly) {
+			return;
+		}
+		try {
+			if (null == out) {
+				boolean exists = file.isFile() && file.length() > 0;
+				out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+				if (!exists) {
+					writeHeader(out);
+				}
+			}
+			writeRecord(out, key, value, 1);
+			out.flush();
+		} catch (IOException e) {
+			L.warn("Failed to write answer history '{}': {}", file, e.getMessage());
+		}
+	}
+
+	/**
+	 * @return Number of stored answers of all fields
+	 */
+	public synchronized int size() {
+		int size = 0;
+		for (Map<String, Answer> answers : fields.values()) {
+			size += answers.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the best answer of the given field according to the given
+	 * ranking.
+	 *
+	 * @param key     Key of the field, see {@link #keyOf(Class, String)}
+	 * @param ranking How to select the answer
+	 * @return The best answer or <code>null</code> if the field has no history
+	 */
+	@CheckForNull
+	public synchronized String suggest(@Nonnull String key, @Nonnull Ranking ranking) {
+		Map<String, Answer> answers = fields.get(key);
+		if (null == answers) {
+			return null;
+		}
+		Answer best = null;
+		for (Answer answer : answers.values()) {
+			if (null == best || compare(ranking, answer, best) > 0) {
+				best = answer;
+			}
+		}
+		return null == best ? null : best.value;
+	}
+
+	private static int compare(@Nonnull Ranking ranking, @Nonnull Answer a, @Nonnull Answer b) {
+		if (Ranking.FREQUENT == ranking && a.count != b.count) {
+			return Long.compare(a.count, b.count);
+		}
+		return Long.compare(a.lastUsed, b.lastUsed);
+	}
+
+	private void use(@Nonnull String key, @Nonnull String value, long count) {
+		Map<String, Answer> answers = fields.get(key);
+		if (null == answers) {
+			answers = new HashMap<>();
+			fields.put(key, answers);
+		}
+		Answer answer = answers.get(value);
+		if (null == answer) {
+			if (answers.size() >= maxAnswers) {
+				Answer evicted = null;
+				for (Answer a : answers.values()) {
+					if (null == evicted || compare(Ranking.FREQUENT, a, evicted) < 0) {
+						evicted = a;
+					}
+				}
+				answers.remove(evicted.value);
+			}
+			answer = new Answer(value);
+			answers.put(value, answer);
+		}
+		answer.count += count;
+		answer.lastUsed = ++sequence;
+	}
+
+	private static void writeHeader(@Nonnull DataOutputStream out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+	}
+
+	private static void writeRecord(@Nonnull DataOutputStream out, @Nonnull String key, @Nonnull String value, long count) throws IOException {
+		out.writeUTF(key);
+		out.writeUTF(value);
+		out.writeLong(count);
+	}
+
+	/**
+	 * Ways of selecting the answer to be offered as default value.
+	 */
+	public enum Ranking {
+
+		/**
+		 * The most frequently used answer, or the most recent one from answers
+		 * used equally often.
+		 */
+		FREQUENT,
+
+		/**
+		 * The most recently used answer.
+		 */
+		RECENT
+	}
+
+	/**
+	 * A distinct answer of a field with its use statistics.
+	 */
+	private static class Answer {
+
+		private final String value;
+		private long count;
+		private long lastUsed;
+
+		private Answer(@Nonnull String value) {
+			this.value = value;
+		}
+	}
+}
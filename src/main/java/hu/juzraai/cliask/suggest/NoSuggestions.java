@@ -0,0 +1,38 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.suggest;
+
+import hu.juzraai.cliask.annotation.Ask;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * This suggestion source class is used only for default value in {@link Ask}
+ * annotation, it means the field has no suggestions.
+ *
+ * @author Zsolt Jurányi
+ */
+public class NoSuggestions implements SuggestionSource {
+
+	@Nonnull
+	@Override
+	public Collection<String> values() {
+		return Collections.emptyList();
+	}
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.suggest;
+
+import hu.juzraai.cliask.inspect.InspectFailedException;
+import hu.juzraai.cliask.inspect.Instantiators;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Compact index of a field's valid values, which can provide prefix
+ * completions and "did you mean" suggestions for an invalid input.
+ * <p>
+ * Values are stored in a sorted array (keyed by their lower case form), so
+ * prefix completion is a binary search followed by a sequential read. "Did you
+ * mean" suggestions are calculated with a bounded edit distance, within a time
+ * budget: if the budget runs out, the best candidates found so far are
+ * returned.
+ * <p>
+ * Indexes are built once per {@link SuggestionSource} class and cached, see
+ * {@link #of(Class)}.
+ *
+ * @author Zsolt Jurányi
+ */
+public class SuggestionIndex {
+
+	/**
+	 * Default time budget of {@link #suggest(String)}, in nanoseconds.
+	 */
+	public static final long DEFAULT_BUDGET_NANOS = 20000000L; // 20 ms
+
+	/**
+	 * Default maximum number of suggestions returned by {@link
+	 * #suggest(String)}.
+	 */
+	public static final int DEFAULT_LIMIT = 5;
+
+	private static final ConcurrentMap<Class<? extends SuggestionSource>, SuggestionIndex> INDEXES = new ConcurrentHashMap<>();
+
+	private final String[] keys;
+	private final String[] values;
+
+	/**
+	 * Creates a new instance and builds the index.
+	 *
+	 * @param values Valid values, duplicates are ignored
+	 */
+	public SuggestionIndex(@Nonnull Collection<String> values) {
+		TreeMap<String, String> sorted = new TreeMap<>();
+		for (String value : values) {
+			if (null != value && !value.isEmpty()) {
+				String key = value.toLowerCase(Locale.ROOT);
+				if (!sorted.containsKey(key)) {
+					sorted.put(key, value);
+				}
+			}
+		}
+		this.keys = sorted.keySet().toArray(new String[sorted.size()]);
+		this.values = sorted.values().toArray(new String[sorted.size()]);
+	}
+
+	/**
+	 * Returns the cached index of the given suggestion source class, builds it
+	 * if needed.
+	 *
+	 * @param sourceClass Suggestion source class with no-arg constructor
+	 * @return Index of the values provided by the given class
+	 * @throws InspectFailedException if the class cannot be instantiated (see
+	 *                                {@link Instantiators})
+	 */
+	@Nonnull
+	public static SuggestionIndex of(@Nonnull Class<? extends SuggestionSource> sourceClass) throws InspectFailedException {
+		SuggestionIndex index = INDEXES.get(sourceClass);
+		if (null == index) {
+			index = new SuggestionIndex(Instantiators.newInstance(sourceClass).values());
+			SuggestionIndex existing = INDEXES.putIfAbsent(sourceClass, index);
+			if (null != existing) {
+				index = existing;
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Calculates the edit distance of two strings, but stops when it's sure
+	 * the distance is greater than the given limit.
+	 *
+	 * @param a   First string
+	 * @param b   Second string
+	 * @param max Maximum distance of interest
+	 * @return The edit distance, or <code>max + 1</code> if it's greater than
+	 * <code>max</code>
+	 */
+	protected static int boundedDistance(@Nonnull String a, @Nonnull String b, int max) {
+		if (Math.abs(a.length() - b.length()) > max) {
+			return max + 1;
+		}
+		int[] previous = new int[b.length() + 1];
+		int[] current = new int[b.length() + 1];
+		for (int j = 0; j <= b.length(); j++) {
+			previous[j] = j;
+		}
+		for (int i = 1; i <= a.length(); i++) {
+			current[0] = i;
+			int rowMin = current[0];
+			char ca = a.charAt(i - 1);
+			for (int j = 1; j <= b.length(); j++) {
+				int cost = ca == b.charAt(j - 1) ? 0 : 1;
+				current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+				rowMin = Math.min(rowMin, current[j]);
+			}
+			if (rowMin > max) {
+				return max + 1;
+			}
+			int[] t = previous;
+			previous = current;
+			current = t;
+		}
+		return Math.min(previous[b.length()], max + 1);
+	}
+
+	/**
+	 * Returns the values which start with the given prefix, ignoring case.
+	 *
+	 * @param prefix Beginning of the value
+	 * @param limit  Maximum number of values to be returned
+	 * @return Values starting with the given prefix, in alphabetical order
+	 */
+	@Nonnull
+	public List<String> complete(@Nonnull String prefix, int limit) {
+		String key = prefix.toLowerCase(Locale.ROOT);
+		List<String> r = new ArrayList<>();
+		int i = Arrays.binarySearch(keys, key);
+		for (i = i < 0 ? -i - 1 : i; i < keys.length && r.size() < limit && keys[i].startsWith(key); i++) {
+			r.add(values[i]);
+		}
+		return r;
+	}
+
+	/**
+	 * @param value Value to be checked
+	 * @return Whether the given value is in the index (ignoring case)
+	 */
+	public boolean contains(@Nonnull String value) {
+		return Arrays.binarySearch(keys, value.toLowerCase(Locale.ROOT)) >= 0;
+	}
+
+	/**
+	 * Returns the values most similar to the given input. Only values within
+	 * an edit distance of one third of the input length (but at least 1) are
+	 * considered. The search stops when the time budget runs out.
+	 *
+	 * @param input       Invalid input
+	 * @param limit       Maximum number of values to be returned
+	 * @param budgetNanos Time budget in nanoseconds
+	 * @return Similar values, the most similar ones first
+	 */
+	@Nonnull
+	public List<String> didYouMean(@Nonnull String input, int limit, long budgetNanos) {
+		String key = input.toLowerCase(Locale.ROOT);
+		int max = Math.max(1, key.length() / 3);
+		long deadline = System.nanoTime() + budgetNanos;
+
+		// candidate lists by distance, so we don't need to sort
+		List<List<String>> byDistance = new ArrayList<>();
+		for (int d = 0; d <= max; d++) {
+			byDistance.add(new ArrayList<String>());
+		}
+		// values sharing a long prefix with the input are checked first: we
+		// start at the input's position in the sorted array and go outwards
+		int start = Arrays.binarySearch(keys, key);
+		start = start < 0 ? -start - 1 : start;
+		for (int n = 0; n < keys.length; n++) {
+			if ((n & 0xFF) == 0xFF && System.nanoTime() > deadline) {
+				break;
+			}
+			int i = outward(start, n, keys.length);
+			int d = boundedDistance(key, keys[i], max);
+			if (d <= max) {
+				byDistance.get(d).add(values[i]);
+				if (d < max && byDistance.get(d).size() >= limit) {
+					max = d; // no need to look for worse candidates
+				}
+			}
+		}
+
+		List<String> r = new ArrayList<>();
+		for (List<String> candidates : byDistance) {
+			for (String candidate : candidates) {
+				if (r.size() < limit) {
+					r.add(candidate);
+				}
+			}
+		}
+		return r;
+	}
+
+	/**
+	 * Calculates the n-th index when visiting an array of the given length
+	 * outwards from the given start index: start, start-1, start+1,
+	 * start-2, ... and when one side runs out, the rest of the other side.
+	 *
+	 * @param start  Start index
+	 * @param n      Step number
+	 * @param length Length of the array
+	 * @return Index to be visited in the n-th step
+	 */
+	protected static int outward(int start, int n, int length) {
+		int below = start; // number of indexes before start
+		int above = length - start; // number of indexes from start
+		int pairs = Math.min(below, above);
+		if (n < 2 * pairs) {
+			return 0 == n % 2 ? start + n / 2 : start - 1 - n / 2;
+		}
+		int rest = n - 2 * pairs;
+		return below > above ? start - 1 - pairs - rest : start + pairs + rest;
+	}
+
+	/**
+	 * @return Number of indexed values
+	 */
+	public int size() {
+		return keys.length;
+	}
+
+	/**
+	 * Returns prefix completions of the given input, or if there's none,
+	 * "did you mean" suggestions. Uses {@link #DEFAULT_LIMIT} and {@link
+	 * #DEFAULT_BUDGET_NANOS}.
+	 *
+	 * @param input Invalid input
+	 * @return Suggested values
+	 */
+	@Nonnull
+	public List<String> suggest(@Nonnull String input) {
+		List<String> r = complete(input, DEFAULT_LIMIT);
+		if (r.isEmpty()) {
+			r = didYouMean(input, DEFAULT_LIMIT, DEFAULT_BUDGET_NANOS);
+		}
+		return r;
+	}
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.suggest;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+
+/**
+ * Interface of classes which provide the valid values of a field, to be used
+ * for "did you mean" suggestions and prefix completions when the user gives
+ * invalid input. Implementations must have a no-arg constructor.
+ * <p>
+ * {@link #values()} is called only once per implementation class, the values
+ * are indexed by {@link SuggestionIndex} and the index is shared.
+ *
+ * @author Zsolt Jurányi
+ */
+public interface SuggestionSource {
+
+	/**
+	 * @return The valid values of the field
+	 */
+	@Nonnull
+	Collection<String> values();
+}
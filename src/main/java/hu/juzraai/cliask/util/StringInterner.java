@@ -0,0 +1,121 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.util;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded, thread-safe deduplication table for strings. Equal strings passed
+ * to {@link #intern(String)} will be replaced with the same instance, so
+ * low-cardinality values (e.g. region or tier names) won't be stored in
+ * separate objects when filling a lot of POJOs.
+ * <p>
+ * Unlike <code>String.intern()</code>, this table has a capacity: when it's
+ * full, new values are not stored anymore, they are returned as they are.
+ * Values already in the table are still deduplicated.
+ *
+ * @author Zsolt Jurányi
+ */
+public class StringInterner {
+
+	private final int capacity;
+	private final ConcurrentMap<String, String> table;
+	private final AtomicInteger size = new AtomicInteger();
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param capacity Maximum number of distinct values to be stored
+	 */
+	public StringInterner(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive");
+		}
+		this.capacity = capacity;
+		this.table = new ConcurrentHashMap<>(Math.min(capacity, 1024));
+	}
+
+	/**
+	 * Removes all values from the table.
+	 */
+	public void clear() {
+		table.clear();
+		size.set(0);
+	}
+
+	/**
+	 * @return Maximum number of distinct values to be stored
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns the canonical instance of the given string. If the table already
+	 * contains an equal string, that instance will be returned. Otherwise the
+	 * given string will be stored (if there's room for it) and returned.
+	 *
+	 * @param s String to be deduplicated
+	 * @return The stored instance which equals to the given string, or the
+	 * given string itself
+	 */
+	@Nonnull
+	public String intern(@Nonnull String s) {
+		String existing = table.get(s);
+		if (null != existing) {
+			return existing;
+		}
+		if (!reserve()) {
+			return s;
+		}
+		existing = table.putIfAbsent(s, s);
+		if (null == existing) {
+			return s;
+		}
+		size.decrementAndGet();
+		return existing;
+	}
+
+	/**
+	 * Reserves a slot for a new value, so concurrent callers cannot store more
+	 * values than the capacity.
+	 *
+	 * @return <code>true</code> if a slot was reserved, <code>false</code> if
+	 * the table is full
+	 */
+	private boolean reserve() {
+		while (true) {
+			int current = size.get();
+			if (current >= capacity) {
+				return false;
+			}
+			if (size.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * @return Number of distinct values currently stored
+	 */
+	public int size() {
+		return size.get();
+	}
+}
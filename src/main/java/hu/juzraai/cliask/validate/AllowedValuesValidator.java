@@ -0,0 +1,54 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.validate;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Checks whether the raw input is one of the given values.
+ *
+ * @author Zsolt Jurányi
+ */
+public class AllowedValuesValidator implements Validator<String> {
+
+	private final Set<String> allowedValues;
+	private final ValidationFailedException failure;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param allowedValues Accepted input values (case-sensitive)
+	 */
+	public AllowedValuesValidator(@Nonnull String... allowedValues) {
+		this.allowedValues = new HashSet<>(Arrays.asList(allowedValues));
+		StringBuilder s = new StringBuilder();
+		for (String allowedValue : allowedValues) {
+			s.append(s.length() > 0 ? "|" : "").append(allowedValue);
+		}
+		this.failure = new ValidationFailedException(String.format("Invalid value, specify one of these: %s", s), false);
+	}
+
+	@Override
+	public void validate(@Nonnull String value) throws ValidationFailedException {
+		if (!allowedValues.contains(value)) {
+			throw failure;
+		}
+	}
+}
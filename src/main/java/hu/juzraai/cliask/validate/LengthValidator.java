@@ -0,0 +1,57 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.validate;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Checks whether the length of the raw input is between the given bounds.
+ *
+ * @author Zsolt Jurányi
+ */
+public class LengthValidator implements Validator<String> {
+
+	private final int minLength;
+	private final int maxLength;
+	private final ValidationFailedException failure;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param minLength Minimum length (inclusive)
+	 * @param maxLength Maximum length (inclusive)
+	 */
+	public LengthValidator(int minLength, int maxLength) {
+		this.minLength = minLength;
+		this.maxLength = maxLength;
+		if (Integer.MAX_VALUE == maxLength) {
+			this.failure = new ValidationFailedException(String.format("Value must be at least %d characters long", minLength), false);
+		} else if (0 >= minLength) {
+			this.failure = new ValidationFailedException(String.format("Value must be at most %d characters long", maxLength), false);
+		} else {
+			this.failure = new ValidationFailedException(String.format("Value must be %d-%d characters long", minLength, maxLength), false);
+		}
+	}
+
+	@Override
+	public void validate(@Nonnull String value) throws ValidationFailedException {
+		int length = value.length();
+		if (length < minLength || length > maxLength) {
+			throw failure;
+		}
+	}
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.validate;
+
+import javax.annotation.Nonnull;
+import java.util.regex.Pattern;
+
+/**
+ * Checks whether the raw input matches the given regular expression. The
+ * pattern is compiled once, in the constructor.
+ *
+ * @author Zsolt Jurányi
+ */
+public class PatternValidator implements Validator<String> {
+
+	private final Pattern pattern;
+	private final ValidationFailedException failure;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param regex Regular expression which should match the whole input
+	 * @throws java.util.regex.PatternSyntaxException if the expression's
+	 *                                                syntax is invalid
+	 */
+	public PatternValidator(@Nonnull String regex) {
+		this.pattern = Pattern.compile(regex);
+		this.failure = new ValidationFailedException(String.format("Value must match pattern: %s", regex), false);
+	}
+
+	@Override
+	public void validate(@Nonnull String value) throws ValidationFailedException {
+		if (!pattern.matcher(value).matches()) {
+			throw failure;
+		}
+	}
+}
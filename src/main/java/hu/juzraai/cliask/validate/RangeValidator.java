@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.validate;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Checks whether a converted numeric value is between the given bounds.
+ * Integer values (<code>byte</code>, <code>short</code>, <code>int</code>,
+ * <code>long</code>) are compared as <code>long</code> values, other numbers
+ * are compared as <code>double</code> values. Non-numeric values are ignored.
+ *
+ * @author Zsolt Jurányi
+ */
+public class RangeValidator implements Validator<Object> {
+
+	private final double min;
+	private final double max;
+	private final long minLong;
+	private final long maxLong;
+	private final ValidationFailedException failure;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param min Minimum value (inclusive), can be negative infinity
+	 * @param max Maximum value (inclusive), can be positive infinity
+	 */
+	public RangeValidator(double min, double max) {
+		this.min = min;
+		this.max = max;
+		this.minLong = (long) Math.ceil(min); // saturates at Long.MIN_VALUE
+		this.maxLong = (long) Math.floor(max); // saturates at Long.MAX_VALUE
+		if (Double.isInfinite(max)) {
+			this.failure = new ValidationFailedException(String.format("Value must be at least %s", format(min)), false);
+		} else if (Double.isInfinite(min)) {
+			this.failure = new ValidationFailedException(String.format("Value must be at most %s", format(max)), false);
+		} else {
+			this.failure = new ValidationFailedException(String.format("Value must be between %s and %s", format(min), format(max)), false);
+		}
+	}
+
+	@Nonnull
+	protected static String format(double d) {
+		return d == Math.rint(d) && !Double.isInfinite(d) && Math.abs(d) < 1e15
+				? Long.toString((long) d)
+				: Double.toString(d);
+	}
+
+	/**
+	 * @param type Type of the value
+	 * @return Whether the given type is supported by this validator
+	 */
+	public static boolean supports(@Nonnull Class<?> type) {
+		return Number.class.isAssignableFrom(type)
+				|| (type.isPrimitive() && Boolean.TYPE != type && Character.TYPE != type && Void.TYPE != type);
+	}
+
+	@Override
+	public void validate(@Nonnull Object value) throws ValidationFailedException {
+		boolean valid = true;
+		if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			long l = ((Number) value).longValue();
+			valid = l >= minLong && l <= maxLong;
+		} else if (value instanceof Number) {
+			double d = ((Number) value).doubleValue();
+			valid = d >= min && d <= max;
+		}
+		if (!valid) {
+			throw failure;
+		}
+	}
+}
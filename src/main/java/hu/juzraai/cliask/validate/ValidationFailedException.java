@@ -0,0 +1,49 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.validate;
+
+/**
+ * Exception type used in validators. The message should describe the problem
+ * for the user, because it will be printed out before asking again.
+ *
+ * @author Zsolt Jurányi
+ */
+public class ValidationFailedException extends Exception {
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param message Exception message which describes the problem for the
+	 *                user
+	 */
+	public ValidationFailedException(String message) {
+		super(message);
+	}
+
+	/**
+	 * Creates a new instance. Instances created without a writable stack
+	 * trace are cheap to create and can be preallocated and thrown multiple
+	 * times, which is useful for invalid user input, a non-exceptional event.
+	 *
+	 * @param message            Exception message which describes the
+	 *                           problem for the user
+	 * @param writableStackTrace Whether the stack trace should be filled in
+	 */
+	public ValidationFailedException(String message, boolean writableStackTrace) {
+		super(message, null, false, writableStackTrace);
+	}
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.validate;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Interface of validators which check a raw input string or a converted value
+ * before it's set to the field.
+ *
+ * @author Zsolt Jurányi
+ */
+public interface Validator<T> {
+
+	/**
+	 * This method should check the given value and produce {@link
+	 * ValidationFailedException} if it's invalid.
+	 *
+	 * @param value The value to be checked
+	 * @throws ValidationFailedException If the value is invalid
+	 */
+	void validate(@Nonnull T value) throws ValidationFailedException;
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask;
+
+import hu.juzraai.cliask.annotation.Ask;
+import hu.juzraai.cliask.console.VirtualConsole;
+import hu.juzraai.cliask.convert.ConvertFailedException;
+import hu.juzraai.cliask.convert.ConvertTo;
+import hu.juzraai.cliask.input.ReaderLineInput;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Zsolt Jurányi
+ */
+public class PipelineTest {
+
+	private static final Set<String> CONVERTER_THREADS = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+	private static final String[] SCRIPT = {"a1", "99", "5", "c1"};
+
+	private ExecutorService pipeline;
+
+	@Before
+	public void setUp() {
+		CONVERTER_THREADS.clear();
+		pipeline = Executors.newFixedThreadPool(2, new ThreadFactory() {
+			@Override
+			public Thread newThread(@Nonnull Runnable r) {
+				return new Thread(r, "pipeline");
+			}
+		});
+	}
+
+	@After
+	public void tearDown() {
+		pipeline.shutdown();
+	}
+
+	@Test
+	public void pipelinedModeRecordsSamePromptsAsSequentialMode() {
+		VirtualConsole sequential = new VirtualConsole(SCRIPT);
+		Answers expected = sequential.attach(new AskSession()).object(new Answers());
+
+		VirtualConsole pipelined = new VirtualConsole(SCRIPT);
+		AskSession session = pipelined.attach(new AskSession());
+		session.setPipeline(pipeline, AskSession.DEFAULT_PIPELINE_DEPTH);
+		Answers actual = session.object(new Answers());
+
+		assertEquals(4, sequential.getPrompts().size());
+		assertEquals(sequential.getPrompts(), pipelined.getPrompts());
+		assertEquals(sequential.getOutput(), pipelined.getOutput());
+		assertEquals(expected.toString(), actual.toString());
+		assertEquals("a1 5 C1", actual.toString());
+		pipelined.assertPrompt(2, "b");
+		pipelined.assertPrompt(3, "c");
+		pipelined.assertAllInputConsumed();
+		assertTrue(CONVERTER_THREADS.toString(), CONVERTER_THREADS.contains("pipeline"));
+	}
+
+	@Test
+	public void nonPeekableInputIsReadAheadThroughBuffer() {
+		ByteArrayOutputStream sequentialOutput = new ByteArrayOutputStream();
+		AskSession sequential = new AskSession();
+		sequential.setInput(new ReaderLineInput(new StringReader("a1\n99\n5\nc1\n")));
+		sequential.setOutput(new PrintStream(sequentialOutput, true));
+		Answers expected = sequential.object(new Answers());
+
+		ByteArrayOutputStream pipelinedOutput = new ByteArrayOutputStream();
+		AskSession pipelined = new AskSession();
+		pipelined.setInput(new ReaderLineInput(new StringReader("a1\n99\n5\nc1\n")));
+		pipelined.setOutput(new PrintStream(pipelinedOutput, true));
+		pipelined.setPipeline(pipeline, 2);
+		Answers actual = pipelined.object(new Answers());
+
+		assertEquals(expected.toString(), actual.toString());
+		assertEquals(sequentialOutput.toString(), pipelinedOutput.toString());
+	}
+
+	public static class Answers {
+
+		@Ask
+		String a;
+
+		@Ask(max = 10)
+		int b;
+
+		@Ask(converter = UpperCase.class)
+		String c;
+
+		@Override
+		public String toString() {
+			return a + " " + b + " " + c;
+		}
+	}
+
+	public static class UpperCase implements ConvertTo<String> {
+
+		@Override
+		public String convert(@Nonnull String rawValue) throws ConvertFailedException {
+			CONVERTER_THREADS.add(Thread.currentThread().getName());
+			return rawValue.toUpperCase();
+		}
+	}
+}
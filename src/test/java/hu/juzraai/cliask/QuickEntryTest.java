@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask;
+
+import hu.juzraai.cliask.annotation.Ask;
+import hu.juzraai.cliask.console.VirtualConsole;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Zsolt Jurányi
+ */
+public class QuickEntryTest {
+
+	private AskSession session;
+	private VirtualConsole console;
+
+	@Before
+	public void setUp() {
+		session = new AskSession();
+		session.setQuickEntry(true);
+		console = new VirtualConsole();
+		console.attach(session);
+	}
+
+	@Test
+	public void completeLineNeedsNoFurtherPrompt() {
+		console.add("name=\"Foo Bar\" age=42 database.host=db1");
+		Person person = session.object(new Person());
+		assertEquals("Foo Bar", person.name);
+		assertEquals(42, person.age);
+		assertEquals("Budapest", person.city);
+		assertEquals("db1", person.database.host);
+		assertEquals(5432, person.database.port);
+		assertEquals(1, console.getPrompts().size());
+		console.assertAllInputConsumed();
+	}
+
+	@Test
+	public void asksOnlyMissingAndInvalidFields() {
+		console.add("name=foo age=200", "42", "db1");
+		Person person = session.object(new Person());
+		console.assertOutputContains("age: Value must be at most 150");
+		assertEquals("foo", person.name);
+		assertEquals(42, person.age);
+		assertEquals("db1", person.database.host);
+		console.assertPrompt(1, "age");
+		console.assertPrompt(2, "host");
+		console.assertAllInputConsumed();
+	}
+
+	@Test
+	public void reportsUnknownNestedFields() {
+		console.add("name=foo age=1 database.hots=x database.host=db1 bogus=1");
+		Person person = session.object(new Person());
+		console.assertOutputContains("Unknown field: database.hots");
+		console.assertOutputContains("Unknown field: bogus");
+		assertEquals("db1", person.database.host);
+		console.assertAllInputConsumed();
+	}
+
+	public static class Database {
+
+		@Ask
+		String host;
+
+		@Ask
+		int port = 5432;
+	}
+
+	public static class Person {
+
+		@Ask
+		String name;
+
+		@Ask(max = 150)
+		int age;
+
+		@Ask
+		String city = "Budapest";
+
+		@Ask(recursive = true)
+		Database database;
+	}
+}
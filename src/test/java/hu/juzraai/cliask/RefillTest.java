@@ -0,0 +1,162 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask;
+
+import hu.juzraai.cliask.annotation.Ask;
+import hu.juzraai.cliask.console.VirtualConsole;
+import hu.juzraai.cliask.source.PropertiesSource;
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Zsolt Jurányi
+ */
+public class RefillTest {
+
+	private static Account account() {
+		Account account = new Account();
+		account.name = "Bob";
+		account.level = 3;
+		account.email = "bob@example.com";
+		account.address = new Address();
+		account.address.city = "Paris";
+		account.address.zip = "75001";
+		return account;
+	}
+
+	@Test
+	public void validFieldsAreNotAsked() {
+		VirtualConsole console = new VirtualConsole();
+		Account account = console.attach(new AskSession()).refill(null, account());
+		assertEquals("Bob 3 bob@example.com Paris 75001", account.toString());
+		assertTrue(console.getPrompts().isEmpty());
+	}
+
+	@Test
+	public void missingAndInvalidFieldsAreAsked() {
+		Account account = account();
+		account.level = 99;
+		account.email = null;
+		account.address.zip = null;
+		VirtualConsole console = new VirtualConsole("5", "bob@example.org", "75002");
+		console.attach(new AskSession()).refill(null, account);
+		assertEquals("Bob 5 bob@example.org Paris 75002", account.toString());
+		assertEquals(3, console.getPrompts().size());
+		console.assertPrompt(0, "level");
+		console.assertPrompt(1, "email");
+		console.assertPrompt(2, "zip");
+		console.assertAllInputConsumed();
+	}
+
+	@Test
+	public void staleFieldIsAskedEvenIfValid() {
+		VirtualConsole console = new VirtualConsole("Alice");
+		Account account = console.attach(new AskSession()).refill(null, account(), "name");
+		assertEquals("Alice 3 bob@example.com Paris 75001", account.toString());
+		assertEquals(1, console.getPrompts().size());
+		console.assertPrompt(0, "name");
+		console.assertAllInputConsumed();
+	}
+
+	@Test
+	public void staleRecursiveFieldMarksItsFieldsStale() {
+		VirtualConsole console = new VirtualConsole("Lyon", "69001");
+		Account account = console.attach(new AskSession()).refill(null, account(), "address");
+		assertEquals("Bob 3 bob@example.com Lyon 69001", account.toString());
+		assertEquals(2, console.getPrompts().size());
+		console.assertPrompt(0, "city");
+		console.assertPrompt(1, "zip");
+		console.assertAllInputConsumed();
+	}
+
+	@Test
+	public void refillDoesNotAffectLaterCalls() {
+		VirtualConsole console = new VirtualConsole("Alice", "4", "alice@example.com", "Rome", "00100");
+		AskSession session = console.attach(new AskSession());
+		session.refill(null, account());
+		Account account = session.object(account());
+		assertEquals("Alice 4 alice@example.com Rome 00100", account.toString());
+		assertEquals(5, console.getPrompts().size());
+		console.assertAllInputConsumed();
+	}
+
+	@Test
+	public void snapshotValuesAreUsedInsteadOfCurrentValues() {
+		AskSession session = new AskSession();
+		Properties snapshot = session.snapshot(account());
+		assertEquals("75001", snapshot.getProperty("address.zip"));
+
+		VirtualConsole console = new VirtualConsole();
+		Account account = new Account();
+		account.address = new Address();
+		console.attach(session).refill(null, account, new PropertiesSource(snapshot));
+		assertEquals("Bob 3 bob@example.com Paris 75001", account.toString());
+		assertTrue(console.getPrompts().isEmpty());
+	}
+
+	@Test
+	public void missingInvalidAndStaleSnapshotValuesAreAsked() {
+		AskSession session = new AskSession();
+		Properties snapshot = session.snapshot(account());
+		snapshot.remove("email");
+		snapshot.setProperty("level", "99");
+
+		VirtualConsole console = new VirtualConsole("7", "bob@example.org", "Lyon");
+		Account account = new Account();
+		account.address = new Address();
+		console.attach(session).refill(null, account, new PropertiesSource(snapshot), "address.city");
+		assertEquals("Bob 7 bob@example.org Lyon 75001", account.toString());
+		assertEquals(3, console.getPrompts().size());
+		console.assertPrompt(0, "level");
+		console.assertPrompt(1, "email");
+		console.assertPrompt(2, "city");
+		console.assertAllInputConsumed();
+	}
+
+	public static class Account {
+
+		@Ask
+		String name;
+
+		@Ask(max = 10)
+		int level;
+
+		@Ask
+		String email;
+
+		@Ask(recursive = true)
+		Address address;
+
+		@Override
+		public String toString() {
+			return name + " " + level + " " + email + " " + address.city + " " + address.zip;
+		}
+	}
+
+	public static class Address {
+
+		@Ask
+		String city;
+
+		@Ask
+		String zip;
+	}
+}
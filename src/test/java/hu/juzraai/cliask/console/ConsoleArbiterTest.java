@@ -0,0 +1,185 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.console;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Zsolt Jurányi
+ */
+public class ConsoleArbiterTest {
+
+	private static final String CLEAR = "\r\033[2K";
+	private static final String NL = System.getProperty("line.separator");
+
+	@Test
+	public void promptAndPrintAreWrittenDirectly() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ConsoleArbiter console = new ConsoleArbiter(new PrintStream(bytes, true));
+		console.prompt("Name: ");
+		assertEquals("Name: ", bytes.toString());
+		console.print("x" + NL);
+		assertEquals("Name: x" + NL, bytes.toString());
+		console.close();
+	}
+
+	@Test
+	public void backgroundLinesAppearAbovePromptWhichIsRedrawnOncePerBatch() throws InterruptedException {
+		GatedOutputStream gated = new GatedOutputStream();
+		ConsoleArbiter console = new ConsoleArbiter(new PrintStream(gated, false));
+		console.prompt("Name: ");
+		console.println("a");
+		assertTrue(gated.entered.await(5, TimeUnit.SECONDS)); // writer is printing the first batch
+		console.println("b");
+		console.println("c");
+		console.getStream().println("d");
+		gated.release.countDown();
+		console.close();
+		assertEquals("Name: " + CLEAR + "a" + NL + "Name: " + CLEAR + "b" + NL + "c" + NL + "d" + NL + "Name: ", gated.toString());
+	}
+
+	@Test
+	public void answeredPromptIsNotRedrawn() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ConsoleArbiter console = new ConsoleArbiter(new PrintStream(bytes, false));
+		console.prompt("Name: ");
+		console.print("joe" + NL);
+		console.answered();
+		console.println("done");
+		console.close();
+		assertEquals("Name: joe" + NL + "done" + NL, bytes.toString());
+	}
+
+	@Test
+	public void closePrintsQueuedOutput() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ConsoleArbiter console = new ConsoleArbiter(new PrintStream(bytes, false));
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 10000; i++) {
+			console.println("line " + i);
+			expected.append("line ").append(i).append(NL);
+		}
+		console.close();
+		assertEquals(expected.toString(), bytes.toString());
+	}
+
+	@Test
+	public void incompleteLinesAreBufferedPerThread() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ConsoleArbiter console = new ConsoleArbiter(new PrintStream(bytes, false));
+		final PrintStream stream = console.getStream();
+		ExecutorService other = Executors.newSingleThreadExecutor();
+		other.submit(new Runnable() {
+			@Override
+			public void run() {
+				stream.print("A1 ");
+			}
+		}).get();
+		stream.print("B1 ");
+		other.submit(new Runnable() {
+			@Override
+			public void run() {
+				stream.print("A2" + NL);
+			}
+		}).get();
+		stream.print("B2");
+		stream.flush(); // incomplete line is submitted on flush, line separator is appended
+		other.shutdown();
+		console.close();
+		assertEquals("A1 A2" + NL + "B1 B2" + NL, bytes.toString());
+	}
+
+	@Test
+	public void linesOfConcurrentWritersAreKeptWhole() throws InterruptedException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final ConsoleArbiter console = new ConsoleArbiter(new PrintStream(bytes, false));
+		console.prompt("> ");
+		Thread[] threads = new Thread[8];
+		for (int t = 0; t < threads.length; t++) {
+			final int id = t;
+			threads[t] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int i = 0; i < 1000; i++) {
+						if (0 == i % 2) {
+							console.println("thread " + id + " line " + i);
+						} else {
+							console.getStream().print("thread " + id + " ");
+							console.getStream().println("line " + i);
+						}
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		console.close();
+		Set<String> lines = new HashSet<>(Arrays.asList(bytes.toString().replace(CLEAR, "").replace("> ", "").split(NL)));
+		lines.remove("");
+		assertEquals(8000, lines.size());
+		for (String line : lines) {
+			assertTrue(line, line.matches("thread \\d line \\d+"));
+		}
+	}
+
+	/**
+	 * Blocks the writer thread of the arbiter at its first write, until
+	 * released.
+	 */
+	private static class GatedOutputStream extends OutputStream {
+
+		final CountDownLatch entered = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		@Override
+		public synchronized String toString() {
+			return bytes.toString();
+		}
+
+		@Override
+		public void write(int b) {
+			if ("cli-ask-console".equals(Thread.currentThread().getName())) {
+				entered.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			synchronized (this) {
+				bytes.write(b);
+			}
+		}
+	}
+}
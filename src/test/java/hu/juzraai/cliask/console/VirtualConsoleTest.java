@@ -0,0 +1,161 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.console;
+
+import hu.juzraai.cliask.AskSession;
+import hu.juzraai.cliask.annotation.Ask;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Zsolt Jurányi
+ */
+public class VirtualConsoleTest {
+
+	@Test
+	public void assertionsPassOnMatchingScenario() {
+		VirtualConsole console = new VirtualConsole("Bob", "42");
+		Person person = console.attach(new AskSession()).object(new Person());
+		assertEquals("Bob", person.name);
+		assertEquals(42, person.age);
+		assertEquals(2, console.getPrompts().size());
+		console.assertPrompt(0, "name");
+		console.assertPrompt(1, "age");
+		console.assertOutputContains("Bob");
+		console.assertAllInputConsumed();
+	}
+
+	@Test
+	public void assertPromptFailsOnOtherTextOrMissingPrompt() {
+		final VirtualConsole console = new VirtualConsole("Bob", "42");
+		console.attach(new AskSession()).object(new Person());
+		assertFails(new Runnable() {
+			@Override
+			public void run() {
+				console.assertPrompt(0, "age");
+			}
+		}, "Prompt #0 doesn't contain 'age'");
+		assertFails(new Runnable() {
+			@Override
+			public void run() {
+				console.assertPrompt(2, "name");
+			}
+		}, "there were only 2 prompt(s)");
+	}
+
+	@Test
+	public void assertOutputContainsFailsOnMissingText() {
+		final VirtualConsole console = new VirtualConsole("Bob", "42");
+		console.attach(new AskSession()).object(new Person());
+		assertFails(new Runnable() {
+			@Override
+			public void run() {
+				console.assertOutputContains("Alice");
+			}
+		}, "Output doesn't contain 'Alice'");
+	}
+
+	@Test
+	public void assertAllInputConsumedFailsOnUnreadLines() {
+		final VirtualConsole console = new VirtualConsole("Bob", "42", "extra");
+		console.attach(new AskSession()).object(new Person());
+		assertFails(new Runnable() {
+			@Override
+			public void run() {
+				console.assertAllInputConsumed();
+			}
+		}, "1 input line(s) not consumed: [extra]");
+	}
+
+	@Test
+	public void rejectedInputIsReaskedInNewPrompt() {
+		VirtualConsole console = new VirtualConsole("Bob", "many", "42");
+		Person person = console.attach(new AskSession()).object(new Person());
+		assertEquals(42, person.age);
+		assertEquals(3, console.getPrompts().size());
+		console.assertPrompt(2, "age");
+		console.assertAllInputConsumed();
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void endOfScriptFailsFast() {
+		VirtualConsole console = new VirtualConsole("Bob");
+		console.attach(new AskSession()).object(new Person());
+	}
+
+	@Test
+	public void parallelSessionsHaveIsolatedStreams() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<String>> results = new ArrayList<>();
+		for (int i = 0; i < 400; i++) {
+			final int id = i;
+			results.add(executor.submit(new Callable<String>() {
+				@Override
+				public String call() {
+					VirtualConsole console = new VirtualConsole("user" + id, Integer.toString(id));
+					Person person = console.attach(new AskSession()).object(new Person());
+					if (!("user" + id).equals(person.name) || id != person.age) {
+						return "Wrong values in scenario " + id;
+					}
+					console.assertAllInputConsumed();
+					String output = console.getOutput();
+					if (!output.contains("user" + id + System.getProperty("line.separator"))
+							|| output.replace("user" + id, "").contains("user")) {
+						return "Mixed output in scenario " + id + ": " + output;
+					}
+					return null;
+				}
+			}));
+		}
+		executor.shutdown();
+		for (Future<String> result : results) {
+			String problem = result.get();
+			assertNull(problem);
+		}
+	}
+
+	private static void assertFails(Runnable assertion, String message) {
+		boolean failed = false;
+		try {
+			assertion.run();
+		} catch (AssertionError e) {
+			failed = true;
+			assertTrue(e.getMessage(), e.getMessage().contains(message));
+		}
+		assertTrue("Assertion passed", failed);
+	}
+
+	public static class Person {
+
+		@Ask
+		String name;
+
+		@Ask
+		int age;
+	}
+}
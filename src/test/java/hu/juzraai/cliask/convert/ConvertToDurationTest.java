@@ -0,0 +1,95 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.convert;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * @author Zsolt Jurányi
+ */
+public class ConvertToDurationTest {
+
+	public static class ConvertToSeconds extends ConvertToDuration {
+		public ConvertToSeconds() {
+			super(TimeUnit.SECONDS);
+		}
+	}
+
+	private final ConvertToDuration converter = new ConvertToDuration();
+
+	@Test
+	public void singleUnitIsConvertedToMilliseconds() throws ConvertFailedException {
+		assertEquals(Long.valueOf(30000), converter.convert("30s"));
+		assertEquals(Long.valueOf(250), converter.convert("250ms"));
+		assertEquals(Long.valueOf(2), converter.convert("2000us"));
+		assertEquals(Long.valueOf(TimeUnit.DAYS.toMillis(2)), converter.convert("2D"));
+	}
+
+	@Test
+	public void partsAreSummed() throws ConvertFailedException {
+		assertEquals(Long.valueOf(TimeUnit.MINUTES.toMillis(90)), converter.convert("1h30m"));
+		assertEquals(Long.valueOf(TimeUnit.MINUTES.toMillis(90)), converter.convert(" 1h 30m "));
+		assertEquals(Long.valueOf(61500), converter.convert("1m1s500ms"));
+	}
+
+	@Test
+	public void numberWithoutUnitIsInTargetUnit() throws ConvertFailedException {
+		assertEquals(Long.valueOf(1500), converter.convert("1_500"));
+		assertEquals(Long.valueOf(90), new ConvertToSeconds().convert("90"));
+	}
+
+	@Test
+	public void malformedInputFails() {
+		String[] inputs = {"", " ", "h", "1x", "1h30", "5 3", "-1s", "1.5s", "1_s", "1__0s"};
+		for (String input : inputs) {
+			assertFalse(input, converter.tryConvert(input).isSuccess());
+		}
+	}
+
+	@Test
+	public void fractionOfTargetUnitFails() {
+		assertFalse(converter.tryConvert("1500us").isSuccess());
+		assertFalse(new ConvertToSeconds().tryConvert("1500ms").isSuccess());
+	}
+
+	@Test
+	public void tooLongFails() {
+		assertFalse(converter.tryConvert("999999999999d").isSuccess());
+		assertFalse(converter.tryConvert("99999999999999999999ms").isSuccess());
+	}
+
+	@Test
+	public void formatCanBeConvertedBack() throws ConvertFailedException {
+		assertEquals("1h30m", converter.format(TimeUnit.MINUTES.toMillis(90)));
+		assertEquals("1d1s", converter.format(TimeUnit.DAYS.toMillis(1) + 1000));
+		assertEquals("0", converter.format(0));
+		for (long millis : new long[]{1, 999, 61500, TimeUnit.DAYS.toMillis(400) + 7}) {
+			assertEquals(Long.valueOf(millis), converter.convert(converter.format(millis)));
+		}
+	}
+
+	@Test
+	public void customUnitIsReported() {
+		assertEquals(TimeUnit.SECONDS, new ConvertToSeconds().getUnit());
+		assertEquals(TimeUnit.MILLISECONDS, converter.getUnit());
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.convert;
+
+import hu.juzraai.cliask.annotation.AcceptOrdinal;
+import hu.juzraai.cliask.annotation.Alias;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author Zsolt Jurányi
+ */
+public class ConvertToEnumTest {
+
+	public enum Tier {
+		@Alias({"s", "small"})
+		SMALL,
+		@Alias("m")
+		MEDIUM,
+		LARGE
+	}
+
+	@AcceptOrdinal
+	public enum Level {
+		LOW, HIGH
+	}
+
+	public enum Ambiguous {
+		@Alias("x")
+		A,
+		@Alias("X")
+		B
+	}
+
+	@Test
+	public void namesAndAliasesAreMatchedIgnoringCase() throws ConvertFailedException {
+		ConvertToEnum<Tier> converter = new ConvertToEnum<>(Tier.class);
+		assertEquals(Tier.LARGE, converter.convert("large"));
+		assertEquals(Tier.SMALL, converter.convert("Small"));
+		assertEquals(Tier.SMALL, converter.convert("S"));
+		assertEquals(Tier.MEDIUM, converter.convert("m"));
+		assertFalse(converter.tryConvert("huge").isSuccess());
+	}
+
+	@Test
+	public void ordinalIsRejectedByDefault() {
+		ConvertResult<Object> result = Converters.tryConvert(Converters.find(Tier.class), "1");
+		assertFalse(result.isSuccess());
+		assertEquals("Invalid Tier value, specify one of these: SMALL|MEDIUM|LARGE", result.getMessage());
+	}
+
+	@Test
+	public void ordinalIsAcceptedForAnnotatedEnum() {
+		ConvertTo<?> converter = Converters.find(Level.class);
+		assertEquals(Level.HIGH, Converters.tryConvert(converter, "1").getValue());
+		assertEquals(Level.LOW, Converters.tryConvert(converter, "low").getValue());
+		ConvertResult<Object> result = Converters.tryConvert(converter, "2");
+		assertFalse(result.isSuccess());
+		assertEquals("Invalid Level value, specify one of these: LOW|HIGH (or 0-1)", result.getMessage());
+	}
+
+	@Test
+	public void ordinalCanBeTurnedOnExplicitly() throws ConvertFailedException {
+		assertEquals(Tier.LARGE, new ConvertToEnum<>(Tier.class, true).convert("2"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void ambiguousAliasIsRejected() {
+		new ConvertToEnum<>(Ambiguous.class);
+	}
+
+	@Test
+	public void converterIsCachedPerType() {
+		assertSame(Converters.find(Tier.class), Converters.find(Tier.class));
+	}
+}
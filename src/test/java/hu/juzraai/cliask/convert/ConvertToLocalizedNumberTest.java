@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.convert;
+
+import org.junit.Test;
+
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * @author Zsolt Jurányi
+ */
+public class ConvertToLocalizedNumberTest {
+
+	private final ConvertToLocalizedNumber<Long> german = new ConvertToLocalizedNumber<>(Long.class, Locale.GERMANY);
+	private final ConvertToLocalizedNumber<Double> germanDouble = new ConvertToLocalizedNumber<>(Double.class, Locale.GERMANY);
+
+	@Test
+	public void convertsGroupedNumbers() throws ConvertFailedException {
+		assertEquals(1234567L, (long) german.convert("1.234.567"));
+		assertEquals(1234567L, (long) german.convert("1234567"));
+		assertEquals(1234.5, germanDouble.convert("1.234,5"), 0);
+	}
+
+	@Test
+	public void convertsNegativeNumbers() throws ConvertFailedException {
+		assertEquals(-1234L, (long) german.convert("-1.234"));
+		assertEquals(-15L, (long) german.convert("-15"));
+		assertEquals(-1.5, germanDouble.convert("-1,5"), 0);
+	}
+
+	@Test
+	public void rejectsMisplacedGrouping() {
+		for (String s : new String[]{"1.5", "12.34", "1.2.3", "1.23.456"}) {
+			assertFalse(s, german.tryConvert(s).isSuccess());
+		}
+	}
+
+	@Test
+	public void rejectsMisplacedGroupingInNegativeNumbers() {
+		for (String s : new String[]{"-1.5", "-12.34", "-1.2.3"}) {
+			assertFalse(s, german.tryConvert(s).isSuccess());
+		}
+	}
+
+	@Test
+	public void ignoresWhitespace() throws ConvertFailedException {
+		ConvertToLocalizedNumber<Integer> hungarian = new ConvertToLocalizedNumber<>(Integer.class, Locale.forLanguageTag("hu-HU"));
+		assertEquals(12000, (int) hungarian.convert("12 000"));
+	}
+
+	@Test
+	public void rejectsOutOfRangeAndFractionForIntegers() {
+		ConvertToLocalizedNumber<Byte> bytes = new ConvertToLocalizedNumber<>(Byte.class, Locale.GERMANY);
+		assertFalse(bytes.tryConvert("128").isSuccess());
+		assertFalse(german.tryConvert("1,5").isSuccess());
+	}
+
+	@Test
+	public void formatsConvertibleValue() throws ConvertFailedException {
+		assertEquals(-1234567L, (long) german.convert(german.format(-1234567L)));
+		assertEquals(1234.5, germanDouble.convert(germanDouble.format(1234.5)), 0);
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.convert;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * @author Zsolt Jurányi
+ */
+public class ConvertToRadixNumberTest {
+
+	private final ConvertToRadixInteger integers = new ConvertToRadixInteger();
+	private final ConvertToRadixLong longs = new ConvertToRadixLong();
+
+	@Test
+	public void prefixSelectsRadix() throws ConvertFailedException {
+		assertEquals(Integer.valueOf(42), integers.convert("42"));
+		assertEquals(Integer.valueOf(255), integers.convert("0xFF"));
+		assertEquals(Integer.valueOf(255), integers.convert("0Xff"));
+		assertEquals(Integer.valueOf(493), integers.convert("0o755"));
+		assertEquals(Integer.valueOf(10), integers.convert("0b1010"));
+		assertEquals(Integer.valueOf(0), integers.convert("0"));
+		assertEquals(Integer.valueOf(8), integers.convert("08"));
+	}
+
+	@Test
+	public void signAndSeparatorsAreAccepted() throws ConvertFailedException {
+		assertEquals(Integer.valueOf(-255), integers.convert("-0xff"));
+		assertEquals(Integer.valueOf(7), integers.convert("+7"));
+		assertEquals(Integer.valueOf(0xCAFEBABE), integers.convert("-0x3501_4542"));
+		assertEquals(Long.valueOf(0xFFFF_FFFFL), longs.convert("0xFFFF_FFFF"));
+	}
+
+	@Test
+	public void rangeLimitsAreInclusive() throws ConvertFailedException {
+		assertEquals(Integer.valueOf(Integer.MAX_VALUE), integers.convert("0x7fffffff"));
+		assertEquals(Integer.valueOf(Integer.MIN_VALUE), integers.convert("-2147483648"));
+		assertEquals(Long.valueOf(Long.MAX_VALUE), longs.convert(Long.toString(Long.MAX_VALUE)));
+		assertEquals(Long.valueOf(Long.MIN_VALUE), longs.convert("-0x8000000000000000"));
+	}
+
+	@Test
+	public void outOfRangeFails() {
+		assertFalse(integers.tryConvert("0x80000000").isSuccess());
+		assertFalse(integers.tryConvert("-2147483649").isSuccess());
+		assertFalse(longs.tryConvert("9223372036854775808").isSuccess());
+		assertFalse(longs.tryConvert("0x1_0000_0000_0000_0000").isSuccess());
+	}
+
+	@Test
+	public void malformedInputFails() {
+		String[] inputs = {"", "-", "0x", "0b2", "0o8", "_1", "1_", "1__0", "12a", "0x_1", " 1"};
+		for (String input : inputs) {
+			assertFalse(input, integers.tryConvert(input).isSuccess());
+		}
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.convert;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * @author Zsolt Jurányi
+ */
+public class ConvertToSizeTest {
+
+	private final ConvertToSize converter = new ConvertToSize();
+
+	@Test
+	public void plainNumberIsBytes() throws ConvertFailedException {
+		assertEquals(Long.valueOf(1500), converter.convert("1500"));
+		assertEquals(Long.valueOf(1500), converter.convert("1_500"));
+		assertEquals(Long.valueOf(0), converter.convert("0B"));
+	}
+
+	@Test
+	public void unitsArePowersOf1024() throws ConvertFailedException {
+		assertEquals(Long.valueOf(2048), converter.convert("2K"));
+		assertEquals(Long.valueOf(512L << 20), converter.convert("512M"));
+		assertEquals(Long.valueOf(512L << 20), converter.convert("512mb"));
+		assertEquals(Long.valueOf(3L << 30), converter.convert("3GiB"));
+		assertEquals(Long.valueOf(1L << 60), converter.convert("1E"));
+	}
+
+	@Test
+	public void malformedInputFails() {
+		String[] inputs = {"", "M", "_1", "1_", "1__0", "1X", "1KX", "1Ki", "1KBB", "-1", "1.5M"};
+		for (String input : inputs) {
+			assertFalse(input, converter.tryConvert(input).isSuccess());
+		}
+	}
+
+	@Test
+	public void tooLargeFails() {
+		assertFalse(converter.tryConvert("8E").isSuccess());
+		assertFalse(converter.tryConvert("99999999999999999999").isSuccess());
+		assertEquals(Long.valueOf(Long.MAX_VALUE), converter.tryConvert(Long.toString(Long.MAX_VALUE)).getValue());
+	}
+
+	@Test
+	public void formatUsesLargestDividingUnit() throws ConvertFailedException {
+		assertEquals("512M", converter.format(512L << 20));
+		assertEquals("1536K", converter.format(1536L * 1024));
+		assertEquals("1000", converter.format(1000));
+		assertEquals("0", converter.format(0));
+		for (long bytes : new long[]{1, 1024, 3L << 30, 1L << 60, 123456789}) {
+			assertEquals(Long.valueOf(bytes), converter.convert(converter.format(bytes)));
+		}
+	}
+}
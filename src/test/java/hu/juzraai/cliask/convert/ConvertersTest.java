@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.convert;
+
+import hu.juzraai.cliask.annotation.Stateful;
+import hu.juzraai.cliask.inspect.InspectFailedException;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Zsolt Jurányi
+ */
+public class ConvertersTest {
+
+	@Test
+	public void tryConvertReturnsValue() {
+		ConvertResult<Object> result = Converters.tryConvert(new ParsingConverter(), "42");
+		assertTrue(result.isSuccess());
+		assertEquals(42, result.getValue());
+	}
+
+	@Test
+	public void tryConvertTurnsConvertFailedExceptionIntoFailure() {
+		ConvertResult<Object> result = Converters.tryConvert(new ParsingConverter(), "-1");
+		assertFalse(result.isSuccess());
+		assertEquals("Negative", result.getMessage());
+	}
+
+	@Test
+	public void tryConvertTurnsRuntimeExceptionIntoFailureWithoutRawValue() {
+		ConvertResult<Object> result = Converters.tryConvert(new ParsingConverter(), "hunter2");
+		assertFalse(result.isSuccess());
+		assertEquals("Invalid value", result.getMessage());
+	}
+
+	@Test
+	public void tryConvertHandlesRuntimeExceptionWithoutMessage() {
+		ConvertResult<Object> result = Converters.tryConvert(new ConvertTo<Object>() {
+			@Override
+			public Object convert(@Nonnull String rawValue) {
+				throw new IllegalStateException();
+			}
+		}, "x");
+		assertFalse(result.isSuccess());
+		assertEquals("Invalid value", result.getMessage());
+	}
+
+	@Test
+	public void instanceOfSharesInstanceOfNonPublicConverter() throws InspectFailedException {
+		ParsingConverter converter = Converters.instanceOf(ParsingConverter.class);
+		assertSame(converter, Converters.instanceOf(ParsingConverter.class));
+	}
+
+	@Test
+	public void instanceOfCreatesNewInstanceOfStatefulConverter() throws InspectFailedException {
+		assertNotSame(Converters.instanceOf(StatefulConverter.class), Converters.instanceOf(StatefulConverter.class));
+	}
+
+	@Test(expected = InspectFailedException.class)
+	public void instanceOfFailsWithoutNoArgConstructor() throws InspectFailedException {
+		Converters.instanceOf(ArgumentConverter.class);
+	}
+
+	@Stateful
+	private static class StatefulConverter extends ParsingConverter {
+	}
+
+	private static class ArgumentConverter extends ParsingConverter {
+
+		ArgumentConverter(int radix) {
+		}
+	}
+
+	private static class ParsingConverter implements ConvertTo<Integer> {
+
+		private ParsingConverter() {
+		}
+
+		@Override
+		public Integer convert(@Nonnull String rawValue) throws ConvertFailedException {
+			int value = Integer.parseInt(rawValue); // throws NumberFormatException
+			if (value < 0) {
+				throw new ConvertFailedException("Negative");
+			}
+			return value;
+		}
+	}
+}
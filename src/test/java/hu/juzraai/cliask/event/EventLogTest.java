@@ -0,0 +1,159 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.event;
+
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Zsolt Jurányi
+ */
+public class EventLogTest {
+
+	@Test
+	public void jsonStringsAreEscaped() {
+		StringBuilder s = new StringBuilder();
+		EventLog.appendJsonString("a\"b\\c\nd\re\tf\u0001g\u00e1", s);
+		assertEquals("\"a\\\"b\\\\c\\nd\\re\\tf\\u0001g\u00e1\"", s.toString());
+		s.setLength(0);
+		EventLog.appendJsonString(null, s);
+		assertEquals("null", s.toString());
+	}
+
+	@Test
+	public void eventIsWrittenAsJsonLine() throws IOException {
+		StringWriter out = new StringWriter();
+		EventLog log = new EventLog(out, 4);
+		assertTrue(log.publish("db.port", "Port", 2, "input", EventLog.Result.REJECTED, "Bad \"port\"", "x", 5000, 3000));
+		log.publish("db.password", "Password", 1, "env", EventLog.Result.ACCEPTED, null, "***", -1, 1000);
+		log.close();
+		String[] lines = out.toString().split("\n");
+		assertEquals(2, lines.length);
+		assertTrue(lines[0], lines[0].matches("\\{\"time\":\\d+,\"field\":\"db.port\",\"label\":\"Port\",\"attempt\":2,\"source\":\"input\",\"result\":\"rejected\",\"message\":\"Bad \\\\\"port\\\\\"\",\"value\":\"x\",\"waitMicros\":5,\"convertMicros\":3}"));
+		assertTrue(lines[1], lines[1].endsWith(",\"result\":\"accepted\",\"value\":\"***\",\"convertMicros\":1}"));
+	}
+
+	@Test
+	public void closeWritesAllPublishedEvents() throws IOException {
+		StringWriter out = new StringWriter();
+		EventLog log = new EventLog(out, 1024);
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(log.publish("f" + i, null, 1, "input", EventLog.Result.ACCEPTED, null, "v", -1, 0));
+		}
+		log.close();
+		String[] lines = out.toString().split("\n");
+		assertEquals(1000, lines.length);
+		assertTrue(lines[999].contains("\"field\":\"f999\""));
+		assertEquals(0, log.getDropped());
+	}
+
+	@Test
+	public void eventsAreDroppedAndCountedWhenBufferIsFull() throws IOException, InterruptedException {
+		BlockingWriter out = new BlockingWriter();
+		EventLog log = new EventLog(out, 4);
+		log.publish("first", null, 1, "input", EventLog.Result.ACCEPTED, null, "v", -1, 0);
+		assertTrue(out.entered.await(5, TimeUnit.SECONDS)); // writer holds the first event
+		int accepted = 0;
+		for (int i = 0; i < 10; i++) {
+			if (log.publish("f" + i, null, 1, "input", EventLog.Result.ACCEPTED, null, "v", -1, 0)) {
+				accepted++;
+			}
+		}
+		assertEquals(4, accepted);
+		assertEquals(6, log.getDropped());
+		out.release.countDown();
+		log.close();
+		assertEquals(5, out.toString().split("\n").length);
+		assertFalse(log.publish("late", null, 1, "input", EventLog.Result.ACCEPTED, null, "v", -1, 0));
+		assertEquals(7, log.getDropped());
+	}
+
+	@Test
+	public void idleWriterWaitsForSignal() throws IOException, InterruptedException {
+		FlushingWriter out = new FlushingWriter();
+		EventLog log = new EventLog(out, 4);
+		Thread writer = writerThread();
+		assertTrue(awaitState(writer, Thread.State.WAITING));
+		log.publish("a", null, 1, "input", EventLog.Result.ACCEPTED, null, "v", -1, 0);
+		assertTrue(out.flushed.await(5, TimeUnit.SECONDS));
+		assertTrue(awaitState(writer, Thread.State.WAITING));
+		log.close();
+		assertFalse(writer.isAlive());
+	}
+
+	private static boolean awaitState(@Nonnull Thread thread, @Nonnull Thread.State state) throws InterruptedException {
+		for (int i = 0; i < 500 && state != thread.getState(); i++) {
+			Thread.sleep(1);
+		}
+		return state == thread.getState();
+	}
+
+	@Nonnull
+	private static Thread writerThread() {
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if ("cli-ask-event-log".equals(thread.getName()) && thread.isAlive()) {
+				return thread;
+			}
+		}
+		throw new AssertionError("Writer thread not found");
+	}
+
+	private static class BlockingWriter extends StringWriter {
+
+		final CountDownLatch entered = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+
+		@Override
+		public void write(@Nonnull String str) {
+			entered.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			super.write(str);
+		}
+	}
+
+	private static class FlushingWriter extends Writer {
+
+		final CountDownLatch flushed = new CountDownLatch(1);
+
+		@Override
+		public void write(@Nonnull char[] cbuf, int off, int len) {
+		}
+
+		@Override
+		public void flush() {
+			flushed.countDown();
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.input;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author Zsolt Jurányi
+ */
+public class MappedFileLineInputTest {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private Path file;
+	private FileChannel channel;
+
+	@Before
+	public void setUp() throws IOException {
+		file = Files.createTempFile("cli-ask", ".txt");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		if (null != channel) {
+			channel.close();
+		}
+		Files.deleteIfExists(file);
+	}
+
+	@Test
+	public void linesAreSplitOnLfAndCrLf() throws IOException {
+		assertEquals(Arrays.asList("a", "bb", "", "c"), readAll("a\r\nbb\n\r\nc\n", 1 << 10));
+	}
+
+	@Test
+	public void lastLineWithoutTerminatorIsReturned() throws IOException {
+		assertEquals(Arrays.asList("first", "last"), readAll("first\nlast", 1 << 10));
+		assertEquals(Arrays.asList("first", "last"), readAll("first\nlast\r", 1 << 10));
+	}
+
+	@Test
+	public void emptyFileHasNoLines() throws IOException {
+		assertEquals(new ArrayList<String>(), readAll("", 1 << 10));
+	}
+
+	@Test
+	public void lineSpanningWindowBoundaryIsRead() throws IOException {
+		assertEquals(Arrays.asList("abc", "defghi", "jk"), readAll("abc\ndefghi\njk\n", 8));
+		assertEquals(Arrays.asList("ab", "cdef", "gh"), readAll("ab\ncdef\r\ngh", 8)); // CR and LF in different windows
+	}
+
+	@Test
+	public void lineLongerThanWindowGrowsWindow() throws IOException {
+		StringBuilder longLine = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			longLine.append((char) ('a' + i % 26));
+		}
+		assertEquals(Arrays.asList("x", longLine.toString(), "y"), readAll("x\n" + longLine + "\ny", 4));
+	}
+
+	@Test
+	public void multiByteCharacterSpanningWindowBoundaryIsDecoded() throws IOException {
+		assertEquals(Arrays.asList("Jurányi", "árvíztűrő"), readAll("Jurányi\nárvíztűrő\n", 5));
+	}
+
+	@Test
+	public void readingStartsAtChannelPosition() throws IOException {
+		write("skip\nread\n");
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		channel.position(5);
+		MappedFileLineInput input = new MappedFileLineInput(channel, UTF8, false, 8);
+		assertEquals("read", input.readLine());
+		assertNull(input.readLine());
+		assertEquals(5, channel.position());
+	}
+
+	@Test
+	public void syncPositionLetsAnotherReaderContinue() throws IOException {
+		write("one\r\ntwo\nthree");
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		MappedFileLineInput input = new MappedFileLineInput(channel, UTF8, true, 4);
+		assertEquals("one", input.readLine());
+		assertEquals(5, channel.position());
+		assertEquals("two", new MappedFileLineInput(channel, UTF8, true, 4).readLine());
+		assertEquals(9, channel.position());
+		assertEquals("three", new MappedFileLineInput(channel, UTF8, true, 4).readLine());
+		assertEquals(14, channel.position());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void windowSizeMustBePositive() throws IOException {
+		write("");
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		new MappedFileLineInput(channel, UTF8, false, 0);
+	}
+
+	private List<String> readAll(String content, int windowSize) throws IOException {
+		write(content);
+		if (null != channel) {
+			channel.close();
+		}
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		MappedFileLineInput input = new MappedFileLineInput(channel, UTF8, false, windowSize);
+		List<String> lines = new ArrayList<>();
+		String line;
+		while (null != (line = input.readLine())) {
+			lines.add(line);
+		}
+		return lines;
+	}
+
+	private void write(String content) throws IOException {
+		Files.write(file, content.getBytes(UTF8));
+	}
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.inspect;
+
+import hu.juzraai.cliask.AskSession;
+import hu.juzraai.cliask.annotation.Ask;
+import hu.juzraai.cliask.annotation.Creator;
+import hu.juzraai.cliask.console.VirtualConsole;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Zsolt Jurányi
+ */
+public class CreatorPlanTest {
+
+	public static class Positional {
+		@Ask
+		public final String name;
+		@Ask
+		public final int age;
+
+		@Creator
+		public Positional(String name, int age) {
+			this.name = name;
+			this.age = age;
+		}
+	}
+
+	public static class Named {
+		@Ask
+		public final String name;
+		@Ask
+		public final int age;
+
+		private Named(String name, int age) {
+			this.name = name;
+			this.age = age;
+		}
+
+		@Creator({"age", "name"})
+		public static Named of(int age, String name) {
+			return new Named(name, age);
+		}
+	}
+
+	public static class PositionalCountMismatch {
+		@Ask
+		public final String name;
+		@Ask
+		public final int age;
+
+		@Creator
+		public PositionalCountMismatch(String name) {
+			this.name = name;
+			this.age = 0;
+		}
+	}
+
+	public static class NamedCountMismatch {
+		@Ask
+		public final String name;
+		@Ask
+		public final int age;
+
+		@Creator({"name"})
+		public NamedCountMismatch(String name, int age) {
+			this.name = name;
+			this.age = age;
+		}
+	}
+
+	public static class UnknownName {
+		@Ask
+		public final String name;
+
+		@Creator({"nick"})
+		public UnknownName(String name) {
+			this.name = name;
+		}
+	}
+
+	public static class TypeMismatch {
+		@Ask
+		public final String name;
+		@Ask
+		public final int age;
+
+		@Creator
+		public TypeMismatch(String name, String age) {
+			this.name = name;
+			this.age = Integer.parseInt(age);
+		}
+	}
+
+	public static class TwoCreators {
+		@Ask
+		public final String name;
+
+		@Creator
+		public TwoCreators(String name) {
+			this.name = name;
+		}
+
+		@Creator
+		public static TwoCreators of(String name) {
+			return new TwoCreators(name);
+		}
+	}
+
+	public static class InstanceMethodCreator {
+		@Ask
+		public final String name;
+
+		public InstanceMethodCreator(String name) {
+			this.name = name;
+		}
+
+		@Creator
+		public InstanceMethodCreator copy(String name) {
+			return new InstanceMethodCreator(name);
+		}
+	}
+
+	public static class Address {
+		@Ask
+		public final String city;
+		@Ask
+		public final int zip;
+
+		@Creator
+		public Address(String city, int zip) {
+			this.city = city;
+			this.zip = zip;
+		}
+	}
+
+	public static class Order {
+		@Ask
+		public String id;
+		@Ask(recursive = true)
+		public Address address;
+	}
+
+	private static CreatorPlan creatorOf(Class<?> type) {
+		return new ObjectInspector(new FieldInspector()).planOf(type).getCreator();
+	}
+
+	private static void assertProblem(Class<?> type, String message) {
+		CreatorPlan creator = creatorOf(type);
+		assertNotNull(creator);
+		assertNotNull(creator.getProblem());
+		assertEquals(message, creator.getProblem().getMessage());
+		try {
+			new VirtualConsole().attach(new AskSession()).create(type);
+			fail("create() should reject " + type.getSimpleName());
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage(), e.getMessage().endsWith(message));
+		}
+	}
+
+	@Test
+	public void classWithoutCreatorHasNoPlan() {
+		assertNull(creatorOf(Order.class));
+		assertTrue(CreatorPlan.hasCreator(Positional.class));
+	}
+
+	@Test
+	public void positionalCreatorGetsFieldsInDeclarationOrder() {
+		CreatorPlan creator = creatorOf(Positional.class);
+		assertNull(creator.getProblem());
+		assertArrayEquals(new int[]{0, 1}, creator.getFieldIndexes());
+
+		VirtualConsole console = new VirtualConsole("Bob", "42");
+		Positional p = console.attach(new AskSession()).create(Positional.class);
+		assertEquals("Bob", p.name);
+		assertEquals(42, p.age);
+		console.assertPrompt(0, "name");
+		console.assertPrompt(1, "age");
+		console.assertAllInputConsumed();
+	}
+
+	@Test
+	public void namedCreatorGetsFieldsInListedOrder() {
+		CreatorPlan creator = creatorOf(Named.class);
+		assertNull(creator.getProblem());
+		assertArrayEquals(new int[]{1, 0}, creator.getFieldIndexes());
+
+		VirtualConsole console = new VirtualConsole("Bob", "42");
+		Named n = console.attach(new AskSession()).create(Named.class);
+		assertEquals("Bob", n.name);
+		assertEquals(42, n.age);
+		console.assertAllInputConsumed();
+	}
+
+	@Test
+	public void positionalParameterCountMismatchIsReported() {
+		assertProblem(PositionalCountMismatch.class, "Creator has 1 parameter(s), but the class has 2 @Ask field(s)");
+	}
+
+	@Test
+	public void namedParameterCountMismatchIsReported() {
+		assertProblem(NamedCountMismatch.class, "Creator has 2 parameter(s), but 1 field name(s) are specified");
+	}
+
+	@Test
+	public void unknownFieldNameIsReported() {
+		assertProblem(UnknownName.class, "Creator refers to field 'nick', but there's no such @Ask field");
+	}
+
+	@Test
+	public void parameterTypeMismatchIsReported() {
+		assertProblem(TypeMismatch.class, "Type of creator parameter #2 (java.lang.String) doesn't match type of field 'age' (int)");
+	}
+
+	@Test
+	public void moreThanOneCreatorIsReported() {
+		assertProblem(TwoCreators.class, "Class has more than one @Creator");
+	}
+
+	@Test
+	public void instanceMethodCreatorIsReported() {
+		assertProblem(InstanceMethodCreator.class, "@Creator method must be static and must return the class' type");
+	}
+
+	@Test
+	public void recursiveFieldIsBuiltByItsCreator() {
+		VirtualConsole console = new VirtualConsole("o-1", "Paris", "75001");
+		Order order = console.attach(new AskSession()).object(new Order());
+		assertEquals("o-1", order.id);
+		assertNotNull(order.address);
+		assertEquals("Paris", order.address.city);
+		assertEquals(75001, order.address.zip);
+		assertEquals(3, console.getPrompts().size());
+		console.assertPrompt(1, "city");
+		console.assertPrompt(2, "zip");
+		console.assertAllInputConsumed();
+	}
+}
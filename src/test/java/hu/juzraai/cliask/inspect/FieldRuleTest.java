@@ -0,0 +1,222 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.inspect;
+
+import hu.juzraai.cliask.annotation.Ask;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Zsolt Jurányi
+ */
+public class FieldRuleTest {
+
+	public enum Mode {
+		server, client, both
+	}
+
+	public static class Service {
+		@Ask
+		public boolean tls;
+		@Ask(when = "tls")
+		public Integer tlsPort;
+		@Ask(derive = "https://${host}:${port}/")
+		public String url;
+		@Ask
+		public String host;
+		@Ask
+		public Integer port;
+		@Ask
+		public Mode mode;
+		@Ask(when = "mode=server|both && !tls")
+		public String bind;
+		@Ask(when = "mode!=client")
+		public String workers;
+	}
+
+	public static class UnknownReference {
+		@Ask(when = "nope")
+		public String a;
+	}
+
+	public static class NonBooleanReference {
+		@Ask
+		public String name;
+		@Ask(when = "name")
+		public String a;
+	}
+
+	public static class SelfReference {
+		@Ask(derive = "${a}")
+		public String a;
+	}
+
+	public static class InvalidValue {
+		@Ask
+		public Integer port;
+		@Ask(when = "port=abc")
+		public String a;
+	}
+
+	public static class UnclosedReference {
+		@Ask
+		public String a;
+		@Ask(derive = "${a")
+		public String b;
+	}
+
+	public static class Cycle {
+		@Ask(derive = "${b}")
+		public String a;
+		@Ask(when = "a=x")
+		public String b;
+		@Ask
+		public String c;
+	}
+
+	private final ObjectInspector inspector = new ObjectInspector(new FieldInspector());
+
+	@Test
+	public void fieldsWithoutRuleHaveNoRule() {
+		ClassPlan plan = inspector.planOf(Service.class);
+		assertNull(plan.getRule(0));
+		assertNull(plan.getRule(3));
+		assertNull(plan.getRule(4));
+	}
+
+	@Test
+	public void dependenciesAreResolvedToIndexes() {
+		ClassPlan plan = inspector.planOf(Service.class);
+		assertArrayEquals(new int[]{0}, plan.getRule(1).getDependencies());
+		assertArrayEquals(new int[]{3, 4}, plan.getRule(2).getDependencies());
+		assertArrayEquals(new int[]{5, 0}, plan.getRule(6).getDependencies());
+	}
+
+	@Test
+	public void referencedFieldsAreOrderedFirst() {
+		assertArrayEquals(new int[]{0, 1, 3, 4, 2, 5, 6, 7}, inspector.planOf(Service.class).getOrder());
+		List<String> names = new ArrayList<>();
+		for (PreparedField field : inspector.relevantFieldsOf(new Service())) {
+			names.add(field.getField().getName());
+		}
+		assertEquals(Arrays.asList("tls", "tlsPort", "host", "port", "url", "mode", "bind", "workers"), names);
+	}
+
+	@Test
+	public void conditionIsCheckedOnCurrentValues() {
+		Service service = new Service();
+		PreparedField tlsPort = field(service, "tlsPort");
+		PreparedField bind = field(service, "bind");
+		PreparedField workers = field(service, "workers");
+		assertFalse(tlsPort.isActive());
+		assertFalse(bind.isActive());
+		assertTrue(workers.isActive());
+		service.tls = true;
+		service.mode = Mode.server;
+		assertTrue(tlsPort.isActive());
+		assertFalse(bind.isActive());
+		service.tls = false;
+		assertTrue(bind.isActive());
+		service.mode = Mode.both;
+		assertTrue(bind.isActive());
+		service.mode = Mode.client;
+		assertFalse(bind.isActive());
+		assertFalse(workers.isActive());
+	}
+
+	@Test
+	public void derivedDefaultNeedsEveryReferencedValue() {
+		Service service = new Service();
+		PreparedField url = field(service, "url");
+		assertNull(url.getDerivedDefault());
+		service.host = "example.org";
+		assertNull(url.getDerivedDefault());
+		service.port = 8443;
+		assertEquals("https://example.org:8443/", url.getDerivedDefault());
+		assertNull(field(service, "host").getDerivedDefault());
+	}
+
+	@Test
+	public void unknownReferenceIsReported() {
+		assertProblem(UnknownReference.class, 0, "'when' refers to field 'nope', but there's no such @Ask field");
+	}
+
+	@Test
+	public void nonBooleanReferenceWithoutValueIsReported() {
+		assertProblem(NonBooleanReference.class, 1, "Condition 'name' refers to non-boolean field 'name' without a value");
+	}
+
+	@Test
+	public void selfReferenceIsReported() {
+		assertProblem(SelfReference.class, 0, "'derive' refers to the field itself");
+	}
+
+	@Test
+	public void invalidValueIsReported() {
+		FieldRule rule = inspector.planOf(InvalidValue.class).getRule(1);
+		assertNotNull(rule.getProblem());
+		assertTrue(rule.getProblem().getMessage().startsWith("Invalid value 'abc' for field 'port' in condition"));
+	}
+
+	@Test
+	public void unclosedReferenceIsReported() {
+		assertProblem(UnclosedReference.class, 1, "Unclosed reference in derive template: ${a");
+	}
+
+	@Test
+	public void cycleIsReportedAndFieldsAreSkipped() {
+		ClassPlan plan = inspector.planOf(Cycle.class);
+		assertArrayEquals(new int[]{2, 0, 1}, plan.getOrder());
+		assertProblem(Cycle.class, 0, "Circular dependency between 'when'/'derive' rules");
+		assertProblem(Cycle.class, 1, "Circular dependency between 'when'/'derive' rules");
+		List<PreparedField> fields = inspector.relevantFieldsOf(new Cycle());
+		assertEquals(1, fields.size());
+		assertEquals("c", fields.get(0).getField().getName());
+	}
+
+	@Test
+	public void invalidRuleIsReportedByWarmUp() {
+		PlanReport report = inspector.warmUp(Arrays.<Class<?>>asList(SelfReference.class));
+		assertEquals(1, report.getProblems().size());
+		assertEquals("a", report.getProblems().get(0).getField().getName());
+	}
+
+	private void assertProblem(Class<?> type, int index, String message) {
+		FieldRule rule = inspector.planOf(type).getRule(index);
+		assertNotNull(rule.getProblem());
+		assertEquals(message, rule.getProblem().getMessage());
+	}
+
+	private PreparedField field(Object object, String name) {
+		for (PreparedField field : inspector.relevantFieldsOf(object)) {
+			if (name.equals(field.getField().getName())) {
+				return field;
+			}
+		}
+		throw new AssertionError("No such field: " + name);
+	}
+}
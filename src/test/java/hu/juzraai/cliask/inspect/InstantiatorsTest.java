@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.inspect;
+
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Zsolt Jurányi
+ */
+public class InstantiatorsTest {
+
+	public static abstract class AbstractType {
+	}
+
+	public static class NoDefaultConstructor {
+		public NoDefaultConstructor(int value) {
+		}
+	}
+
+	public static class PrivateConstructor {
+		private PrivateConstructor() {
+		}
+	}
+
+	public static class Registered {
+		private final String name;
+
+		public Registered(String name) {
+			this.name = name;
+		}
+	}
+
+	@Test
+	public void privateNoArgConstructorIsUsed() throws InspectFailedException {
+		PrivateConstructor a = Instantiators.newInstance(PrivateConstructor.class);
+		PrivateConstructor b = Instantiators.newInstance(PrivateConstructor.class);
+		assertNotSame(a, b);
+		assertSame(Instantiators.factoryOf(PrivateConstructor.class), Instantiators.factoryOf(PrivateConstructor.class));
+	}
+
+	@Test
+	public void abstractTypeFailureIsCached() {
+		InspectFailedException first = verifyFails(AbstractType.class);
+		InspectFailedException second = verifyFails(AbstractType.class);
+		assertSame(first, second);
+		assertTrue(first.getMessage().contains(AbstractType.class.getName()));
+	}
+
+	@Test
+	public void interfaceFailureIsCached() {
+		assertSame(verifyFails(Runnable.class), verifyFails(Runnable.class));
+	}
+
+	@Test
+	public void missingConstructorFailureNamesType() {
+		InspectFailedException problem = verifyFails(NoDefaultConstructor.class);
+		assertTrue(problem.getMessage().contains(NoDefaultConstructor.class.getName()));
+		try {
+			Instantiators.newInstance(NoDefaultConstructor.class);
+			fail();
+		} catch (InspectFailedException e) {
+			assertSame(problem, e);
+		}
+	}
+
+	@Test
+	public void registeredFactoryIsUsed() throws InspectFailedException {
+		Instantiators.register(Registered.class, new InstanceFactory<Registered>() {
+			@Nonnull
+			@Override
+			public Registered newInstance() {
+				return new Registered("registered");
+			}
+		});
+		assertEquals("registered", Instantiators.newInstance(Registered.class).name);
+	}
+
+	private static InspectFailedException verifyFails(Class<?> type) {
+		try {
+			Instantiators.verify(type);
+		} catch (InspectFailedException e) {
+			return e;
+		}
+		throw new AssertionError("Verification passed for " + type.getName());
+	}
+}
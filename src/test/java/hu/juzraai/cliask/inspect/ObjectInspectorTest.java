@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.inspect;
+
+import hu.juzraai.cliask.annotation.Ask;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Zsolt Jurányi
+ */
+public class ObjectInspectorTest {
+
+	public static class Base {
+		@Ask(recursive = true)
+		public Other child;
+	}
+
+	public static class Sub extends Base {
+		@Ask
+		public String name;
+	}
+
+	public static class Other extends Base {
+	}
+
+	@Test
+	public void warmUpChecksInheritedRecursiveFieldAgainstInspectedClass() {
+		ObjectInspector inspector = new ObjectInspector(new FieldInspector());
+		PlanReport report = inspector.warmUp(Arrays.<Class<?>>asList(Sub.class));
+		assertFalse(report.isOk());
+		List<Class<?>> types = new ArrayList<>();
+		for (PlanReport.Problem problem : report.getProblems()) {
+			types.add(problem.getType());
+		}
+		assertEquals(Arrays.<Class<?>>asList(Other.class), types);
+	}
+
+	@Test
+	public void warmUpReportsRecursionOnDeclaringClass() {
+		ObjectInspector inspector = new ObjectInspector(new FieldInspector());
+		PlanReport report = inspector.warmUp(Arrays.<Class<?>>asList(Base.class));
+		boolean found = false;
+		for (PlanReport.Problem problem : report.getProblems()) {
+			found |= Base.class.equals(problem.getType());
+		}
+		assertTrue(found);
+	}
+}
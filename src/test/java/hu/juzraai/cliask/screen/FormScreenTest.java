@@ -0,0 +1,64 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.screen;
+
+import hu.juzraai.cliask.annotation.Ask;
+import hu.juzraai.cliask.convert.ConvertToSize;
+import hu.juzraai.cliask.inspect.FieldInspector;
+import hu.juzraai.cliask.inspect.ObjectInspector;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Zsolt Jurányi
+ */
+public class FormScreenTest {
+
+	@Test
+	public void defaultValuesAreFormattedByConverter() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		FormScreen form = new FormScreen(new PrintStream(bytes, true, "UTF-8"));
+		form.open("Settings", new ObjectInspector(new FieldInspector()).relevantFieldsOf(new Settings()));
+		form.render(0, null, null);
+		String output = bytes.toString("UTF-8");
+		assertTrue(output, output.contains("[512M]"));
+	}
+
+	@Test
+	public void inputRowIsNotTheLastRow() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		FormScreen form = new FormScreen(new PrintStream(bytes, true, "UTF-8"));
+		form.open(null, new ObjectInspector(new FieldInspector()).relevantFieldsOf(new Settings()));
+		form.render(0, null, null);
+		String output = bytes.toString("UTF-8");
+		// title, empty row, 2 field rows, empty row, message, hint, input (8th), empty row (9th)
+		assertTrue(output, output.endsWith("\033[8;3H"));
+	}
+
+	public static class Settings {
+
+		@Ask(converter = ConvertToSize.class)
+		long heap = 512L << 20;
+
+		@Ask
+		String name;
+	}
+}
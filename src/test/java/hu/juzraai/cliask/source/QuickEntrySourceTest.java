@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.source;
+
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Zsolt Jurányi
+ */
+public class QuickEntrySourceTest {
+
+	@Test
+	public void parsesPairs() throws ParseException {
+		Map<String, String> pairs = QuickEntrySource.parse("  name=foo age=42\tsure=no ");
+		assertEquals(3, pairs.size());
+		assertEquals("foo", pairs.get("name"));
+		assertEquals("42", pairs.get("age"));
+		assertEquals("no", pairs.get("sure"));
+	}
+
+	@Test
+	public void parsesQuotedValues() throws ParseException {
+		Map<String, String> pairs = QuickEntrySource.parse("name=\"Foo Bar\" title='a \\'b\\' c' path=\"C:\\\\x\"");
+		assertEquals("Foo Bar", pairs.get("name"));
+		assertEquals("a 'b' c", pairs.get("title"));
+		assertEquals("C:\\x", pairs.get("path"));
+	}
+
+	@Test
+	public void parsesPathsAndEqualsInValues() throws ParseException {
+		Map<String, String> pairs = QuickEntrySource.parse("database.host=db1 url=http://x/?a=b");
+		assertEquals("db1", pairs.get("database.host"));
+		assertEquals("http://x/?a=b", pairs.get("url"));
+	}
+
+	@Test
+	public void laterPairOverridesEarlier() throws ParseException {
+		assertEquals("2", QuickEntrySource.parse("a=1 a=2").get("a"));
+	}
+
+	@Test(expected = ParseException.class)
+	public void rejectsTokenWithoutValue() throws ParseException {
+		QuickEntrySource.parse("name=foo age");
+	}
+
+	@Test(expected = ParseException.class)
+	public void rejectsMissingName() throws ParseException {
+		QuickEntrySource.parse("=foo");
+	}
+
+	@Test(expected = ParseException.class)
+	public void rejectsUnclosedQuote() throws ParseException {
+		QuickEntrySource.parse("name=\"foo");
+	}
+
+	@Test
+	public void ignoresEmptyValues() {
+		QuickEntrySource source = new QuickEntrySource();
+		source.put("a", " ");
+		source.put("b", " x ");
+		assertFalse(source.contains("a"));
+		assertNull(source.get("a"));
+		assertTrue(source.contains("b"));
+		assertEquals("x", source.get("b"));
+	}
+}
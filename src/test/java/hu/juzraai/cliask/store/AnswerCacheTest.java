@@ -0,0 +1,153 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.store;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Zsolt Jurányi
+ */
+public class AnswerCacheTest {
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("answers", ".bin");
+		assertTrue(file.delete());
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+		new File(file.getPath() + ".tmp").delete();
+	}
+
+	@Test
+	public void answersSurviveSaveAndLoad() throws IOException {
+		AnswerCache cache = new AnswerCache(file, 10);
+		cache.put("Config", 42L, answers("host", "db1", "port", "5432"));
+		cache.put("Config#nested", 7L, answers("name", "árvíztűrő\ntükörfúrógép", "empty", ""));
+		cache.save();
+		assertFalse(new File(file.getPath() + ".tmp").exists());
+
+		AnswerCache loaded = new AnswerCache(file, 10);
+		assertEquals(2, loaded.size());
+		assertEquals(answers("host", "db1", "port", "5432"), loaded.get("Config", 42L));
+		assertEquals(answers("name", "árvíztűrő\ntükörfúrógép", "empty", ""), loaded.get("Config#nested", 7L));
+	}
+
+	@Test
+	public void saveWithoutModificationDoesNotWrite() throws IOException {
+		new AnswerCache(file, 10).save();
+		assertFalse(file.exists());
+	}
+
+	@Test
+	public void leastRecentlyUsedEntryIsEvicted() throws IOException {
+		AnswerCache cache = new AnswerCache(file, 2);
+		cache.put("a", 1L, answers("f", "a"));
+		cache.put("b", 1L, answers("f", "b"));
+		cache.get("a", 1L);
+		cache.put("c", 1L, answers("f", "c"));
+		assertEquals(2, cache.size());
+		assertNull(cache.get("b", 1L));
+		assertEquals(answers("f", "a"), cache.get("a", 1L));
+		cache.put("d", 1L, answers("f", "d")); // "c" is the least recently used now
+		cache.save();
+
+		AnswerCache loaded = new AnswerCache(file, 1); // loaded in usage order, only the last one fits
+		assertEquals(1, loaded.size());
+		assertEquals(answers("f", "d"), loaded.get("d", 1L));
+	}
+
+	@Test
+	public void entryOfOtherSchemaIsDropped() throws IOException {
+		AnswerCache cache = new AnswerCache(file, 10);
+		cache.put("Config", 1L, answers("host", "db1"));
+		cache.save();
+
+		AnswerCache loaded = new AnswerCache(file, 10);
+		assertNull(loaded.get("Config", 2L));
+		assertEquals(0, loaded.size());
+		loaded.save(); // removal is persisted
+		assertEquals(0, new AnswerCache(file, 10).size());
+	}
+
+	@Test
+	public void veryLongAnswersAreNotStored() throws IOException {
+		StringBuilder longValue = new StringBuilder();
+		for (int i = 0; i <= 16384; i++) {
+			longValue.append('x');
+		}
+		AnswerCache cache = new AnswerCache(file, 10);
+		cache.put("Config", 1L, answers("short", "ok", "long", longValue.toString()));
+		cache.save();
+		assertEquals(answers("short", "ok"), new AnswerCache(file, 10).get("Config", 1L));
+	}
+
+	@Test
+	public void truncatedFileIsIgnored() throws IOException {
+		AnswerCache cache = new AnswerCache(file, 10);
+		cache.put("a", 1L, answers("f", "a"));
+		cache.put("b", 1L, answers("f", "b"));
+		cache.save();
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.setLength(raf.length() - 3);
+		}
+		AnswerCache loaded = new AnswerCache(file, 10);
+		assertEquals(0, loaded.size());
+		assertNull(loaded.get("a", 1L));
+	}
+
+	@Test
+	public void fileOfOtherFormatIsIgnored() throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.writeInt(0x434c4143); // magic
+			raf.writeInt(99); // unknown version
+			raf.writeInt(0);
+		}
+		assertEquals(0, new AnswerCache(file, 10).size());
+	}
+
+	@Test
+	public void keyContainsPathOfNestedObjects() {
+		assertEquals("java.lang.String", AnswerCache.keyOf(String.class, ""));
+		assertEquals("java.lang.String#db.host", AnswerCache.keyOf(String.class, "db.host"));
+	}
+
+	private static Map<String, String> answers(String... keysAndValues) {
+		Map<String, String> m = new LinkedHashMap<>();
+		for (int i = 0; i < keysAndValues.length; i += 2) {
+			m.put(keysAndValues[i], keysAndValues[i + 1]);
+		}
+		return m;
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.store;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Zsolt Jurányi
+ */
+public class AnswerHistoryTest {
+
+	private static final String KEY = "Config.host";
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("history", ".bin");
+		assertTrue(file.delete());
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+		new File(file.getPath() + ".broken").delete();
+		new File(file.getPath() + ".tmp").delete();
+	}
+
+	@Test
+	public void suggestsByFrequencyOrRecency() throws IOException {
+		try (AnswerHistory history = new AnswerHistory(file, AnswerHistory.DEFAULT_MAX_ANSWERS)) {
+			assertNull(history.suggest(KEY, AnswerHistory.Ranking.FREQUENT));
+			history.record(KEY, "a");
+			history.record(KEY, "a");
+			history.record(KEY, "b");
+			assertEquals("a", history.suggest(KEY, AnswerHistory.Ranking.FREQUENT));
+			assertEquals("b", history.suggest(KEY, AnswerHistory.Ranking.RECENT));
+		}
+	}
+
+	@Test
+	public void evictsLeastFrequentlyUsed() throws IOException {
+		try (AnswerHistory history = new AnswerHistory(file, 2)) {
+			history.record(KEY, "a");
+			history.record(KEY, "a");
+			history.record(KEY, "b");
+			history.record(KEY, "c"); // evicts b
+			assertEquals(2, history.size());
+			assertEquals("c", history.suggest(KEY, AnswerHistory.Ranking.RECENT));
+			history.record(KEY, "c");
+			history.record(KEY, "c");
+			assertEquals("c", history.suggest(KEY, AnswerHistory.Ranking.FREQUENT));
+		}
+	}
+
+	@Test
+	public void survivesReload() throws IOException {
+		try (AnswerHistory history = new AnswerHistory(file, AnswerHistory.DEFAULT_MAX_ANSWERS)) {
+			history.record(KEY, "a");
+			history.record(KEY, "a");
+			history.record(KEY, "b");
+			history.record("Config.port", "8080");
+		}
+		try (AnswerHistory history = new AnswerHistory(file, AnswerHistory.DEFAULT_MAX_ANSWERS)) {
+			assertEquals(3, history.size());
+			assertEquals("a", history.suggest(KEY, AnswerHistory.Ranking.FREQUENT));
+			assertEquals("b", history.suggest(KEY, AnswerHistory.Ranking.RECENT));
+			assertEquals("8080", history.suggest("Config.port", AnswerHistory.Ranking.FREQUENT));
+		}
+	}
+
+	@Test
+	public void compactsLongFile() throws IOException {
+		try (AnswerHistory history = new AnswerHistory(file, AnswerHistory.DEFAULT_MAX_ANSWERS)) {
+			for (int i = 0; i < 3000; i++) {
+				history.record(KEY, 0 == i % 3 ? "a" : "b");
+			}
+		}
+		long length = file.length();
+		try (AnswerHistory history = new AnswerHistory(file, AnswerHistory.DEFAULT_MAX_ANSWERS)) {
+			assertTrue(file.length() < length / 100);
+			assertEquals("b", history.suggest(KEY, AnswerHistory.Ranking.FREQUENT));
+		}
+		try (AnswerHistory history = new AnswerHistory(file, AnswerHistory.DEFAULT_MAX_ANSWERS)) {
+			assertEquals("b", history.suggest(KEY, AnswerHistory.Ranking.FREQUENT));
+			assertEquals(2, history.size());
+			assertEquals("b", history.suggest(KEY, AnswerHistory.Ranking.RECENT));
+		}
+	}
+
+	@Test
+	public void dropsTruncatedRecord() throws IOException {
+		try (AnswerHistory history = new AnswerHistory(file, AnswerHistory.DEFAULT_MAX_ANSWERS)) {
+			history.record(KEY, "a");
+			history.record(KEY, "b");
+		}
+		try (RandomAccessFile f = new RandomAccessFile(file, "rw")) {
+			f.setLength(f.length() - 3);
+		}
+		try (AnswerHistory history = new AnswerHistory(file, AnswerHistory.DEFAULT_MAX_ANSWERS)) {
+			assertEquals(1, history.size());
+			history.record(KEY, "c");
+		}
+		try (AnswerHistory history = new AnswerHistory(file, AnswerHistory.DEFAULT_MAX_ANSWERS)) {
+			assertEquals(2, history.size());
+			assertEquals("c", history.suggest(KEY, AnswerHistory.Ranking.RECENT));
+		}
+	}
+
+	@Test
+	public void startsNewFileWhenUnloadable() throws IOException {
+		try (FileOutputStream out = new FileOutputStream(file)) {
+			out.write("garbage, not a history file".getBytes("UTF-8"));
+		}
+		try (AnswerHistory history = new AnswerHistory(file, AnswerHistory.DEFAULT_MAX_ANSWERS)) {
+			assertEquals(0, history.size());
+			history.record(KEY, "a");
+		}
+		assertTrue(new File(file.getPath() + ".broken").isFile());
+		try (AnswerHistory history = new AnswerHistory(file, AnswerHistory.DEFAULT_MAX_ANSWERS)) {
+			assertEquals(1, history.size());
+			assertEquals("a", history.suggest(KEY, AnswerHistory.Ranking.FREQUENT));
+		}
+	}
+}
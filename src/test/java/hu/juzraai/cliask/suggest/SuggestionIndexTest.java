@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.suggest;
+
+import hu.juzraai.cliask.inspect.InspectFailedException;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.Collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Zsolt Jurányi
+ */
+public class SuggestionIndexTest {
+
+	private static class Regions implements SuggestionSource {
+
+		private Regions() {
+		}
+
+		@Nonnull
+		@Override
+		public Collection<String> values() {
+			return Arrays.asList("eu-west-1", "eu-central-1", "us-east-1", "us-west-2");
+		}
+	}
+
+	private static class Unavailable implements SuggestionSource {
+
+		Unavailable(String url) {
+		}
+
+		@Nonnull
+		@Override
+		public Collection<String> values() {
+			return Arrays.asList("x");
+		}
+	}
+
+	@Test
+	public void ofBuildsCachedIndexOfNonPublicSource() throws InspectFailedException {
+		SuggestionIndex index = SuggestionIndex.of(Regions.class);
+		assertSame(index, SuggestionIndex.of(Regions.class));
+		assertEquals(4, index.size());
+		assertTrue(index.contains("EU-WEST-1"));
+	}
+
+	@Test(expected = InspectFailedException.class)
+	public void ofFailsWithoutNoArgConstructor() throws InspectFailedException {
+		SuggestionIndex.of(Unavailable.class);
+	}
+
+	@Test
+	public void completionsComeFirst() throws InspectFailedException {
+		SuggestionIndex index = SuggestionIndex.of(Regions.class);
+		assertEquals(Arrays.asList("eu-central-1", "eu-west-1"), index.suggest("eu-"));
+		assertEquals(Arrays.asList("us-west-2"), index.suggest("us-wset-2"));
+	}
+}
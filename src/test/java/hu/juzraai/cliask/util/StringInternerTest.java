@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 Zsolt Jurányi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.juzraai.cliask.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Zsolt Jurányi
+ */
+public class StringInternerTest {
+
+	@Test
+	public void internReturnsStoredInstance() {
+		StringInterner interner = new StringInterner(4);
+		String a = new String("eu-west");
+		String b = new String("eu-west");
+		assertSame(a, interner.intern(a));
+		assertSame(a, interner.intern(b));
+		assertEquals(1, interner.size());
+	}
+
+	@Test
+	public void internDoesNotStoreWhenFull() {
+		StringInterner interner = new StringInterner(1);
+		interner.intern("a");
+		String b = new String("b");
+		String c = new String("b");
+		assertSame(b, interner.intern(b));
+		assertNotSame(b, interner.intern(c));
+		assertEquals(1, interner.size());
+	}
+
+	@Test
+	public void concurrentInternDoesNotExceedCapacity() throws InterruptedException {
+		final int capacity = 8;
+		final StringInterner interner = new StringInterner(capacity);
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		for (int t = 0; t < 8; t++) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					for (int i = 0; i < 1000; i++) {
+						interner.intern(Integer.toString(i % 32));
+					}
+				}
+			});
+		}
+		start.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		assertEquals(capacity, interner.size());
+	}
+
+	@Test
+	public void clearMakesRoomAgain() {
+		StringInterner interner = new StringInterner(1);
+		interner.intern("a");
+		interner.clear();
+		String b = new String("b");
+		interner.intern(b);
+		assertSame(b, interner.intern(new String("b")));
+	}
+}